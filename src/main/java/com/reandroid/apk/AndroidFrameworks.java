@@ -15,15 +15,49 @@
   */
 package com.reandroid.apk;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
+import com.reandroid.archive.ArchiveBytes;
+import com.reandroid.archive.FileInputSource;
+import com.reandroid.archive.InputSource;
+import com.reandroid.archive.ZipEntryMap;
+import com.reandroid.arsc.BuildInfo;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
+import com.reandroid.arsc.model.FrameworkTable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Loads the android frameworks bundled under {@link #ANDROID_RESOURCE_DIRECTORY}.
+ * Frameworks returned by {@link #getLatest()} and {@link #getBestMatch(int)} are loaded
+ * once per version and shared by every module that links against them, their tables
+ * must be treated as read-only: concurrent reads are safe (lazy parsing is synchronized)
+ * but any modification is visible to all modules using the same framework. Callers that
+ * need to modify a framework should load their own copy through {@link #loadResource(int)}.
+ * At most {@link #MAX_LOADED_FRAMEWORKS} versions are kept, least recently used ones are
+ * dropped from the cache but remain usable by modules still referencing them.
+ * When a cache directory is set (see {@link #setCacheDirectory(File)}), the framework
+ * table is extracted there once and subsequent loads memory-map it with lazy types and
+ * strings instead of unzipping and parsing the whole bundled apk. The mapped file stays
+ * open while the table is reachable, on some platforms (e.g. windows) it can not be
+ * replaced until then.
+ * */
 public class AndroidFrameworks {
     private static Map<Integer, String> resource_paths;
     private static FrameworkApk mCurrent;
+    private static final Map<Integer, FrameworkApk> sLoadedFrameworks =
+            new LinkedHashMap<Integer, FrameworkApk>(4, 0.75f, true){
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, FrameworkApk> eldest) {
+                    return size() > MAX_LOADED_FRAMEWORKS;
+                }
+            };
+    private static File sCacheDirectory;
+    private static boolean sCacheDirectoryInitialized;
 
     public static void setCurrent(FrameworkApk current){
         synchronized (AndroidFrameworks.class){
@@ -53,7 +87,7 @@ public class AndroidFrameworks {
             if(path == null){
                 throw new IOException("Could not get latest framework");
             }
-            FrameworkApk frameworkApk = loadResource(latest);
+            FrameworkApk frameworkApk = getOrLoad(latest);
             if(current == null){
                 setCurrent(frameworkApk);
             }
@@ -72,15 +106,48 @@ public class AndroidFrameworks {
             if(path == null){
                 throw new IOException("Could not get framework for version = "+version);
             }
-            return loadResource(best);
+            return getOrLoad(best);
+        }
+    }
+    /**
+     * Sets directory where extracted framework tables are kept across runs,
+     * null disables the cache. Defaults to the value of system property
+     * {@link #PROPERTY_CACHE_DIRECTORY} if present.
+     * */
+    public static void setCacheDirectory(File directory){
+        synchronized (AndroidFrameworks.class){
+            sCacheDirectory = directory;
+            sCacheDirectoryInitialized = true;
+        }
+    }
+    public static File getCacheDirectory(){
+        synchronized (AndroidFrameworks.class){
+            if(!sCacheDirectoryInitialized){
+                String path = System.getProperty(PROPERTY_CACHE_DIRECTORY);
+                if(path != null && path.trim().length() != 0){
+                    sCacheDirectory = new File(path.trim());
+                }
+                sCacheDirectoryInitialized = true;
+            }
+            return sCacheDirectory;
         }
     }
+    private static FrameworkApk getOrLoad(int version) throws IOException {
+        FrameworkApk frameworkApk = sLoadedFrameworks.get(version);
+        if(frameworkApk != null && !frameworkApk.isDestroyed()){
+            return frameworkApk;
+        }
+        frameworkApk = loadResource(version);
+        sLoadedFrameworks.put(version, frameworkApk);
+        return frameworkApk;
+    }
     public static void destroyCurrent(){
         synchronized (AndroidFrameworks.class){
             FrameworkApk current = mCurrent;
             if(current==null){
                 return;
             }
+            sLoadedFrameworks.values().remove(current);
             current.destroy();
         }
     }
@@ -133,8 +200,84 @@ public class AndroidFrameworks {
             throw new IOException("No resource found for version: "+version);
         }
         String simpleName = toSimpleName(path);
+        File directory = getCacheDirectory();
+        if(directory != null){
+            FrameworkApk frameworkApk;
+            try{
+                frameworkApk = loadCached(directory, simpleName, path, version);
+            }catch (IOException ignored){
+                // e.g. read-only or locked cache directory, use the bundled apk
+                frameworkApk = null;
+            }
+            if(frameworkApk != null){
+                return frameworkApk;
+            }
+        }
         return FrameworkApk.loadApkBuffer(simpleName, AndroidFrameworks.class.getResourceAsStream(path));
     }
+    private static FrameworkApk loadCached(File directory, String simpleName, String path, int version) throws IOException {
+        String cacheName = simpleName + '-' + toCacheKey();
+        File tableFile = new File(directory, cacheName + CACHE_TABLE_EXTENSION);
+        File manifestFile = new File(directory, cacheName + CACHE_MANIFEST_EXTENSION);
+        if(!tableFile.isFile() || !manifestFile.isFile()){
+            if(!extractCache(path, tableFile, manifestFile)){
+                return null;
+            }
+        }
+        FrameworkTable frameworkTable = new FrameworkTable();
+        frameworkTable.setLazyLoadTypes(true);
+        frameworkTable.setLazyLoadStrings(true);
+        try{
+            // cache files are private and only ever replaced by atomic rename
+            frameworkTable.readBytes(tableFile, true);
+        }catch (IOException ignored){
+            frameworkTable = null;
+        }
+        if(frameworkTable == null || !frameworkTable.isOptimized()
+                || frameworkTable.getVersionCode() != version){
+            tableFile.delete();
+            return null;
+        }
+        ZipEntryMap zipEntryMap = new ZipEntryMap();
+        zipEntryMap.add(new FileInputSource(manifestFile, AndroidManifestBlock.FILE_NAME));
+        FrameworkApk frameworkApk = new FrameworkApk(simpleName, zipEntryMap);
+        frameworkApk.setTableBlock(frameworkTable);
+        return frameworkApk;
+    }
+    private static boolean extractCache(String path, File tableFile, File manifestFile) throws IOException {
+        File directory = tableFile.getParentFile();
+        if(!directory.isDirectory() && !directory.mkdirs()){
+            return false;
+        }
+        ArchiveBytes archive = new ArchiveBytes(AndroidFrameworks.class.getResourceAsStream(path));
+        InputSource table = archive.getEntrySource(TableBlock.FILE_NAME);
+        InputSource manifest = archive.getEntrySource(AndroidManifestBlock.FILE_NAME);
+        if(table == null || manifest == null){
+            return false;
+        }
+        writeAtomic(manifest, manifestFile);
+        writeAtomic(table, tableFile);
+        return true;
+    }
+    private static void writeAtomic(InputSource inputSource, File file) throws IOException {
+        File tmp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try{
+            OutputStream outputStream = new FileOutputStream(tmp);
+            inputSource.write(outputStream);
+            outputStream.close();
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }finally {
+            tmp.delete();
+        }
+    }
+    private static String toCacheKey(){
+        String version = BuildInfo.getVersion();
+        if(version.length() == 0 || version.indexOf('$') >= 0){
+            version = "dev";
+        }
+        return "v" + CACHE_FORMAT_VERSION + '-' + version.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
     private static String getResourcePath(int version){
         return getResourcePaths().get(version);
     }
@@ -222,4 +365,10 @@ public class AndroidFrameworks {
     private static final String ANDROID_RESOURCE_DIRECTORY = "/frameworks/android/";
     private static final String ANDROID_PACKAGE = "android";
     private static final String FRAMEWORK_EXTENSION = ".apk";
+
+    public static final int MAX_LOADED_FRAMEWORKS = 2;
+    public static final String PROPERTY_CACHE_DIRECTORY = "arsclib.framework.cache";
+    private static final int CACHE_FORMAT_VERSION = 1;
+    private static final String CACHE_TABLE_EXTENSION = ".arsc";
+    private static final String CACHE_MANIFEST_EXTENSION = ".xml";
 }
@@ -26,6 +26,10 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ApkBundle {
     private final Map<String, ApkModule> mModulesMap;
@@ -35,10 +39,18 @@ public class ApkBundle {
     }
 
     public ApkModule mergeModules() throws IOException {
+        return mergeModules(1);
+    }
+    /**
+     * Merges all modules, resource tables of modules are loaded concurrently using the
+     * given number of threads then merged in one pass refreshing the merged table once
+     * */
+    public ApkModule mergeModules(int threads) throws IOException {
         List<ApkModule> moduleList=getApkModuleList();
         if(moduleList.size()==0){
             throw new FileNotFoundException("Nothing to merge, empty modules");
         }
+        loadTableBlocks(moduleList, threads);
         ApkModule result = new ApkModule(generateMergedModuleName(), new ZipEntryMap());
         result.setAPKLogger(apkLogger);
         result.setLoadDefaultFramework(false);
@@ -49,20 +61,28 @@ public class ApkBundle {
         if(base==null){
             base=getLargestTableModule();
         }
-        result.merge(base);
-        ApkSignatureBlock signatureBlock = null;
+        List<ApkModule> mergeList = new ArrayList<>(moduleList.size());
+        if(base != null){
+            mergeList.add(base);
+        }
         for(ApkModule module:moduleList){
+            if(module != base){
+                mergeList.add(module);
+            }
+        }
+        result.mergeTables(mergeList);
+
+        ApkSignatureBlock signatureBlock = null;
+        for(ApkModule module:mergeList){
             ApkSignatureBlock asb = module.getApkSignatureBlock();
             if(module==base){
                 if(asb != null){
                     signatureBlock = asb;
                 }
-                continue;
-            }
-            if(signatureBlock == null){
+            }else if(signatureBlock == null){
                 signatureBlock = asb;
             }
-            result.merge(module);
+            result.merge(module, false);
         }
 
         result.setApkSignatureBlock(signatureBlock);
@@ -75,6 +95,63 @@ public class ApkBundle {
         result.getZipEntryMap().autoSortApkFiles();
         return result;
     }
+    private void loadTableBlocks(List<ApkModule> moduleList, int threads) throws IOException {
+        List<ApkModule> loadList = new ArrayList<>(moduleList.size());
+        for(ApkModule module:moduleList){
+            if(module.hasTableBlock() && module.getLoadedTableBlock() == null){
+                loadList.add(module);
+            }
+        }
+        int size = loadList.size();
+        if(threads <= 1 || size < 2){
+            return;
+        }
+        logMessage("Loading resource tables: "+size+", threads="+threads);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, size));
+        try{
+            List<Future<?>> futureList = new ArrayList<>(size);
+            for(ApkModule module:loadList){
+                futureList.add(executor.submit(() -> module.getTableBlock()));
+            }
+            awaitAll(futureList);
+        }finally {
+            executor.shutdown();
+        }
+    }
+    private static void awaitAll(List<Future<?>> futureList) throws IOException {
+        Throwable error = null;
+        for(Future<?> future:futureList){
+            try{
+                future.get();
+            }catch (ExecutionException exception){
+                if(error == null){
+                    error = exception.getCause();
+                }
+            }catch (InterruptedException exception){
+                Thread.currentThread().interrupt();
+                if(error == null){
+                    error = exception;
+                }
+            }
+        }
+        if(error == null){
+            return;
+        }
+        // ApkModule.getTableBlock wraps IOException
+        if(error instanceof IllegalArgumentException && error.getCause() instanceof IOException){
+            error = error.getCause();
+        }
+        if(error instanceof IOException){
+            throw (IOException) error;
+        }
+        if(error instanceof RuntimeException){
+            throw (RuntimeException) error;
+        }
+        if(error instanceof Error){
+            throw (Error) error;
+        }
+        throw new IOException(error);
+    }
     private void mergeStringPools(ApkModule mergedModule) throws IOException {
         if(!hasOneTableBlock() || mergedModule.hasTableBlock()){
             return;
@@ -27,6 +27,7 @@ import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.arsc.chunk.xml.ResXmlDocument;
 import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.group.StringGroup;
 import com.reandroid.arsc.item.TableString;
 import com.reandroid.arsc.pool.TableStringPool;
@@ -40,6 +41,7 @@ import com.reandroid.xml.XMLDocument;
 import com.reandroid.xml.XMLElement;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.zip.ZipEntry;
@@ -49,6 +51,7 @@ public class ApkModule implements ApkFile, Closeable {
     private final ZipEntryMap zipEntryMap;
     private boolean loadDefaultFramework = true;
     private boolean mDisableLoadFramework = false;
+    private boolean mMemoryMapTable;
     private TableBlock mTableBlock;
     private InputSource mTableOriginalSource;
     private AndroidManifestBlock mManifestBlock;
@@ -345,6 +348,7 @@ public class ApkModule implements ApkFile, Closeable {
         mTableBlock.clearFrameworks();
         FrameworkApk frameworkApk = AndroidFrameworks.getBestMatch(version);
         AndroidFrameworks.setCurrent(frameworkApk);
+        // shared with other modules, only read from it
         mTableBlock.addFramework(frameworkApk.getTableBlock());
         logMessage("Initialized framework: " + frameworkApk.getVersionCode());
     }
@@ -446,6 +450,9 @@ public class ApkModule implements ApkFile, Closeable {
         writeApk(file, null);
     }
     public void writeApk(File file, WriteProgress progress) throws IOException {
+        writeApk(file, progress, 1);
+    }
+    public void writeApk(File file, WriteProgress progress, int threadCount) throws IOException {
         ZipEntryMap archive = getZipEntryMap();
         UncompressedFiles uf = getUncompressedFiles();
         uf.apply(archive);
@@ -453,6 +460,7 @@ public class ApkModule implements ApkFile, Closeable {
         apkWriter.setAPKLogger(getApkLogger());
         apkWriter.setWriteProgress(progress);
         apkWriter.setApkSignatureBlock(getApkSignatureBlock());
+        apkWriter.setThreadCount(threadCount);
         apkWriter.write();
         apkWriter.close();
     }
@@ -884,9 +892,12 @@ public class ApkModule implements ApkFile, Closeable {
             tableBlock = (TableBlock) block;
         }else {
             setTableOriginalSource(inputSource);
-            InputStream inputStream = inputSource.openStream();
-            tableBlock = TableBlock.load(inputStream);
-            inputStream.close();
+            tableBlock = loadMappedTableBlock(inputSource);
+            if(tableBlock == null){
+                InputStream inputStream = inputSource.openStream();
+                tableBlock = TableBlock.load(inputStream);
+                inputStream.close();
+            }
         }
         BlockInputSource<TableBlock> blockInputSource=new BlockInputSource<>(inputSource.getName(), tableBlock);
         blockInputSource.setMethod(inputSource.getMethod());
@@ -895,6 +906,19 @@ public class ApkModule implements ApkFile, Closeable {
         tableBlock.setApkFile(this);
         return tableBlock;
     }
+    // Stored table entry is read directly from memory mapped region of the apk
+    private TableBlock loadMappedTableBlock(InputSource inputSource) throws IOException {
+        if(!isMemoryMapTable() || !(inputSource instanceof ArchiveFileEntrySource)){
+            return null;
+        }
+        ByteBuffer byteBuffer = ((ArchiveFileEntrySource) inputSource).mapStored();
+        if(byteBuffer == null){
+            return null;
+        }
+        TableBlock tableBlock = new TableBlock();
+        tableBlock.readBytes(new BlockReader(byteBuffer));
+        return tableBlock;
+    }
     public void addAll(Collection<? extends InputSource> inputSources){
         if(inputSources == null){
             return;
@@ -938,18 +962,38 @@ public class ApkModule implements ApkFile, Closeable {
     public ZipEntryMap getZipEntryMap() {
         return zipEntryMap;
     }
+    public boolean isMemoryMapTable(){
+        return mMemoryMapTable;
+    }
+    /**
+     * When enabled, stored (uncompressed) resources.arsc is read directly from memory mapped
+     * region of the apk file instead of being copied to heap. Disabled by default.
+     * The mapping is held as long as the table (or its lazily read strings/types) is in use,
+     * the apk file must NOT be modified or replaced meanwhile (reads may return garbage or
+     * crash the JVM) and on Windows the file remains locked until the mapping is collected.
+     * Intended to be used together with {@link TableBlock#setLazyLoadStrings(boolean)} and
+     * {@link TableBlock#setLazyLoadTypes(boolean)}. This should be set before loading the table.
+     * */
+    public void setMemoryMapTable(boolean memoryMapTable){
+        this.mMemoryMapTable = memoryMapTable;
+    }
     public void setLoadDefaultFramework(boolean loadDefaultFramework) {
         this.loadDefaultFramework = loadDefaultFramework;
         this.mDisableLoadFramework = !loadDefaultFramework;
     }
 
     public void merge(ApkModule module) throws IOException {
+        merge(module, true);
+    }
+    void merge(ApkModule module, boolean mergeTable) throws IOException {
         if(module==null||module==this){
             return;
         }
         logMessage("Merging: "+module.getModuleName());
         mergeDexFiles(module);
-        mergeTable(module);
+        if(mergeTable){
+            mergeTable(module);
+        }
         mergeFiles(module);
         getUncompressedFiles().merge(module.getUncompressedFiles());
     }
@@ -958,6 +1002,28 @@ public class ApkModule implements ApkFile, Closeable {
             return;
         }
         logMessage("Merging resource table: "+module.getModuleName());
+        TableBlock coming=module.getTableBlock();
+        getOrCreateMergeTable().merge(coming);
+    }
+    /**
+     * Merges resource tables of all modules in the given order and refreshes once,
+     * used instead of merging tables module by module
+     * */
+    void mergeTables(Collection<ApkModule> modules) {
+        List<TableBlock> tableList = new ArrayList<>(modules.size());
+        for(ApkModule module : modules){
+            if(module==null || module==this || !module.hasTableBlock()){
+                continue;
+            }
+            logMessage("Merging resource table: "+module.getModuleName());
+            tableList.add(module.getTableBlock());
+        }
+        if(tableList.size() == 0){
+            return;
+        }
+        getOrCreateMergeTable().merge(tableList);
+    }
+    private TableBlock getOrCreateMergeTable(){
         TableBlock exist;
         if(!hasTableBlock()){
             exist=new TableBlock();
@@ -966,8 +1032,7 @@ public class ApkModule implements ApkFile, Closeable {
         }else{
             exist=getTableBlock();
         }
-        TableBlock coming=module.getTableBlock();
-        exist.merge(coming);
+        return exist;
     }
     private void mergeFiles(ApkModule module) {
         ZipEntryMap entryMapExist = getZipEntryMap();
@@ -24,9 +24,8 @@ import com.reandroid.identifiers.TableIdentifier;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.*;
 
 public abstract class ApkModuleDecoder extends ApkModuleCoder{
     private final ApkModule apkModule;
@@ -34,22 +33,33 @@ public abstract class ApkModuleDecoder extends ApkModuleCoder{
     private DexDecoder mDexDecoder;
     private boolean mLogErrors;
     private DecodeFilter mDecodeFilter;
+    private int mThreadCount = 1;
+    private ExecutorService mExecutorService;
+    private ExecutorService mOwnExecutor;
+    private final List<Future<Void>> mPendingTasks;
 
     public ApkModuleDecoder(ApkModule apkModule){
         super();
         this.apkModule = apkModule;
-        this.mDecodedPaths = new HashSet<>();
+        this.mDecodedPaths = Collections.synchronizedSet(new HashSet<>());
+        this.mPendingTasks = new ArrayList<>();
         setApkLogger(apkModule.getApkLogger());
     }
     public final void decode(File mainDirectory) throws IOException{
         initialize();
-        decodeUncompressedFiles(mainDirectory);
-        decodeAndroidManifest(mainDirectory);
-        decodeResourceTable(mainDirectory);
-        decodeDexFiles(mainDirectory);
-        extractRootFiles(mainDirectory);
-        decodePathMap(mainDirectory);
-        dumpSignatures(mainDirectory);
+        try{
+            decodeUncompressedFiles(mainDirectory);
+            decodeAndroidManifest(mainDirectory);
+            decodeResourceTable(mainDirectory);
+            awaitTasks();
+            decodeDexFiles(mainDirectory);
+            extractRootFiles(mainDirectory);
+            decodePathMap(mainDirectory);
+            dumpSignatures(mainDirectory);
+        }finally {
+            mPendingTasks.clear();
+            shutdownOwnExecutor();
+        }
     }
     public abstract void decodeResourceTable(File mainDirectory) throws IOException;
     abstract void decodeAndroidManifest(File mainDirectory) throws IOException;
@@ -201,6 +211,104 @@ public abstract class ApkModuleDecoder extends ApkModuleCoder{
         mDecodedPaths.clear();
     }
 
+    public int getThreadCount() {
+        return mThreadCount;
+    }
+    /**
+     * Number of threads used to decode resource files and values, default 1 (sequential).
+     * The decoded output is identical to the sequential path.
+     * */
+    public void setThreadCount(int threadCount) {
+        if(threadCount < 1){
+            threadCount = 1;
+        }
+        this.mThreadCount = threadCount;
+    }
+    public ExecutorService getExecutorService() {
+        return mExecutorService;
+    }
+    /**
+     * Decodes resource files and values on the given executor, overrides thread count.
+     * The executor is owned by caller thus will not be shutdown.
+     * */
+    public void setExecutorService(ExecutorService executorService) {
+        this.mExecutorService = executorService;
+    }
+    public boolean isParallel(){
+        return mExecutorService != null || mThreadCount > 1;
+    }
+    /**
+     * Runs the task on executor, or on current thread if not parallel.
+     * Submitted tasks are completed by {@link #awaitTasks()}
+     * */
+    void submitTask(DecodeTask task) throws IOException {
+        if(!isParallel()){
+            task.run();
+            return;
+        }
+        mPendingTasks.add(getOrCreateExecutor().submit(task));
+    }
+    void runTasks(List<DecodeTask> taskList) throws IOException {
+        for(DecodeTask task : taskList){
+            submitTask(task);
+        }
+        awaitTasks();
+    }
+    /**
+     * Waits all submitted tasks to finish, failures are thrown in order of submission.
+     * */
+    void awaitTasks() throws IOException {
+        Throwable error = null;
+        List<Future<Void>> pendingTasks = this.mPendingTasks;
+        for(int i = 0; i < pendingTasks.size(); i++){
+            try{
+                pendingTasks.get(i).get();
+            }catch (ExecutionException exception){
+                if(error == null){
+                    error = exception.getCause();
+                }
+            }catch (InterruptedException exception){
+                Thread.currentThread().interrupt();
+                if(error == null){
+                    error = exception;
+                }
+            }
+        }
+        pendingTasks.clear();
+        if(error == null){
+            return;
+        }
+        if(error instanceof IOException){
+            throw (IOException) error;
+        }
+        if(error instanceof RuntimeException){
+            throw (RuntimeException) error;
+        }
+        if(error instanceof Error){
+            throw (Error) error;
+        }
+        throw new IOException(error);
+    }
+    private ExecutorService getOrCreateExecutor(){
+        ExecutorService executor = this.mExecutorService;
+        if(executor != null){
+            return executor;
+        }
+        executor = this.mOwnExecutor;
+        if(executor == null){
+            executor = Executors.newFixedThreadPool(getThreadCount());
+            this.mOwnExecutor = executor;
+        }
+        return executor;
+    }
+    private void shutdownOwnExecutor(){
+        ExecutorService executor = this.mOwnExecutor;
+        if(executor != null){
+            this.mOwnExecutor = null;
+            executor.shutdown();
+        }
+    }
+
     public boolean isLogErrors() {
         return mLogErrors;
     }
@@ -209,6 +317,15 @@ public abstract class ApkModuleDecoder extends ApkModuleCoder{
     }
 
 
+    interface DecodeTask extends Callable<Void> {
+        void run() throws IOException;
+        @Override
+        default Void call() throws IOException {
+            run();
+            return null;
+        }
+    }
+
     static File toPackageDirectory(File mainDir, PackageBlock packageBlock){
         File dir = new File(mainDir, TableBlock.DIRECTORY_NAME);
         return new File(dir, packageBlock.buildDecodeDirectoryName());
@@ -19,10 +19,12 @@ import com.reandroid.archive.InputSource;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.arsc.chunk.xml.ResXmlDocument;
-import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONWriter;
+import com.reandroid.json.JsonUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 
 public class ApkModuleJsonDecoder extends ApkModuleDecoder{
     private final boolean splitTypes;
@@ -58,8 +60,9 @@ public class ApkModuleJsonDecoder extends ApkModuleDecoder{
         File file = toResJson(mainDirectory, path);
         ResXmlDocument resXmlDocument = new ResXmlDocument();
         resXmlDocument.readBytes(inputSource.openStream());
-        JSONObject jsonObject = resXmlDocument.toJson();
-        jsonObject.write(file);
+        Writer writer = JsonUtil.openFileWriter(file);
+        resXmlDocument.writeJson(new JSONWriter(writer));
+        writer.close();
         addDecodedPath(path);
     }
     private void decodeTable(File dir) throws IOException {
@@ -88,7 +91,9 @@ public class ApkModuleJsonDecoder extends ApkModuleDecoder{
         TableBlock tableBlock = apkModule.getTableBlock();
         File file = new File(mainDirectory, TableBlock.DIRECTORY_NAME);
         file = new File(file, TableBlock.FILE_NAME_JSON);
-        tableBlock.toJson().write(file);
+        Writer writer = JsonUtil.openFileWriter(file);
+        tableBlock.writeJson(new JSONWriter(writer));
+        writer.close();
         addDecodedPath(TableBlock.FILE_NAME);
     }
     void decodeAndroidManifest(File mainDirectory) throws IOException {
@@ -98,7 +103,9 @@ public class ApkModuleJsonDecoder extends ApkModuleDecoder{
         }
         AndroidManifestBlock manifestBlock = apkModule.getAndroidManifestBlock();
         File file = new File(mainDirectory, AndroidManifestBlock.FILE_NAME_JSON);
-        manifestBlock.toJson().write(file);
+        Writer writer = JsonUtil.openFileWriter(file);
+        manifestBlock.writeJson(new JSONWriter(writer));
+        writer.close();
         addDecodedPath(AndroidManifestBlock.FILE_NAME);
     }
     private File toResJson(File mainDirectory, String path){
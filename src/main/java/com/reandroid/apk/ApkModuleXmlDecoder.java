@@ -20,7 +20,10 @@ import com.reandroid.arsc.chunk.PackageBlock;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.arsc.chunk.xml.ResXmlDocument;
+import com.reandroid.arsc.coder.xml.ValuesDirectorySerializer;
 import com.reandroid.arsc.coder.xml.XmlCoder;
+import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.arsc.container.SpecTypePair;
 import com.reandroid.utils.io.IOUtil;
 import com.reandroid.arsc.value.*;
 import com.reandroid.json.JSONObject;
@@ -60,19 +63,32 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
         decodeValues(mainDirectory, tableBlock);
     }
     private void decodeTableBlock(File mainDirectory, TableBlock tableBlock) throws IOException {
+        // Runs along with pending manifest decoding, both only read the table
+        boolean[] failed = new boolean[1];
+        for(PackageBlock packageBlock:tableBlock.listPackages()){
+            submitTask(() -> {
+                try{
+                    decodePackageInfo(mainDirectory, packageBlock);
+                    decodePublicXml(mainDirectory, packageBlock);
+                }catch (IOException exception){
+                    failed[0] = true;
+                    logOrThrow("Error decoding resource table", exception);
+                }
+            });
+        }
+        awaitTasks();
+        if(failed[0]){
+            return;
+        }
         try{
-            decodePackageInfo(mainDirectory, tableBlock);
-            decodePublicXml(mainDirectory, tableBlock);
+            if(tableBlock.countPackages() == 0){
+                decodeEmptyTable(mainDirectory);
+            }
             addDecodedPath(TableBlock.FILE_NAME);
         }catch (IOException exception){
             logOrThrow("Error decoding resource table", exception);
         }
     }
-    private void decodePackageInfo(File mainDirectory, TableBlock tableBlock) throws IOException {
-        for(PackageBlock packageBlock:tableBlock.listPackages()){
-            decodePackageInfo(mainDirectory, packageBlock);
-        }
-    }
     private void decodePackageInfo(File mainDirectory, PackageBlock packageBlock) throws IOException {
         File packageDirectory = toPackageDirectory(mainDirectory, packageBlock);
         File packageJsonFile = new File(packageDirectory, PackageBlock.JSON_FILE_NAME);
@@ -85,58 +101,65 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
         }else {
             logMessage("Res files: " + TableBlock.DIRECTORY_NAME);
         }
+        // Renaming paths modifies the table, thus done here before decoding in parallel
+        List<ResFileTask> resFileTaskList = new ArrayList<>();
         List<ResFile> resFileList = getApkModule().listResFiles();
         for(ResFile resFile:resFileList){
-            decodeResFile(mainDirectory, resFile);
+            ResFileTask resFileTask = createResFileTask(mainDirectory, resFile);
+            if(resFileTask != null){
+                resFileTaskList.add(resFileTask);
+            }
+        }
+        runTasks(new ArrayList<>(resFileTaskList));
+        for(ResFileTask resFileTask : resFileTaskList){
+            if(!resFileTask.decoded){
+                continue;
+            }
+            if(!keepResPath()){
+                addDecodedEntry(resFileTask.entry);
+            }
+            addDecodedPath(resFileTask.path);
         }
     }
-    private void decodeResFile(File mainDirectory, ResFile resFile)
-            throws IOException{
-        if(resFile.isBinaryXml()){
+    private ResFileTask createResFileTask(File mainDirectory, ResFile resFile){
+        boolean binXml = resFile.isBinaryXml();
+        if(!binXml){
+            String path = resFile.getFilePath();
+            if(path.endsWith(".xml")){
+                logMessage("Ignore non bin xml: " + path);
+                return null;
+            }
+        }
+        Entry entry = resFile.pickOne();
+        PackageBlock packageBlock = entry.getPackageBlock();
+        File file = toDecodeResFile(mainDirectory, resFile, packageBlock);
+        return new ResFileTask(resFile, entry, file, binXml);
+    }
+    private void decodeResFile(ResFileTask resFileTask) throws IOException{
+        if(resFileTask.binXml){
             try{
-                decodeResXml(mainDirectory, resFile);
+                decodeResXml(resFileTask);
             }catch (Exception ex){
                 logOrThrow("Failed to decode: "
-                        + resFile.getFilePath(), ex);
+                        + resFileTask.path, ex);
             }
             return;
         }
-        String path = resFile.getFilePath();
-        if(path.endsWith(".xml")){
-            logMessage("Ignore non bin xml: " + path);
-            return;
-        }
-        decodeResRaw(mainDirectory, resFile);
+        decodeResRaw(resFileTask);
     }
-    private void decodeResRaw(File mainDirectory, ResFile resFile)
+    private void decodeResRaw(ResFileTask resFileTask)
             throws IOException {
-        Entry entry = resFile.pickOne();
-        PackageBlock packageBlock = entry.getPackageBlock();
-
-        File file = toDecodeResFile(mainDirectory, resFile, packageBlock);
-        InputSource inputSource = resFile.getInputSource();
-        logVerbose(inputSource.getAlias());
-        inputSource.write(file);
-        if(!keepResPath()){
-            addDecodedEntry(entry);
-        }
-        addDecodedPath(inputSource.getAlias());
+        InputSource inputSource = resFileTask.resFile.getInputSource();
+        logVerbose(resFileTask.path);
+        inputSource.write(resFileTask.file);
+        resFileTask.decoded = true;
     }
-    private void decodeResXml(File mainDirectory, ResFile resFile)
+    private void decodeResXml(ResFileTask resFileTask)
             throws IOException{
-        Entry entry = resFile.pickOne();
-        PackageBlock packageBlock = entry.getPackageBlock();
-
-        File file = toDecodeResFile(mainDirectory, resFile, packageBlock);
-        InputSource inputSource = resFile.getInputSource();
-
-        logVerbose(inputSource.getAlias());
-        serializeXml(packageBlock, resFile.getInputSource(), file);
-
-        if(!keepResPath()){
-            addDecodedEntry(entry);
-        }
-        addDecodedPath(inputSource.getAlias());
+        PackageBlock packageBlock = resFileTask.entry.getPackageBlock();
+        logVerbose(resFileTask.path);
+        serializeXml(packageBlock, resFileTask.resFile.getInputSource(), resFileTask.file);
+        resFileTask.decoded = true;
     }
     private File toDecodeResFile(File mainDirectory, ResFile resFile, PackageBlock packageBlock){
         String path;
@@ -152,15 +175,6 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
         path = path.replace('/', File.separatorChar);
         return new File(dir, path);
     }
-    private void decodePublicXml(File mainDirectory, TableBlock tableBlock)
-            throws IOException{
-        for(PackageBlock packageBlock:tableBlock.listPackages()){
-            decodePublicXml(mainDirectory, packageBlock);
-        }
-        if(tableBlock.countPackages() == 0){
-            decodeEmptyTable(mainDirectory);
-        }
-    }
     private void decodePublicXml(File mainDirectory, PackageBlock packageBlock)
             throws IOException {
         File packageDirectory = toPackageDirectory(mainDirectory, packageBlock);
@@ -200,7 +214,7 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
         if(isExcluded(AndroidManifestBlock.FILE_NAME)){
             decodeAndroidManifestBin(mainDirectory);
         }else {
-            decodeAndroidManifestXml(mainDirectory);
+            submitTask(() -> decodeAndroidManifestXml(mainDirectory));
         }
     }
     private void decodeAndroidManifestXml(File mainDirectory)
@@ -243,8 +257,10 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
     }
     private void serializeXml(PackageBlock packageBlock, InputSource inputSource, File outFile)
             throws IOException {
+        BlockReader reader = new BlockReader(inputSource.openStream());
         ResXmlDocument document = new ResXmlDocument();
-        document.readBytes(inputSource.openStream());
+        document.readBytes(reader);
+        reader.close();
         document.setPackageBlock(packageBlock);
         serializeXml(packageBlock, document, outFile);
     }
@@ -270,10 +286,47 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
     private void decodeValues(File mainDirectory, TableBlock tableBlock) throws IOException {
         File resourcesDir = new File(mainDirectory, TableBlock.DIRECTORY_NAME);
         XmlCoder xmlCoder = XmlCoder.getInstance();
-        xmlCoder.VALUES_XML.decodeTable(resourcesDir, tableBlock, this);
+        if(!isParallel()){
+            xmlCoder.VALUES_XML.decodeTable(resourcesDir, tableBlock, this);
+            return;
+        }
+        logMessage("Decoding resource table values ...");
+        XmlCoder.ValuesXml valuesXml = xmlCoder.VALUES_XML;
+        ValuesDirectorySerializer serializerFactory = new ValuesDirectorySerializer(resourcesDir);
+        List<DecodeTask> taskList = new ArrayList<>();
+        for(PackageBlock packageBlock : tableBlock.listPackages()){
+            packageBlock.sortTypes();
+            for(SpecTypePair specTypePair : packageBlock.listSpecTypePairs()){
+                for(ResConfig resConfig : specTypePair.listResConfig()){
+                    taskList.add(() -> valuesXml.decodeType(
+                            serializerFactory, specTypePair, resConfig, this));
+                }
+            }
+        }
+        runTasks(taskList);
     }
     @Override
     public boolean test(Entry entry) {
         return containsDecodedEntry(entry);
     }
+
+    class ResFileTask implements DecodeTask {
+        final ResFile resFile;
+        final Entry entry;
+        final File file;
+        final String path;
+        final boolean binXml;
+        boolean decoded;
+        ResFileTask(ResFile resFile, Entry entry, File file, boolean binXml){
+            this.resFile = resFile;
+            this.entry = entry;
+            this.file = file;
+            this.path = resFile.getInputSource().getAlias();
+            this.binXml = binXml;
+        }
+        @Override
+        public void run() throws IOException {
+            decodeResFile(this);
+        }
+    }
 }
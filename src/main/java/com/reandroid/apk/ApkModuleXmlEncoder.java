@@ -18,6 +18,7 @@ package com.reandroid.apk;
 import com.reandroid.apk.xmlencoder.XMLEncodeSource;
 import com.reandroid.apk.xmlencoder.XMLTableBlockEncoder;
 import com.reandroid.archive.FileInputSource;
+import com.reandroid.archive.InputSource;
 import com.reandroid.arsc.chunk.PackageBlock;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
@@ -27,10 +28,16 @@ import com.reandroid.xml.source.XMLParserSource;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ApkModuleXmlEncoder extends ApkModuleEncoder{
     private final XMLTableBlockEncoder tableBlockEncoder;
+    private int threadCount = 1;
     public ApkModuleXmlEncoder(){
         this.tableBlockEncoder = new XMLTableBlockEncoder();
     }
@@ -38,12 +45,29 @@ public class ApkModuleXmlEncoder extends ApkModuleEncoder{
         this.tableBlockEncoder = new XMLTableBlockEncoder(module, tableBlock);
     }
 
+    public int getThreadCount() {
+        return threadCount;
+    }
+    /**
+     * Sets number of threads used to parse values xml and to compile res xml files.
+     * Values are still encoded to the table in order, and xml files are compiled after
+     * the table is built, thus the output is the same regardless of thread count. Default 1
+     * */
+    public void setThreadCount(int threadCount) {
+        if(threadCount < 1){
+            threadCount = 1;
+        }
+        this.threadCount = threadCount;
+        this.tableBlockEncoder.setThreadCount(threadCount);
+    }
+
     @Override
     public void buildResources(File mainDirectory) throws IOException{
         encodeManifestBinary(mainDirectory);
         buildTableBlock(mainDirectory);
         encodeManifestXml(mainDirectory);
         scanResFilesDirectory(mainDirectory);
+        encodeXmlSources();
     }
     @Override
     public ApkModule getApkModule(){
@@ -122,6 +146,62 @@ public class ApkModuleXmlEncoder extends ApkModuleEncoder{
             getApkModule().add(inputSource);
         }
     }
+    private void encodeXmlSources() throws IOException {
+        int threadCount = getThreadCount();
+        if(threadCount < 2){
+            return;
+        }
+        List<XMLEncodeSource> sourceList = new ArrayList<>();
+        for(InputSource inputSource : getApkModule().getZipEntryMap().toArray()){
+            if(inputSource instanceof XMLEncodeSource){
+                sourceList.add((XMLEncodeSource) inputSource);
+            }
+        }
+        if(sourceList.size() < 2){
+            return;
+        }
+        logMessage("Compiling xml files: " + sourceList.size()
+                + ", threads = " + threadCount);
+        // the table is complete and only read from here, see XMLEncodeSource.encodeBytes
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> futureList = new ArrayList<>(sourceList.size());
+        try{
+            for(XMLEncodeSource xmlEncodeSource : sourceList){
+                futureList.add(executorService.submit(() -> {
+                    xmlEncodeSource.encodeBytes();
+                    return null;
+                }));
+            }
+            for(Future<?> future : futureList){
+                awaitTask(future);
+            }
+        }finally {
+            for(Future<?> future : futureList){
+                future.cancel(false);
+            }
+            executorService.shutdown();
+        }
+    }
+    private static void awaitTask(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException(exception);
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if(cause instanceof IOException){
+                throw (IOException) cause;
+            }
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error){
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
     private Entry getEntry(String path){
         List<Entry> entryList = getApkModule().listReferencedEntries(path);
         if(entryList.size() > 0){
@@ -24,6 +24,7 @@ import com.reandroid.arsc.value.ValueType;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONException;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -72,16 +73,24 @@ public class JsonStringPoolBuilder {
         }
     }
     public void scanFile(File jsonFile) throws IOException {
+        JSONReader reader = new JSONReader(jsonFile);
         try{
-            JSONObject jsonObject = new JSONObject(jsonFile);
-            build(jsonObject);
+            build(reader);
         }catch (JSONException ex){
             throw new IOException(jsonFile+": "+ex.getMessage());
+        }finally {
+            reader.close();
         }
     }
     public void build(JSONObject jsonObject){
         scan(jsonObject);
     }
+    /**
+     * Same as {@link #build(JSONObject)} but scans the json text incrementally
+     * */
+    public void build(JSONReader reader){
+        scanValue(reader, null);
+    }
     public Set<String> getTableString(){
         return mTableStrings;
     }
@@ -118,6 +127,45 @@ public class JsonStringPoolBuilder {
             }
         }
     }
+    private void scanValue(JSONReader reader, String key){
+        char c = reader.peek();
+        if(c == '{'){
+            scanObject(reader);
+        }else if(c != '['){
+            reader.skipValue();
+        }else if(TableBlock.NAME_styled_strings.equals(key)){
+            this.mStyledStrings = reader.nextJSONArray();
+        }else {
+            reader.beginArray();
+            while (reader.hasNext()){
+                scanValue(reader, null);
+            }
+            reader.endArray();
+        }
+    }
+    private void scanObject(JSONReader reader){
+        String valueType = null;
+        String data = null;
+        reader.beginObject();
+        while (reader.hasNext()){
+            String key = reader.nextKey();
+            if(ValueHeader.NAME_entry_name.equals(key)){
+                addSpecName(reader.nextString());
+            }else if(ApkUtil.NAME_value_type.equals(key)){
+                valueType = reader.nextString();
+            }else if(ApkUtil.NAME_data.equals(key) && reader.peek() != '{' && reader.peek() != '['){
+                data = reader.nextString();
+            }else if(PackageBlock.NAME_package_id.equals(key) && valueType == null){
+                mCurrentPackageId = reader.nextInt();
+            }else {
+                scanValue(reader, key);
+            }
+        }
+        reader.endObject();
+        if(ValueType.STRING.name().equals(valueType)){
+            addTableString(data != null ? data : "");
+        }
+    }
     private void scan(JSONArray jsonArray){
         if(jsonArray==null){
             return;
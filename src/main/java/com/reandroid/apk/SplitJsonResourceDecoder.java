@@ -22,9 +22,12 @@ import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.TypeBlock;
 import com.reandroid.arsc.container.SpecTypePair;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONWriter;
+import com.reandroid.json.JsonUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 
 public class SplitJsonResourceDecoder {
     private final TableBlock tableBlock;
@@ -67,7 +70,8 @@ public class SplitJsonResourceDecoder {
     private void writeSplitTypeJsonFiles(File packageDirectory, TypeBlock typeBlock) throws IOException {
         File file = new File(packageDirectory,
                 typeBlock.buildUniqueDirectoryName() + ApkUtil.JSON_FILE_EXTENSION);
-        JSONObject jsonObject = typeBlock.toJson();
-        jsonObject.write(file);
+        Writer writer = JsonUtil.openFileWriter(file);
+        typeBlock.writeJson(new JSONWriter(writer));
+        writer.close();
     }
 }
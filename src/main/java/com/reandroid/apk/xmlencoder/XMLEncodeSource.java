@@ -17,6 +17,7 @@ public class XMLEncodeSource extends ByteInputSource {
     private final PackageBlock packageBlock;
     private final XMLParserSource parserSource;
     private ResXmlDocument mResXmlDocument;
+    private byte[] mEncodedBytes;
     private APKLogger mLogger;
 
     public XMLEncodeSource(PackageBlock packageBlock, XMLParserSource parserSource) {
@@ -26,31 +27,82 @@ public class XMLEncodeSource extends ByteInputSource {
     }
     @Override
     public long getLength() throws IOException {
+        byte[] bytes = getEncodedBytes();
+        if(bytes != null){
+            return bytes.length;
+        }
         return getResXmlDocument().countBytes();
     }
     @Override
     public long getCrc() throws IOException{
-        ResXmlDocument resXmlDocument = getResXmlDocument();
         CrcOutputStream outputStream=new CrcOutputStream();
-        resXmlDocument.writeBytes(outputStream);
+        byte[] bytes = getEncodedBytes();
+        if(bytes != null){
+            outputStream.write(bytes);
+        }else {
+            getResXmlDocument().writeBytes(outputStream);
+        }
         return outputStream.getCrcValue();
     }
     @Override
     public long write(OutputStream outputStream) throws IOException {
+        byte[] bytes = getEncodedBytes();
+        if(bytes != null){
+            outputStream.write(bytes);
+            return bytes.length;
+        }
         return getResXmlDocument().writeBytes(outputStream);
     }
     @Override
     public byte[] getBytes() {
         try {
+            byte[] bytes = getEncodedBytes();
+            if(bytes != null){
+                return bytes;
+            }
             return getResXmlDocument().getBytes();
         } catch (IOException ignored) {
         }
         //should not reach here
         return new byte[0];
     }
+    /**
+     * Returns compiled bytes, compiles once if the document was never requested.
+     * Returns null if the document is held (it may have been modified)
+     * */
+    private byte[] getEncodedBytes() throws IOException {
+        if(mResXmlDocument == null){
+            encodeBytes();
+        }
+        return mEncodedBytes;
+    }
     @Override
     public void disposeInputSource(){
         mResXmlDocument = null;
+        mEncodedBytes = null;
+    }
+    /**
+     * Compiles the xml and keeps only the resulting bytes, the document is not retained.
+     * Compiling only reads the shared package/table, thus different sources can be
+     * encoded concurrently once the table is built. The package, its table and frameworks
+     * must not be modified while any source is being encoded: concurrent lookups are safe
+     * only because the read paths they take are synchronized (resource id index, lazy
+     * type entries, spec/table string pools and their lazy string cache), writes are not.
+     * */
+    public void encodeBytes() throws IOException {
+        if(mResXmlDocument != null || mEncodedBytes != null){
+            return;
+        }
+        ResXmlDocument resXmlDocument;
+        try {
+            resXmlDocument = encode();
+        } catch (XmlPullParserException ex) {
+            throw new IOException(ex.getMessage());
+        }
+        mEncodedBytes = resXmlDocument.getBytes();
+    }
+    public boolean isEncoded(){
+        return mResXmlDocument != null || mEncodedBytes != null;
     }
 
     public PackageBlock getPackageBlock() {
@@ -66,6 +118,8 @@ public class XMLEncodeSource extends ByteInputSource {
             } catch (XmlPullParserException ex) {
                 throw new IOException(ex.getMessage());
             }
+            // the document may be modified from now on
+            mEncodedBytes = null;
         }
         return mResXmlDocument;
     }
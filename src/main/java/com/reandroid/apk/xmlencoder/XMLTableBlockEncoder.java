@@ -35,6 +35,10 @@ import org.xmlpull.v1.XmlPullParserException;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 
 public class XMLTableBlockEncoder {
@@ -43,6 +47,8 @@ public class XMLTableBlockEncoder {
     private final Set<File> parsedFiles = new HashSet<>();
     private final ApkModule apkModule;
     private Integer mMainPackageId;
+    private int threadCount = 1;
+    private ExecutorService mExecutorService;
 
     public XMLTableBlockEncoder(ApkModule apkModule, TableBlock tableBlock){
         this.apkModule = apkModule;
@@ -64,6 +70,20 @@ public class XMLTableBlockEncoder {
     public Integer getMainPackageId() {
         return mMainPackageId;
     }
+    public int getThreadCount() {
+        return threadCount;
+    }
+    /**
+     * Sets number of threads used to parse values xml files ahead, parsed files are
+     * still encoded to the table one by one in the same order thus the output is
+     * the same regardless of thread count. Default 1
+     * */
+    public void setThreadCount(int threadCount) {
+        if(threadCount < 1){
+            threadCount = 1;
+        }
+        this.threadCount = threadCount;
+    }
 
     public TableBlock getTableBlock(){
         return tableBlock;
@@ -76,10 +96,19 @@ public class XMLTableBlockEncoder {
         scanResourcesDirectory(resourcesDirectory);
     }
     public void scanResourcesDirectory(File resourcesDirectory) throws IOException {
+        if(getThreadCount() > 1){
+            mExecutorService = Executors.newFixedThreadPool(getThreadCount());
+        }
         try {
             scanResourceFiles(resourcesDirectory);
         } catch (XmlPullParserException ex) {
             throw new IOException(ex);
+        }finally {
+            ExecutorService executorService = this.mExecutorService;
+            if(executorService != null){
+                executorService.shutdownNow();
+                this.mExecutorService = null;
+            }
         }
     }
     private void scanResourceFiles(File resourcesDirectory) throws IOException, XmlPullParserException {
@@ -192,12 +221,7 @@ public class XMLTableBlockEncoder {
             if(attrFiles.size() == 0){
                 continue;
             }
-            for(File file : attrFiles){
-                logVerbose("Encoding: " + IOUtil.shortPath(file, 4));
-                XmlCoder xmlCoder = XmlCoder.getInstance();
-                xmlCoder.VALUES_XML.encode(file, packageBlock);
-                addParsedFiles(file);
-            }
+            encodeValuesFiles(attrFiles, packageBlock);
             packageBlock.sortTypes();
         }
     }
@@ -272,21 +296,73 @@ public class XMLTableBlockEncoder {
     }
     private void encodeResDir(File resDir) throws IOException, XmlPullParserException {
         List<File> valuesDirList = ApkUtil.listValuesDirectory(resDir);
+        List<File> fileList = new ArrayList<>();
         for(File valuesDir : valuesDirList){
-            encodeValuesDir(valuesDir);
+            List<File> xmlFiles = ApkUtil.listFiles(valuesDir, ".xml");
+            EncodeUtil.sortValuesXml(xmlFiles);
+            for(File file : xmlFiles){
+                if(!isAlreadyParsed(file)){
+                    fileList.add(file);
+                }
+            }
         }
+        encodeValuesFiles(fileList, getTableBlock().getCurrentPackage());
     }
-    private void encodeValuesDir(File valuesDir) throws IOException, XmlPullParserException {
-        List<File> xmlFiles = ApkUtil.listFiles(valuesDir, ".xml");
-        EncodeUtil.sortValuesXml(xmlFiles);
-        for(File file:xmlFiles){
-            if(isAlreadyParsed(file)){
-                continue;
+    private void encodeValuesFiles(List<File> fileList, PackageBlock packageBlock) throws IOException, XmlPullParserException {
+        XmlCoder.ValuesXml valuesXml = XmlCoder.getInstance().VALUES_XML;
+        ExecutorService executorService = this.mExecutorService;
+        if(executorService == null){
+            for(File file : fileList){
+                addParsedFiles(file);
+                logVerbose("Encoding: " + IOUtil.shortPath(file, 4));
+                valuesXml.encode(file, packageBlock);
+            }
+            return;
+        }
+        int maxPending = getThreadCount() * 2;
+        ArrayDeque<Future<List<XMLElement>>> pendingTasks = new ArrayDeque<>(maxPending);
+        int size = fileList.size();
+        int submitted = 0;
+        try{
+            for(int i = 0; i < size; i++){
+                while (submitted < size && pendingTasks.size() < maxPending){
+                    final File file = fileList.get(submitted);
+                    pendingTasks.add(executorService.submit(() -> valuesXml.parseEntries(file)));
+                    submitted ++;
+                }
+                File file = fileList.get(i);
+                List<XMLElement> entries = awaitTask(pendingTasks.poll());
+                addParsedFiles(file);
+                logVerbose("Encoding: " + IOUtil.shortPath(file, 4));
+                valuesXml.encode(file, entries, packageBlock);
+            }
+        }finally {
+            for(Future<?> future : pendingTasks){
+                future.cancel(false);
+            }
+        }
+    }
+    private static<T> T awaitTask(Future<T> future) throws IOException, XmlPullParserException {
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException(exception);
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if(cause instanceof IOException){
+                throw (IOException) cause;
+            }
+            if(cause instanceof XmlPullParserException){
+                throw (XmlPullParserException) cause;
+            }
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error){
+                throw (Error) cause;
             }
-            addParsedFiles(file);
-            logVerbose("Encoding: " + IOUtil.shortPath(file, 4));
-            XmlCoder xmlCoder = XmlCoder.getInstance();
-            xmlCoder.VALUES_XML.encode(file, getTableBlock().getCurrentPackage());
+            throw new IOException(cause);
         }
     }
     private File toAndroidManifest(File pubXmlFile){
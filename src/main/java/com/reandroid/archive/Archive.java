@@ -27,6 +27,10 @@ import com.reandroid.utils.io.IOUtil;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
@@ -36,6 +40,7 @@ public abstract class Archive<T extends ZipInput> implements Closeable {
     private final ArchiveEntry[] entryList;
     private final EndRecord endRecord;
     private final ApkSignatureBlock apkSignatureBlock;
+    private volatile EntryIndex entryIndex;
 
     public Archive(T zipInput) throws IOException {
         this.zipInput = zipInput;
@@ -46,6 +51,9 @@ public abstract class Archive<T extends ZipInput> implements Closeable {
         lfd.visit(zipInput);
         this.entryList  = lfd.buildArchiveEntryList();
         this.apkSignatureBlock = lfd.getApkSigBlock();
+        for(ArchiveEntry entry : entryList){
+            entry.setArchive(this);
+        }
     }
 
     public ZipEntryMap createZipEntryMap(){
@@ -104,22 +112,60 @@ public abstract class Archive<T extends ZipInput> implements Closeable {
     }
 
     abstract InputSource createInputSource(ArchiveEntry entry);
+    /**
+     * Returns source of the first non-directory entry named exactly as path, or null.
+     * Like {@link #getInputSources()}, sort of the returned source is set to the position
+     * of the entry on this archive.
+     * */
     public InputSource getEntrySource(String path){
         if(path == null){
             return null;
         }
+        int position = getEntryIndex().indexOf(path);
+        if(position < 0){
+            return null;
+        }
+        ArchiveEntry entry = entryList[position];
+        if(!path.equals(entry.getName())){
+            // renamed directly on its headers, not through ArchiveEntry.setName
+            this.entryIndex = null;
+            return getEntrySource(path);
+        }
+        InputSource inputSource = createInputSource(entry);
+        inputSource.setSort(position);
+        return inputSource;
+    }
+    /**
+     * Returns sources of all non-directory entries whose name starts with the given prefix
+     * (e.g. "res/" or "lib/arm64-v8a/"), sorted by name
+     * */
+    public InputSource[] getEntrySources(String prefix){
+        if(prefix == null){
+            prefix = "";
+        }
+        EntryIndex index = getEntryIndex();
+        int start = index.prefixStart(prefix);
+        int end = index.prefixEnd(start, prefix);
         ArchiveEntry[] entryList = this.entryList;
-        int length = entryList.length;
-        for(int i = 0; i < length; i++){
-            ArchiveEntry entry = entryList[i];
-            if(entry.isDirectory()){
-                continue;
-            }
-            if(path.equals(entry.getName())){
-                return createInputSource(entry);
-            }
+        InputSource[] sources = new InputSource[end - start];
+        for(int i = start; i < end; i++){
+            int position = index.positions[i];
+            InputSource inputSource = createInputSource(entryList[position]);
+            inputSource.setSort(position);
+            sources[i - start] = inputSource;
         }
-        return null;
+        return sources;
+    }
+    void onEntryRenamed(){
+        this.entryIndex = null;
+    }
+    private EntryIndex getEntryIndex(){
+        EntryIndex index = this.entryIndex;
+        if(index == null){
+            index = new EntryIndex(entryList);
+            this.entryIndex = index;
+        }
+        return index;
     }
     public InputStream openRawInputStream(ArchiveEntry archiveEntry) throws IOException {
         return zipInput.getInputStream(archiveEntry.getFileOffset(), archiveEntry.getDataSize());
@@ -167,6 +213,79 @@ public abstract class Archive<T extends ZipInput> implements Closeable {
         }
         return result;
     }
+    public int extractAll(File dir, int threads) throws IOException {
+        return extractAll(dir, null, null, threads);
+    }
+    /**
+     * Extracts entries using the given number of threads, entries are read concurrently
+     * from the archive through positional reads.
+     * Failures are thrown in the order of entries after all running extractions finish
+     * */
+    public int extractAll(File dir, Predicate<ArchiveEntry> filter, APKLogger logger, int threads) throws IOException {
+        if(threads <= 1){
+            return extractAll(dir, filter, logger);
+        }
+        FilterIterator<ArchiveEntry> iterator =
+                new FilterIterator<ArchiveEntry>(this.iterator(), filter){
+                    @Override
+                    public boolean test(ArchiveEntry archiveEntry){
+                        return archiveEntry != null && !archiveEntry.isDirectory();
+                    }
+                };
+        List<ArchiveEntry> entryList = new ArrayList<>();
+        while (iterator.hasNext()){
+            entryList.add(iterator.next());
+        }
+        int size = entryList.size();
+        if(size < 2){
+            return extractAll(dir, filter, logger);
+        }
+        // Threads are never interrupted, interrupting a positional read closes the shared channel
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, size));
+        try{
+            List<Future<?>> futureList = new ArrayList<>(size);
+            for(ArchiveEntry archiveEntry : entryList){
+                futureList.add(executor.submit(() -> {
+                    extract(toFile(dir, archiveEntry), archiveEntry, logger);
+                    return null;
+                }));
+            }
+            awaitAll(futureList);
+        }finally {
+            executor.shutdown();
+        }
+        return size;
+    }
+    private static void awaitAll(List<Future<?>> futureList) throws IOException {
+        Throwable error = null;
+        for(Future<?> future : futureList){
+            try{
+                future.get();
+            }catch (ExecutionException exception){
+                if(error == null){
+                    error = exception.getCause();
+                }
+            }catch (InterruptedException exception){
+                Thread.currentThread().interrupt();
+                if(error == null){
+                    error = exception;
+                }
+            }
+        }
+        if(error == null){
+            return;
+        }
+        if(error instanceof IOException){
+            throw (IOException) error;
+        }
+        if(error instanceof RuntimeException){
+            throw (RuntimeException) error;
+        }
+        if(error instanceof Error){
+            throw (Error) error;
+        }
+        throw new IOException(error);
+    }
     public void extract(File file, ArchiveEntry archiveEntry) throws IOException{
         extract(file, archiveEntry, null);
     }
@@ -202,6 +321,75 @@ public abstract class Archive<T extends ZipInput> implements Closeable {
     public void close() throws IOException {
         this.zipInput.close();
     }
+
+    /**
+     * Name index of non-directory entries, lookups by exact name are hashed and prefix
+     * queries are binary searched on names sorted
+     * */
+    private static class EntryIndex {
+        private final Map<String, Integer> nameMap;
+        private final String[] names;
+        private final int[] positions;
+        EntryIndex(ArchiveEntry[] entryList){
+            int length = entryList.length;
+            Map<String, Integer> nameMap = new HashMap<>(length * 2);
+            Integer[] sorted = new Integer[length];
+            int count = 0;
+            for(int i = 0; i < length; i++){
+                ArchiveEntry entry = entryList[i];
+                if(entry.isDirectory()){
+                    continue;
+                }
+                Integer position = i;
+                // first entry wins on duplicate names
+                if(nameMap.putIfAbsent(entry.getName(), position) == null){
+                    sorted[count] = position;
+                    count++;
+                }
+            }
+            Arrays.sort(sorted, 0, count,
+                    (i1, i2) -> entryList[i1].getName().compareTo(entryList[i2].getName()));
+            String[] names = new String[count];
+            int[] positions = new int[count];
+            for(int i = 0; i < count; i++){
+                int position = sorted[i];
+                positions[i] = position;
+                names[i] = entryList[position].getName();
+            }
+            this.nameMap = nameMap;
+            this.names = names;
+            this.positions = positions;
+        }
+        int indexOf(String name){
+            Integer position = nameMap.get(name);
+            if(position == null){
+                return -1;
+            }
+            return position;
+        }
+        int prefixStart(String prefix){
+            int i = Arrays.binarySearch(names, prefix);
+            if(i < 0){
+                i = -(i + 1);
+            }
+            return i;
+        }
+        int prefixEnd(int start, String prefix){
+            String[] names = this.names;
+            int low = start;
+            int high = names.length;
+            while (low < high){
+                int mid = (low + high) >>> 1;
+                if(names[mid].startsWith(prefix)){
+                    low = mid + 1;
+                }else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
     private static final long LOG_LARGE_FILE_SIZE = 1024 * 1000 * 20;
 
 
@@ -21,6 +21,7 @@ import com.reandroid.utils.HexUtil;
 
 public class ArchiveEntry {
     private final LocalFileHeader localFileHeader;
+    private Archive<?> archive;
     public ArchiveEntry(LocalFileHeader lfh){
         this.localFileHeader = lfh;
     }
@@ -78,6 +79,13 @@ public class ArchiveEntry {
     public void setName(String name){
         localFileHeader.setFileName(name);
         getCentralEntryHeader().setFileName(name);
+        Archive<?> archive = this.archive;
+        if(archive != null){
+            archive.onEntryRenamed();
+        }
+    }
+    void setArchive(Archive<?> archive){
+        this.archive = archive;
     }
     public String getComment(){
         return getCentralEntryHeader().getComment();
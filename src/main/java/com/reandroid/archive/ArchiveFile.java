@@ -43,10 +43,12 @@ public class ArchiveFile extends Archive<ZipFileInput>{
         file.createNewFile();
         StandardOpenOption openOption = StandardOpenOption.WRITE;
         FileChannel outputChannel = FileChannel.open(file.toPath(), openOption);
-        FileChannel fileChannel = getZipInput().getFileChannel();
-        fileChannel.position(archiveEntry.getFileOffset());
-        outputChannel.transferFrom(fileChannel, 0, archiveEntry.getDataSize());
-        outputChannel.close();
+        try{
+            getZipInput().transferTo(archiveEntry.getFileOffset(),
+                    archiveEntry.getDataSize(), outputChannel);
+        }finally {
+            outputChannel.close();
+        }
     }
 
 }
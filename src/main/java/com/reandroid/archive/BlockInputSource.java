@@ -15,42 +15,81 @@
  */
 package com.reandroid.archive;
 
-import com.reandroid.apk.CrcOutputStream;
-import com.reandroid.archive.ByteInputSource;
-import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.chunk.Chunk;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.zip.CRC32;
 
+/**
+ * Serializes the block at most once per writer pass: getLength and getCrc write the block
+ * into a buffer which is reused by the following write or getBytes, these two end the pass
+ * and drop the buffer so that edits made later through an outside reference to the block
+ * (e.g. a same size value change) are always written. The buffer is also dropped on
+ * {@link #disposeInputSource()} and {@link #getBlock()}.
+ * */
 public class BlockInputSource<T extends Chunk<?>> extends ByteInputSource{
     private final T mBlock;
+    private byte[] mCachedBytes;
+    private long mCachedCrc = -1;
     public BlockInputSource(String name, T block) {
         super(new byte[0], name);
         this.mBlock=block;
     }
     public T getBlock() {
+        clearCache();
         mBlock.refresh();
         return mBlock;
     }
     @Override
     public long getLength() throws IOException{
-        Block block = getBlock();
-        return block.countBytes();
+        return getCachedBytes().length;
     }
     @Override
     public long getCrc() throws IOException{
-        Block block = getBlock();
-        CrcOutputStream outputStream=new CrcOutputStream();
-        block.writeBytes(outputStream);
-        return outputStream.getCrcValue();
+        byte[] bytes = getCachedBytes();
+        long crc = this.mCachedCrc;
+        if(crc == -1){
+            CRC32 crc32 = new CRC32();
+            crc32.update(bytes, 0, bytes.length);
+            crc = crc32.getValue();
+            this.mCachedCrc = crc;
+        }
+        return crc;
     }
     @Override
     public long write(OutputStream outputStream) throws IOException {
-        return getBlock().writeBytes(outputStream);
+        byte[] bytes = getBytes();
+        outputStream.write(bytes);
+        return bytes.length;
     }
     @Override
     public byte[] getBytes() {
-        return getBlock().getBytes();
+        byte[] bytes = getCachedBytes();
+        clearCache();
+        return bytes;
+    }
+    @Override
+    public void disposeInputSource(){
+        clearCache();
+    }
+    private byte[] getCachedBytes(){
+        byte[] bytes = this.mCachedBytes;
+        if(bytes != null && bytes.length == mBlock.countBytes()){
+            return bytes;
+        }
+        T block = this.mBlock;
+        block.refresh();
+        bytes = block.getBytes();
+        if(bytes == null){
+            bytes = new byte[0];
+        }
+        this.mCachedCrc = -1;
+        this.mCachedBytes = bytes;
+        return bytes;
+    }
+    private void clearCache(){
+        this.mCachedBytes = null;
+        this.mCachedCrc = -1;
     }
 }
@@ -31,27 +31,30 @@ public class ArchiveFileEntrySource extends ArchiveEntrySource<ZipFileInput> {
 
     @Override
     public byte[] getBytes(int length) throws IOException {
-        FileChannel fileChannel = getFileChannel();
-        if(getMethod() != Archive.STORED || fileChannel == null){
+        if(getMethod() != Archive.STORED){
             return super.getBytes(length);
         }
         byte[] bytes = new byte[length];
-        ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
-        fileChannel.read(byteBuffer);
+        getZipSource().read(getArchiveEntry().getFileOffset(), ByteBuffer.wrap(bytes));
         return bytes;
     }
 
-    FileChannel getFileChannel() throws IOException {
-        ZipFileInput zipInput = getZipSource();
-        FileChannel fileChannel = zipInput.getFileChannel();
-        fileChannel.position(getArchiveEntry().getFileOffset());
-        return fileChannel;
+    /**
+     * Returns memory mapped content of stored (uncompressed) entry,
+     * or null if the entry is compressed.
+     * The archive file must not be modified while the returned buffer is in use
+     * */
+    public ByteBuffer mapStored() throws IOException {
+        ArchiveEntry archiveEntry = getArchiveEntry();
+        if(archiveEntry.isCompressed()){
+            return null;
+        }
+        return getZipSource().map(archiveEntry.getFileOffset(), archiveEntry.getDataSize());
     }
 
     @Override
     public void write(File file) throws IOException {
-        FileChannel fileChannel = getFileChannel();
-        if(getMethod() != Archive.STORED || fileChannel == null){
+        if(getMethod() != Archive.STORED){
             super.write(file);
             return;
         }
@@ -65,8 +68,11 @@ public class ArchiveFileEntrySource extends ArchiveEntrySource<ZipFileInput> {
         file.createNewFile();
         StandardOpenOption openOption = StandardOpenOption.WRITE;
         FileChannel outputChannel = FileChannel.open(file.toPath(), openOption);
-        outputChannel.transferFrom(fileChannel, 0, getLength());
-        outputChannel.close();
+        try{
+            getZipSource().transferTo(getArchiveEntry().getFileOffset(), getLength(), outputChannel);
+        }finally {
+            outputChannel.close();
+        }
     }
 
 }
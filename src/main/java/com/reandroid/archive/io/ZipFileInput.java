@@ -20,12 +20,12 @@ import com.reandroid.common.FileChannelInputStream;
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.StandardOpenOption;
 
 public class ZipFileInput extends ZipInput {
     private final File file;
-    private FileChannel fileChannel;
-    private InputStream mCurrentInputStream;
+    private volatile FileChannel fileChannel;
     public ZipFileInput(File file){
         this.file = file;
     }
@@ -50,13 +50,13 @@ public class ZipFileInput extends ZipInput {
     public long getLength(){
         return this.file.length();
     }
+    /**
+     * Returned stream reads through positional reads, it does not move the shared channel
+     * position thus streams of different entries can be opened and read concurrently
+     * */
     @Override
     public InputStream getInputStream(long offset, long length) throws IOException {
-        closeCurrentInputStream();
-        FileChannel fileChannel = getFileChannel();
-        fileChannel.position(offset);
-        mCurrentInputStream = new FileChannelInputStream(fileChannel, length);
-        return mCurrentInputStream;
+        return FileChannelInputStream.slice(getFileChannel(), offset, length);
     }
 
     @Override
@@ -66,26 +66,90 @@ public class ZipFileInput extends ZipInput {
             minLength = (int) position;
         }
         position = position - minLength;
-        FileChannel fileChannel = getFileChannel();
-        fileChannel.position(position);
         ByteBuffer buffer = ByteBuffer.allocate(minLength);
-        fileChannel.read(buffer);
+        read(position, buffer);
         return buffer.array();
     }
+    /**
+     * Fills the remaining of buffer starting at offset of the file, thread safe
+     * since it does not move the shared channel position
+     * */
+    public void read(long offset, ByteBuffer buffer) throws IOException {
+        FileChannel fileChannel = getFileChannel();
+        while (buffer.hasRemaining()){
+            int read = fileChannel.read(buffer, offset);
+            if(read < 0){
+                throw new EOFException("Unexpected end of file at: " + offset
+                        + ", file = " + getFile());
+            }
+            offset += read;
+        }
+    }
+    /**
+     * Transfers the region [offset, offset + length) of the file to target, thread safe
+     * since it does not move the shared channel position. If the channel makes no progress
+     * (e.g. non-blocking or otherwise unsupported target) the rest is copied through a buffer
+     * */
+    public void transferTo(long offset, long length, WritableByteChannel target) throws IOException {
+        FileChannel fileChannel = getFileChannel();
+        while (length > 0){
+            long transferred = fileChannel.transferTo(offset, length, target);
+            if(transferred <= 0){
+                if(offset >= fileChannel.size()){
+                    throw new EOFException("Unexpected end of file at: " + offset
+                            + ", file = " + getFile());
+                }
+                copyTo(offset, length, target);
+                return;
+            }
+            offset += transferred;
+            length -= transferred;
+        }
+    }
+    private void copyTo(long offset, long length, WritableByteChannel target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length, COPY_BUFFER_SIZE));
+        while (length > 0){
+            buffer.clear();
+            if(buffer.remaining() > length){
+                buffer.limit((int) length);
+            }
+            read(offset, buffer);
+            buffer.flip();
+            int count = buffer.remaining();
+            while (buffer.hasRemaining()){
+                if(target.write(buffer) == 0){
+                    throw new IOException("Target channel does not accept bytes, file = "
+                            + getFile());
+                }
+            }
+            offset += count;
+            length -= count;
+        }
+    }
+    /**
+     * Maps a read-only region of the file, unlike getInputStream this does not move
+     * the shared channel position and the returned buffer can be read concurrently.
+     * The mapping outlives the channel, the file must not be modified while it is in use
+     * */
+    public ByteBuffer map(long offset, long length) throws IOException {
+        return getFileChannel().map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
     public FileChannel getFileChannel() throws IOException {
         FileChannel fileChannel = this.fileChannel;
         if(fileChannel != null){
             return fileChannel;
         }
         synchronized (this){
-            fileChannel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ);
-            this.fileChannel = fileChannel;
+            fileChannel = this.fileChannel;
+            if(fileChannel == null){
+                fileChannel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ);
+                this.fileChannel = fileChannel;
+            }
             return fileChannel;
         }
     }
     @Override
     public void close() throws IOException {
-        closeCurrentInputStream();
         closeChannel();
     }
     @Override
@@ -108,16 +172,10 @@ public class ZipFileInput extends ZipInput {
             this.fileChannel = null;
         }
     }
-    private void closeCurrentInputStream() throws IOException {
-        InputStream current = this.mCurrentInputStream;
-        if(current == null){
-            return;
-        }
-        current.close();
-        mCurrentInputStream = null;
-    }
     @Override
     public String toString(){
         return "File: " + this.file;
     }
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
 }
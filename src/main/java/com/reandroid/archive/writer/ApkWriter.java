@@ -28,6 +28,9 @@ import com.reandroid.arsc.chunk.TableBlock;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.*;
+import java.util.zip.Deflater;
 
 public class ApkWriter extends ZipFileOutput {
     private final Object mLock = new Object();
@@ -36,6 +39,8 @@ public class ApkWriter extends ZipFileOutput {
     private ApkSignatureBlock apkSignatureBlock;
     private APKLogger apkLogger;
     private WriteProgress writeProgress;
+    private int threadCount = 1;
+    private int compressionLevel = Deflater.BEST_SPEED;
 
     public ApkWriter(File file, InputSource[] sourceList) throws IOException {
         super(file);
@@ -60,6 +65,31 @@ public class ApkWriter extends ZipFileOutput {
             this.close();
         }
     }
+    public int getThreadCount() {
+        return threadCount;
+    }
+    /**
+     * Sets number of threads used to compress changed files, entries order on the
+     * output apk is the same regardless of thread count. Default 1
+     * */
+    public void setThreadCount(int threadCount) {
+        if(threadCount < 1){
+            threadCount = 1;
+        }
+        this.threadCount = threadCount;
+    }
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+    /**
+     * Sets deflate level (0 to 9) of changed files. Default {@link Deflater#BEST_SPEED}
+     * */
+    public void setCompressionLevel(int compressionLevel) {
+        if(compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION){
+            throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+    }
     public void setApkSignatureBlock(ApkSignatureBlock apkSignatureBlock) {
         this.apkSignatureBlock = apkSignatureBlock;
     }
@@ -134,6 +164,21 @@ public class ApkWriter extends ZipFileOutput {
         File bufferFile = getBufferFile();
         BufferFileOutput output = new BufferFileOutput(bufferFile);
         BufferFileInput input = new BufferFileInput(bufferFile);
+        DeflaterPool deflaterPool = new DeflaterPool(getCompressionLevel());
+        try{
+            if(getThreadCount() > 1){
+                writeBufferParallel(outputList, input, output, deflaterPool);
+            }else {
+                writeBuffer(outputList, input, output, deflaterPool);
+            }
+        }finally {
+            deflaterPool.close();
+        }
+        output.close();
+        return input;
+    }
+    private void writeBuffer(OutputSource[] outputList, BufferFileInput input,
+                             BufferFileOutput output, DeflaterPool deflaterPool) throws IOException {
         OutputSource tableSource = null;
         int length = outputList.length;
         for(int i = 0; i < length; i++){
@@ -146,13 +191,88 @@ public class ApkWriter extends ZipFileOutput {
             onCompressFileProgress(inputSource.getAlias(),
                     inputSource.getMethod(),
                     output.position());
-            outputSource.makeBuffer(input, output);
+            outputSource.makeBuffer(input, output, deflaterPool);
         }
         if(tableSource != null){
-            tableSource.makeBuffer(input, output);
+            tableSource.makeBuffer(input, output, deflaterPool);
+        }
+    }
+    private void writeBufferParallel(OutputSource[] outputList, BufferFileInput input,
+                                     BufferFileOutput output, DeflaterPool deflaterPool) throws IOException {
+        int threadCount = getThreadCount();
+        int maxPending = threadCount * 2;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        ArrayDeque<OutputSource> pendingSources = new ArrayDeque<>(maxPending);
+        ArrayDeque<Future<OutputSource.CompressedData>> pendingTasks = new ArrayDeque<>(maxPending);
+        try{
+            OutputSource tableSource = null;
+            int length = outputList.length;
+            for(int i = 0; i < length; i++){
+                OutputSource outputSource = outputList[i];
+                InputSource inputSource = outputSource.getInputSource();
+                if(tableSource == null && TableBlock.FILE_NAME.equals(inputSource.getAlias())){
+                    tableSource = outputSource;
+                    continue;
+                }
+                Callable<OutputSource.CompressedData> task = outputSource.prepareCompress(deflaterPool);
+                if(task == null){
+                    // already buffered or too large for memory, keep the buffer order same as sequential
+                    applyPending(pendingSources, pendingTasks, 0, input, output);
+                    onCompressFileProgress(inputSource.getAlias(),
+                            inputSource.getMethod(),
+                            output.position());
+                    outputSource.makeBuffer(input, output, deflaterPool);
+                    continue;
+                }
+                pendingSources.add(outputSource);
+                pendingTasks.add(executorService.submit(task));
+                applyPending(pendingSources, pendingTasks, maxPending, input, output);
+            }
+            applyPending(pendingSources, pendingTasks, 0, input, output);
+            if(tableSource != null){
+                tableSource.makeBuffer(input, output, deflaterPool);
+            }
+        }finally {
+            for(Future<?> future : pendingTasks){
+                future.cancel(false);
+            }
+            executorService.shutdown();
+        }
+    }
+    private void applyPending(ArrayDeque<OutputSource> pendingSources,
+                              ArrayDeque<Future<OutputSource.CompressedData>> pendingTasks,
+                              int maxPending, BufferFileInput input, BufferFileOutput output) throws IOException {
+        while (pendingTasks.size() > maxPending){
+            OutputSource outputSource = pendingSources.peek();
+            OutputSource.CompressedData compressedData = awaitTask(pendingTasks.peek());
+            pendingSources.poll();
+            pendingTasks.poll();
+            InputSource inputSource = outputSource.getInputSource();
+            onCompressFileProgress(inputSource.getAlias(),
+                    inputSource.getMethod(),
+                    output.position());
+            outputSource.applyCompressed(input, output, compressedData);
+        }
+    }
+    private static<T> T awaitTask(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException(exception);
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if(cause instanceof IOException){
+                throw (IOException) cause;
+            }
+            if(cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error){
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
         }
-        output.close();
-        return input;
     }
     private File getBufferFile(){
         File file = getFile();
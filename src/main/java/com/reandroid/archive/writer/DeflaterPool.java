@@ -0,0 +1,50 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.writer;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Thread-safe pool of raw (nowrap) deflaters of the same compression level,
+ * avoids allocating native zlib streams for every entry.
+ * */
+class DeflaterPool {
+    private final int level;
+    private final ConcurrentLinkedQueue<Deflater> deflaterQueue;
+
+    DeflaterPool(int level){
+        this.level = level;
+        this.deflaterQueue = new ConcurrentLinkedQueue<>();
+    }
+    Deflater obtain(){
+        Deflater deflater = deflaterQueue.poll();
+        if(deflater == null){
+            deflater = new Deflater(level, true);
+        }
+        return deflater;
+    }
+    void release(Deflater deflater){
+        deflater.reset();
+        deflaterQueue.offer(deflater);
+    }
+    void close(){
+        Deflater deflater;
+        while ((deflater = deflaterQueue.poll()) != null){
+            deflater.end();
+        }
+    }
+}
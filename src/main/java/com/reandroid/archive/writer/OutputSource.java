@@ -17,17 +17,24 @@ package com.reandroid.archive.writer;
 
 import com.reandroid.apk.APKLogger;
 import com.reandroid.archive.Archive;
+import com.reandroid.archive.BlockInputSource;
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.archive.FileInputSource;
 import com.reandroid.archive.InputSource;
+import com.reandroid.archive.RenamedInputSource;
 import com.reandroid.archive.ZipSignature;
 import com.reandroid.archive.block.CentralEntryHeader;
 import com.reandroid.archive.block.DataDescriptor;
 import com.reandroid.archive.block.LocalFileHeader;
+import com.reandroid.archive.io.ArchiveEntrySource;
 import com.reandroid.archive.io.CountingOutputStream;
 import com.reandroid.utils.io.FileUtil;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.channels.FileChannel;
+import java.util.concurrent.Callable;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 
@@ -40,7 +47,7 @@ class OutputSource {
     OutputSource(InputSource inputSource){
         this.inputSource = inputSource;
     }
-    void makeBuffer(BufferFileInput input, BufferFileOutput output) throws IOException {
+    void makeBuffer(BufferFileInput input, BufferFileOutput output, DeflaterPool deflaterPool) throws IOException {
         EntryBuffer entryBuffer = this.entryBuffer;
         if(entryBuffer != null){
             return;
@@ -50,11 +57,54 @@ class OutputSource {
             this.entryBuffer = entryBuffer;
             return;
         }
-        this.entryBuffer = writeBuffer(input, output);
+        this.entryBuffer = writeBuffer(input, output, deflaterPool);
     }
-    private EntryBuffer writeBuffer(BufferFileInput input, BufferFileOutput output) throws IOException {
+    /**
+     * Returns a task which compresses this entry into memory, safe to run in parallel with
+     * other entries. Sources which are not safe to read concurrently are read here on the
+     * calling thread. Returns null if there is nothing to compress or if the entry is too
+     * large to hold in memory (see {@link #MAX_MEMORY_COMPRESS_SIZE}), in that case call
+     * makeBuffer.
+     * */
+    Callable<CompressedData> prepareCompress(DeflaterPool deflaterPool) throws IOException {
+        if(this.entryBuffer != null){
+            return null;
+        }
+        EntryBuffer entryBuffer = makeFromEntry();
+        if(entryBuffer != null){
+            this.entryBuffer = entryBuffer;
+            return null;
+        }
+        InputSource inputSource = getInputSource();
+        int method = inputSource.getMethod();
+        if(isLargeSource(inputSource)){
+            return null;
+        }
+        InputSource source;
+        if(isConcurrentSource(inputSource)){
+            source = inputSource;
+        }else {
+            source = new ByteInputSource(readBytes(inputSource), inputSource.getName());
+        }
+        return () -> {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            CompressedData compressedData = compress(source, method, outputStream, deflaterPool);
+            compressedData.bytes = outputStream;
+            return compressedData;
+        };
+    }
+    void applyCompressed(BufferFileInput input, BufferFileOutput output, CompressedData compressedData) throws IOException {
+        long offset = output.position();
+        compressedData.bytes.writeTo(output.getOutputStream());
+        compressedData.bytes = null;
+        long length = output.position() - offset;
+        this.entryBuffer = new EntryBuffer(input, offset, length);
+        compressedData.apply(getLocalFileHeader());
+        getInputSource().disposeInputSource();
+    }
+    private EntryBuffer writeBuffer(BufferFileInput input, BufferFileOutput output, DeflaterPool deflaterPool) throws IOException {
         long offset = output.position();
-        writeBufferFile(output);
+        writeBufferFile(output, deflaterPool);
         long length = output.position() - offset;
         return new EntryBuffer(input, offset, length);
     }
@@ -96,42 +146,87 @@ class OutputSource {
         }
         dataDescriptor.writeBytes(apkWriter.getOutputStream());
     }
-    private void writeBufferFile(BufferFileOutput output) throws IOException {
-        LocalFileHeader lfh = getLocalFileHeader();
-
+    private void writeBufferFile(BufferFileOutput output, DeflaterPool deflaterPool) throws IOException {
         InputSource inputSource = getInputSource();
-        OutputStream rawStream = output.getOutputStream();
+        CompressedData compressedData = compress(inputSource, inputSource.getMethod(),
+                output.getOutputStream(), deflaterPool);
+        compressedData.apply(getLocalFileHeader());
+        inputSource.disposeInputSource();
+    }
+    private static CompressedData compress(InputSource inputSource, int method, OutputStream rawStream,
+                                           DeflaterPool deflaterPool) throws IOException {
 
         CountingOutputStream<OutputStream> rawCounter = new CountingOutputStream<>(rawStream);
         CountingOutputStream<DeflaterOutputStream> deflateCounter = null;
+        Deflater deflater = null;
 
-        if(inputSource.getMethod() != Archive.STORED){
+        if(method != Archive.STORED){
+            deflater = deflaterPool.obtain();
             DeflaterOutputStream deflaterInputStream =
-                    new DeflaterOutputStream(rawCounter, new Deflater(Deflater.BEST_SPEED, true), true);
+                    new DeflaterOutputStream(rawCounter, deflater, true);
             deflateCounter = new CountingOutputStream<>(deflaterInputStream, false);
         }
         if(deflateCounter != null){
-            rawCounter.disableCrc(true);
-            inputSource.write(deflateCounter);
-            deflateCounter.close();
-            rawCounter.close();
+            try{
+                rawCounter.disableCrc(true);
+                inputSource.write(deflateCounter);
+                deflateCounter.close();
+                rawCounter.close();
+            }finally {
+                deflaterPool.release(deflater);
+            }
         }else {
             inputSource.write(rawCounter);
         }
 
-        lfh.setCompressedSize(rawCounter.getSize());
+        CompressedData compressedData = new CompressedData();
+        compressedData.compressedSize = rawCounter.getSize();
 
         if(deflateCounter != null){
-            lfh.setMethod(Archive.DEFLATED);
-            lfh.setCrc(deflateCounter.getCrc());
-            lfh.setSize(deflateCounter.getSize());
+            compressedData.method = Archive.DEFLATED;
+            compressedData.crc = deflateCounter.getCrc();
+            compressedData.size = deflateCounter.getSize();
         }else {
-            lfh.setSize(rawCounter.getSize());
-            lfh.setMethod(Archive.STORED);
-            lfh.setCrc(rawCounter.getCrc());
+            compressedData.size = rawCounter.getSize();
+            compressedData.method = Archive.STORED;
+            compressedData.crc = rawCounter.getCrc();
         }
-
-        inputSource.disposeInputSource();
+        return compressedData;
+    }
+    private static byte[] readBytes(InputSource inputSource) throws IOException {
+        InputSource source = inputSource;
+        while (source instanceof RenamedInputSource){
+            source = ((RenamedInputSource<?>) source).getInputSource();
+        }
+        if(source instanceof BlockInputSource){
+            // already serialized into single array
+            return ((BlockInputSource<?>) source).getBytes();
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        inputSource.write(outputStream);
+        return outputStream.toByteArray();
+    }
+    private static boolean isConcurrentSource(InputSource inputSource){
+        while (inputSource instanceof RenamedInputSource){
+            inputSource = ((RenamedInputSource<?>) inputSource).getInputSource();
+        }
+        if(inputSource == null){
+            return false;
+        }
+        Class<?> sourceClass = inputSource.getClass();
+        return sourceClass == ByteInputSource.class
+                || sourceClass == FileInputSource.class
+                || inputSource instanceof ArchiveEntrySource;
+    }
+    private static boolean isLargeSource(InputSource inputSource) throws IOException {
+        while (inputSource instanceof RenamedInputSource){
+            inputSource = ((RenamedInputSource<?>) inputSource).getInputSource();
+        }
+        if(inputSource == null || inputSource.getClass() == ByteInputSource.class){
+            // already in memory
+            return false;
+        }
+        return inputSource.getLength() > MAX_MEMORY_COMPRESS_SIZE;
     }
 
     InputSource getInputSource() {
@@ -189,5 +284,21 @@ class OutputSource {
         }
     }
     private static final long LOG_LARGE_FILE_SIZE = 2L * 1000 * 1000 * 1024;
+    private static final long MAX_MEMORY_COMPRESS_SIZE = 32L * 1024 * 1024;
+
+    static class CompressedData {
+        ByteArrayOutputStream bytes;
+        long compressedSize;
+        long size;
+        long crc;
+        int method;
+
+        void apply(LocalFileHeader lfh){
+            lfh.setCompressedSize(compressedSize);
+            lfh.setSize(size);
+            lfh.setMethod(method);
+            lfh.setCrc(crc);
+        }
+    }
 
 }
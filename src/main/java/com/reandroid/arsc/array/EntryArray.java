@@ -27,13 +27,21 @@ import com.reandroid.arsc.value.ValueType;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 
 import java.util.Iterator;
 
 
 public class EntryArray extends OffsetBlockArray<Entry> implements JSONConvert<JSONArray> {
+    private final SparseOffsetsArray mSparseOffsets;
     public EntryArray(OffsetArray offsets, IntegerItem itemCount, IntegerItem itemStart){
         super(offsets, itemCount, itemStart);
+        if(offsets instanceof SparseOffsetsArray){
+            this.mSparseOffsets = (SparseOffsetsArray) offsets;
+        }else {
+            this.mSparseOffsets = null;
+        }
     }
     public void linkTableStringsInternal(TableStringPool tableStringPool){
         Iterator<Entry> itr = iterator(true);
@@ -50,27 +58,28 @@ public class EntryArray extends OffsetBlockArray<Entry> implements JSONConvert<J
         }
     }
     public int getHighestEntryId(){
-        if(isSparse()){
-            return ((SparseOffsetsArray) getOffsetArray()).getHighestId();
+        SparseOffsetsArray sparseOffsets = this.mSparseOffsets;
+        if(sparseOffsets != null){
+            return sparseOffsets.getHighestId();
         }
         return childesCount() - 1;
     }
     public int getEntryId(int index){
-        OffsetArray offsetArray = getOffsetArray();
-        if(offsetArray instanceof SparseOffsetsArray){
-            return ((SparseOffsetsArray) offsetArray).getIdx(index);
+        SparseOffsetsArray sparseOffsets = this.mSparseOffsets;
+        if(sparseOffsets != null){
+            return sparseOffsets.getIdx(index);
         }
         return index;
     }
     public int getEntryIndex(int entryId){
-        OffsetArray offsetArray = getOffsetArray();
-        if(offsetArray instanceof SparseOffsetsArray){
-            return ((SparseOffsetsArray) offsetArray).indexOf(entryId);
+        SparseOffsetsArray sparseOffsets = this.mSparseOffsets;
+        if(sparseOffsets != null){
+            return sparseOffsets.indexOf(entryId);
         }
         return entryId;
     }
     public boolean isSparse(){
-        return super.getOffsetArray() instanceof SparseOffsetsArray;
+        return mSparseOffsets != null;
     }
     public void destroy(){
         for(Entry entry:listItems()){
@@ -120,7 +129,7 @@ public class EntryArray extends OffsetBlockArray<Entry> implements JSONConvert<J
             return super.get(id);
         }
         SparseOffsetsArray offsetsArray = (SparseOffsetsArray) getOffsetArray();
-        offsetsArray.ensureArraySize(childesCount());
+        offsetsArray.ensureIdxSize(childesCount());
         int index = count - 1;
         offsetsArray.setIdx(index, id);
         refreshCount();
@@ -230,6 +239,77 @@ public class EntryArray extends OffsetBlockArray<Entry> implements JSONConvert<J
             entry.fromJson(jsonObject);
         }
     }
+    /**
+     * Streaming version of {@link #toJson()}
+     * */
+    public void writeJson(JSONWriter writer) {
+        writer.array();
+        String name_id = Entry.NAME_id;
+        for(Entry entry : listItems(true)){
+            JSONObject childObject = entry.toJson();
+            if(childObject==null){
+                continue;
+            }
+            childObject.put(name_id, entry.getId());
+            writer.value(childObject);
+        }
+        writer.endArray();
+    }
+    /**
+     * Streaming version of {@link #fromJson(JSONArray)}, reads one entry object at a time
+     * */
+    public void readJson(JSONReader reader) {
+        clearChildes();
+        boolean sparse = isSparse();
+        String name_id = Entry.NAME_id;
+        int[] sparseIds = sparse ? new int[16] : null;
+        int count = 0;
+        int size = 0;
+        reader.beginArray();
+        while (reader.hasNext()){
+            JSONObject jsonObject = reader.nextJSONObject();
+            int index = count;
+            count ++;
+            int id = OffsetArray.NO_ENTRY;
+            if(jsonObject != null){
+                id = jsonObject.getInt(name_id);
+            }else if(!sparse){
+                continue;
+            }
+            if(sparse){
+                if(index == sparseIds.length){
+                    int[] update = new int[index * 2];
+                    System.arraycopy(sparseIds, 0, update, 0, index);
+                    sparseIds = update;
+                }
+                sparseIds[index] = id;
+            }else {
+                index = id;
+            }
+            if(index >= childesCount()){
+                // grow geometrically, trimmed to the actual size at the end
+                ensureSize(Math.max(index + 1, childesCount() * 2));
+            }
+            if(index >= size){
+                size = index + 1;
+            }
+            if(jsonObject != null){
+                super.get(index).fromJson(jsonObject);
+            }
+        }
+        reader.endArray();
+        if(sparse){
+            setChildesCount(count);
+            SparseOffsetsArray offsetsArray = (SparseOffsetsArray) getOffsetArray();
+            offsetsArray.setSize(count);
+            for(int i = 0; i < count; i++){
+                offsetsArray.setIdx(i, sparseIds[i]);
+            }
+        }else {
+            setChildesCount(Math.max(count, size));
+        }
+        refreshCountAndStart();
+    }
     public void merge(EntryArray entryArray){
         if(entryArray ==null|| entryArray == this|| entryArray.isEmpty()){
             return;
@@ -34,12 +34,17 @@ public abstract class OffsetBlockArray<T extends Block> extends BlockArray<T> im
     private final IntegerItem mItemCount;
     private final ByteArray mEnd4Block;
     private byte mEnd4Type;
+    private boolean mOffsetsRefreshed;
+    // range of childes changed size since last refresh, valid only if mOffsetsRefreshed
+    private int mChangedStart = -1;
+    private int mChangedEnd = -1;
     public OffsetBlockArray(OffsetArray offsets, IntegerItem itemCount, IntegerItem itemStart){
         super();
         this.mOffsets=offsets;
         this.mItemCount=itemCount;
         this.mItemStart=itemStart;
         this.mEnd4Block=new ByteArray();
+        this.mEnd4Block.setParent(this);
         mItemCount.setBlockLoad(this);
     }
     OffsetArray getOffsetArray(){
@@ -72,16 +77,6 @@ public abstract class OffsetBlockArray<T extends Block> extends BlockArray<T> im
         mEnd4Block.onCountUpTo(counter);
     }
     @Override
-    public byte[] getBytes(){
-        byte[] results=super.getBytes();
-        if(results==null){
-            return null;
-        }
-        byte[] endBytes=mEnd4Block.getBytes();
-        results=addBytes(results, endBytes);
-        return results;
-    }
-    @Override
     public int onWriteBytes(OutputStream stream) throws IOException {
         int result=super.onWriteBytes(stream);
         if(result==0){
@@ -91,29 +86,122 @@ public abstract class OffsetBlockArray<T extends Block> extends BlockArray<T> im
         return result;
     }
     @Override
+    protected boolean onCountChanged(Block child){
+        if(mOffsetsRefreshed){
+            int index = indexOfChild(child);
+            if(index < 0){
+                mOffsetsRefreshed = false;
+            }else {
+                if(mChangedStart < 0 || index < mChangedStart){
+                    mChangedStart = index;
+                }
+                if(index > mChangedEnd){
+                    mChangedEnd = index;
+                }
+            }
+        }
+        return super.onCountChanged(child);
+    }
+    private int indexOfChild(Block child){
+        if(child == null || child.getParent() != this){
+            return -1;
+        }
+        int index = child.getIndex();
+        T[] childes = getChildes();
+        if(childes == null || index < 0 || index >= childes.length || childes[index] != child){
+            return -1;
+        }
+        return index;
+    }
+    @Override
     protected void onRefreshed() {
+        if(mOffsetsRefreshed && mChangedStart < 0){
+            // none of childes changed size since last refresh
+            refreshCount();
+            refreshStart();
+            return;
+        }
+        T[] childes=getChildes();
         int count=childesCount();
         OffsetArray offsetArray = this.mOffsets;
-        offsetArray.setSize(count);
-        T[] childes=getChildes();
-        int sum=0;
-        if(childes!=null){
-            int max=childes.length;
-            for(int i=0;i<max;i++){
-                T item=childes[i];
-                int offset;
-                if(item==null || item.isNull()){
-                    offset=-1;
-                }else {
-                    offset=sum;
-                    sum+=item.countBytes();
-                }
-                offsetArray.setOffset(i, offset);
-            }
+        if(mOffsetsRefreshed && offsetArray.size() == count){
+            refreshOffsets(childes, mChangedStart, mChangedEnd);
+        }else {
+            offsetArray.setSize(count);
+            refreshOffsets(childes, 0, count - 1);
         }
+        // caches count, any change on descendants will clear it through onCountChanged
+        int childesBytes = countChildesBytes(childes);
+        cacheChildesBytes(childesBytes);
         refreshCount();
         refreshStart();
         refreshEnd4Block();
+        if(!isCountCached()){
+            // cleared by end block change
+            cacheChildesBytes(childesBytes);
+        }
+        mChangedStart = -1;
+        mChangedEnd = -1;
+        mOffsetsRefreshed = true;
+    }
+    /**
+     * Recomputes offsets of childes between start and end (inclusive), offsets of the
+     * remaining childes after end are shifted by size difference without counting them
+     * */
+    private void refreshOffsets(T[] childes, int start, int end){
+        if(childes == null){
+            return;
+        }
+        OffsetArray offsetArray = this.mOffsets;
+        int sum = 0;
+        int previous = lastNonNull(childes, start - 1);
+        if(previous >= 0){
+            sum = offsetArray.getOffset(previous) + childes[previous].countBytes();
+        }
+        for(int i = start; i <= end; i++){
+            T item = childes[i];
+            int offset;
+            if(item==null || item.isNull()){
+                offset=-1;
+            }else {
+                offset=sum;
+                sum+=item.countBytes();
+            }
+            offsetArray.setOffset(i, offset);
+        }
+        int length = childes.length;
+        int delta = 0;
+        boolean first = true;
+        for(int i = end + 1; i < length; i++){
+            T item = childes[i];
+            if(item==null || item.isNull()){
+                continue;
+            }
+            if(first){
+                delta = sum - offsetArray.getOffset(i);
+                if(delta == 0){
+                    return;
+                }
+                first = false;
+            }
+            offsetArray.setOffset(i, offsetArray.getOffset(i) + delta);
+        }
+    }
+    private int countChildesBytes(T[] childes){
+        int last = childes == null ? -1 : lastNonNull(childes, childes.length - 1);
+        if(last < 0){
+            return 0;
+        }
+        return mOffsets.getOffset(last) + childes[last].countBytes();
+    }
+    private int lastNonNull(T[] childes, int index){
+        for(int i = index; i >= 0; i--){
+            T item = childes[i];
+            if(item != null && !item.isNull()){
+                return i;
+            }
+        }
+        return -1;
     }
     public void refreshCountAndStart(){
         refreshCount();
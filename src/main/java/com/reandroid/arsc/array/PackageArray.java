@@ -18,12 +18,15 @@ package com.reandroid.arsc.array;
 import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.base.BlockArray;
 import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.io.BlockLoad;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.IntegerItem;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 
 import java.io.IOException;
 import java.util.Comparator;
@@ -127,6 +130,17 @@ public class PackageArray extends BlockArray<PackageBlock>
         return new PackageBlock[len];
     }
 
+    @Override
+    protected boolean onCountChanged(Block child){
+        if(child == null){
+            // packages added, removed or reordered
+            TableBlock tableBlock = getParentInstance(TableBlock.class);
+            if(tableBlock != null){
+                tableBlock.notifyResourceIdsChanged();
+            }
+        }
+        return super.onCountChanged(child);
+    }
     @Override
     protected void onRefreshed() {
         refreshPackageCount();
@@ -167,6 +181,22 @@ public class PackageArray extends BlockArray<PackageBlock>
             packageBlock.fromJson(jsonObject);
         }
     }
+    public void writeJson(JSONWriter writer) {
+        writer.array();
+        for(PackageBlock packageBlock:listItems()){
+            packageBlock.writeJson(writer);
+        }
+        writer.endArray();
+    }
+    public void readJson(JSONReader reader) {
+        clearChildes();
+        reader.beginArray();
+        while (reader.hasNext()){
+            PackageBlock packageBlock = createNext();
+            packageBlock.readJson(reader);
+        }
+        reader.endArray();
+    }
     public void merge(PackageArray packageArray){
         if(packageArray==null||packageArray==this){
             return;
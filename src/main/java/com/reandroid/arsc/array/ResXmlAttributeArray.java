@@ -26,9 +26,7 @@ import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 
 public class ResXmlAttributeArray extends BlockArray<ResXmlAttribute>
         implements Comparator<ResXmlAttribute>, JSONConvert<JSONArray> {
@@ -36,6 +34,8 @@ public class ResXmlAttributeArray extends BlockArray<ResXmlAttribute>
     private final ShortItem mAttributeStart;
     private final ShortItem mAttributeCount;
     private final ShortItem mAttributesUnitSize;
+    private Map<Integer, ResXmlAttribute> mResourceIdIndex;
+    private Map<String, List<ResXmlAttribute>> mNameIndex;
     public ResXmlAttributeArray(HeaderBlock headerBlock,
                                 ShortItem attributeStart,
                                 ShortItem attributeCount,
@@ -62,6 +62,105 @@ public class ResXmlAttributeArray extends BlockArray<ResXmlAttribute>
         }
         return results;
     }
+    /**
+     * Returns first attribute having the given name resource id, elements with many
+     * attributes are looked up from lazily built index
+     * */
+    public ResXmlAttribute getByNameResourceId(int resourceId){
+        Map<Integer, ResXmlAttribute> index = getResourceIdIndex();
+        if(index != null){
+            ResXmlAttribute attribute = index.get(resourceId);
+            if(attribute == null || isIndexValid(attribute, resourceId)){
+                return attribute;
+            }
+            clearIndex();
+        }
+        ResXmlAttribute[] attributes = getChildes();
+        for(int i = 0; i < attributes.length; i++){
+            ResXmlAttribute attribute = attributes[i];
+            if(attribute != null && resourceId == attribute.getNameResourceID()){
+                return attribute;
+            }
+        }
+        return null;
+    }
+    /**
+     * Returns attributes (in order) whose name string equals to the given name,
+     * for small elements returns all attributes thus callers should still check the name
+     * */
+    public Collection<ResXmlAttribute> listByName(String name){
+        Map<String, List<ResXmlAttribute>> index = getNameIndex();
+        if(index == null){
+            return listItems(true);
+        }
+        List<ResXmlAttribute> results = index.get(name);
+        if(results == null){
+            return Collections.emptyList();
+        }
+        return results;
+    }
+    /**
+     * Drops lookup indexes, called on attribute name change
+     * */
+    public void clearIndex(){
+        mResourceIdIndex = null;
+        mNameIndex = null;
+    }
+    private boolean isIndexValid(ResXmlAttribute attribute, int resourceId){
+        return attribute.getParent() == this && resourceId == attribute.getNameResourceID();
+    }
+    private Map<Integer, ResXmlAttribute> getResourceIdIndex(){
+        if(mResourceIdIndex == null){
+            buildIndex();
+        }
+        return mResourceIdIndex;
+    }
+    private Map<String, List<ResXmlAttribute>> getNameIndex(){
+        if(mNameIndex == null){
+            buildIndex();
+        }
+        return mNameIndex;
+    }
+    private void buildIndex(){
+        ResXmlAttribute[] attributes = getChildes();
+        int length = attributes.length;
+        if(length < INDEX_THRESHOLD){
+            return;
+        }
+        Map<Integer, ResXmlAttribute> resourceIdIndex = new HashMap<>(length * 2);
+        Map<String, List<ResXmlAttribute>> nameIndex = new HashMap<>(length * 2);
+        for(int i = 0; i < length; i++){
+            ResXmlAttribute attribute = attributes[i];
+            if(attribute == null){
+                continue;
+            }
+            resourceIdIndex.putIfAbsent(attribute.getNameResourceID(), attribute);
+            String name = attribute.getName();
+            if(name == null){
+                continue;
+            }
+            List<ResXmlAttribute> list = nameIndex.get(name);
+            if(list == null){
+                list = new ArrayList<>(2);
+                nameIndex.put(name, list);
+            }
+            list.add(attribute);
+        }
+        this.mResourceIdIndex = resourceIdIndex;
+        this.mNameIndex = nameIndex;
+    }
+    @Override
+    protected boolean onCountChanged(Block child){
+        if(child == null){
+            clearIndex();
+        }
+        return super.onCountChanged(child);
+    }
+    @Override
+    public void sort(Comparator<? super ResXmlAttribute> comparator){
+        super.sort(comparator);
+        clearIndex();
+    }
     public void setAttributesUnitSize(int size){
         ResXmlAttribute[] attributes=getChildes();
         for(int i=0;i<attributes.length;i++){
@@ -166,4 +265,5 @@ public class ResXmlAttributeArray extends BlockArray<ResXmlAttribute>
     }
 
     private static final ResXmlAttribute[] EMPTY = new ResXmlAttribute[0];
+    private static final int INDEX_THRESHOLD = 8;
 }
@@ -0,0 +1,118 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.array;
+
+import com.reandroid.arsc.io.BlockReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Entry offsets of types flagged FLAG_OFFSET16, each offset is stored as uint16 of offset/4
+ * and 0xffff stands for {@link #NO_ENTRY}. Bytes are padded to 4 so that entries stay aligned.
+ * */
+public class ShortOffsetArray extends OffsetArray{
+    public ShortOffsetArray(){
+        super();
+    }
+    @Override
+    public int getOffset(int i){
+        int value = getAt(i);
+        if(value == NO_ENTRY_16){
+            return NO_ENTRY;
+        }
+        return value * 4;
+    }
+    @Override
+    public void setOffset(int index, int offset){
+        if(offset == NO_ENTRY){
+            put(index, NO_ENTRY_16);
+            return;
+        }
+        if(!canEncode(offset)){
+            throw new IllegalArgumentException("Can not encode 16-bit offset: " + offset);
+        }
+        put(index, offset / 4);
+    }
+    @Override
+    public void put(int index, int value){
+        super.put(index, value & 0xffff);
+    }
+    @Override
+    public int countBytes(){
+        if(isNull()){
+            return 0;
+        }
+        return alignedLength(size());
+    }
+    @Override
+    public byte[] getBytes(){
+        if(isNull()){
+            return null;
+        }
+        int size = size();
+        byte[] bts = new byte[alignedLength(size)];
+        for(int i = 0; i < size; i++){
+            int value = getAt(i);
+            int offset = i * 2;
+            bts[offset + 1] = (byte) (value >>> 8 & 0xff);
+            bts[offset] = (byte) (value & 0xff);
+        }
+        return bts;
+    }
+    @Override
+    public void onReadBytes(BlockReader reader) throws IOException {
+        int size = size();
+        byte[] bts = new byte[alignedLength(size)];
+        reader.readFully(bts);
+        decode(bts, size);
+        onBytesChanged();
+    }
+    @Override
+    public int readBytes(InputStream inputStream) throws IOException {
+        int size = size();
+        int length = alignedLength(size);
+        byte[] bts = new byte[length];
+        int offset = 0;
+        while (offset < length){
+            int read = inputStream.read(bts, offset, length - offset);
+            if(read < 0){
+                break;
+            }
+            offset += read;
+        }
+        decode(bts, size);
+        onBytesChanged();
+        super.notifyBlockLoad();
+        return length;
+    }
+    private void decode(byte[] bts, int size){
+        for(int i = 0; i < size; i++){
+            int offset = i * 2;
+            put(i, bts[offset] & 0xff | (bts[offset + 1] & 0xff) << 8);
+        }
+    }
+    private static int alignedLength(int size){
+        return (size * 2 + 3) & ~3;
+    }
+
+    public static boolean canEncode(int offset){
+        return offset >= 0 && offset <= MAX_OFFSET && (offset & 0x3) == 0;
+    }
+
+    private static final int NO_ENTRY_16 = 0xffff;
+    public static final int MAX_OFFSET = 0xfffe * 4;
+}
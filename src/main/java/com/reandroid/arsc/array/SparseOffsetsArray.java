@@ -15,25 +15,36 @@
  */
 package com.reandroid.arsc.array;
 
+import java.util.Arrays;
+
+/**
+ * Offsets of sparse type entries, each value holds entry id (low 16 bits) and offset/4
+ * (high 16 bits). Lookups by id go through a sorted primitive index of the first slot of
+ * each id, which is updated in place when ids are set or slots are appended and rebuilt
+ * lazily after any other change.
+ * */
 public class SparseOffsetsArray extends OffsetArray{
+    private volatile IdIndex mIdIndex;
+    private boolean mKeepIndex;
+
     public SparseOffsetsArray(){
         super();
     }
     public int getHighestId(){
-        int result = NO_ENTRY;
-        int size = size();
-        for(int i=0; i<size;i++){
-            int id = getIdx(i);
-            if(id > result){
-                result = id;
-            }
+        IdIndex idIndex = getIdIndex();
+        int count = idIndex.count;
+        if(count == 0){
+            return 0;
         }
-        if(result == NO_ENTRY){
-            result = 0;
-        }
-        return result;
+        return idIndex.ids[count - 1];
     }
     public int indexOf(int idx){
+        if(idx < 0 || idx > 0xffff){
+            return indexOfLinear(idx);
+        }
+        return getIdIndex().indexOf(idx);
+    }
+    private int indexOfLinear(int idx){
         int size = super.size();
         for(int i=0; i<size; i++){
             if(idx == getIdx(i)){
@@ -50,6 +61,7 @@ public class SparseOffsetsArray extends OffsetArray{
         return value;
     }
     public void setIdx(int index, int idx){
+        int old = getIdx(index);
         int value;
         if(idx == NO_ENTRY){
             value = idx;
@@ -59,6 +71,26 @@ public class SparseOffsetsArray extends OffsetArray{
             value = offset | idx;
         }
         super.put(index, value);
+        onIdxChanged(index, old, getIdx(index));
+    }
+    /**
+     * Same as {@link #ensureArraySize(int)} but keeps the id index, appended slots are indexed
+     * as they read (zero, i.e. id 0)
+     * */
+    void ensureIdxSize(int size){
+        int old = size();
+        if(old >= size){
+            return;
+        }
+        mKeepIndex = true;
+        try{
+            ensureArraySize(size);
+        }finally {
+            mKeepIndex = false;
+        }
+        for(int i = old; i < size; i++){
+            onIdxChanged(i, NO_ENTRY, getIdx(i));
+        }
     }
     @Override
     public int getOffset(int i){
@@ -71,17 +103,160 @@ public class SparseOffsetsArray extends OffsetArray{
     }
     @Override
     public void setOffset(int index, int offset){
-        int value;
         if(offset == NO_ENTRY){
-            value = 0;
-        }else {
-            int idx  = getAt(index);
-            idx = idx & 0xffff;
-            offset = offset & 0xffff;
-            offset = offset / 4;
-            offset = offset << 16;
-            value = offset | idx;
+            int old = getIdx(index);
+            super.put(index, 0);
+            onIdxChanged(index, old, 0);
+            return;
         }
-        super.put(index, value);
+        if(!canEncode(offset)){
+            throw new IllegalArgumentException("Can not encode sparse offset: " + offset);
+        }
+        int idx  = getAt(index);
+        idx = idx & 0xffff;
+        offset = offset / 4;
+        offset = offset << 16;
+        super.put(index, offset | idx);
+    }
+    public static boolean canEncode(int offset){
+        return offset >= 0 && offset <= MAX_OFFSET && (offset & 0x3) == 0;
     }
+    @Override
+    protected void onBytesChanged(){
+        super.onBytesChanged();
+        if(!mKeepIndex){
+            mIdIndex = null;
+        }
+    }
+    private void onIdxChanged(int index, int oldId, int newId){
+        IdIndex idIndex = this.mIdIndex;
+        if(idIndex == null || oldId == newId){
+            return;
+        }
+        if(oldId != NO_ENTRY && idIndex.indexOf(oldId) == index){
+            // the next slot of the same id (if any) is unknown
+            mIdIndex = null;
+            return;
+        }
+        if(newId != NO_ENTRY){
+            idIndex.put(newId, index);
+        }
+    }
+    private IdIndex getIdIndex(){
+        IdIndex idIndex = this.mIdIndex;
+        if(idIndex == null){
+            idIndex = new IdIndex(this);
+            this.mIdIndex = idIndex;
+        }
+        return idIndex;
+    }
+
+    static class IdIndex{
+        private int[] ids;
+        private int[] indexes;
+        private int count;
+        IdIndex(SparseOffsetsArray offsetsArray){
+            int size = offsetsArray.size();
+            int[] ids = new int[size];
+            int[] indexes = new int[size];
+            int count = 0;
+            boolean sorted = true;
+            int previous = -1;
+            for(int i = 0; i < size; i++){
+                int id = offsetsArray.getIdx(i);
+                if(id == NO_ENTRY){
+                    continue;
+                }
+                if(id <= previous){
+                    sorted = false;
+                }
+                previous = id;
+                ids[count] = id;
+                indexes[count] = i;
+                count++;
+            }
+            this.ids = ids;
+            this.indexes = indexes;
+            this.count = count;
+            if(!sorted){
+                sortAndRemoveDuplicates();
+            }
+        }
+        int indexOf(int id){
+            int i = binarySearch(id);
+            if(i < 0){
+                return NO_ENTRY;
+            }
+            return indexes[i];
+        }
+        void put(int id, int index){
+            int i = binarySearch(id);
+            if(i >= 0){
+                if(index < indexes[i]){
+                    indexes[i] = index;
+                }
+                return;
+            }
+            i = -(i + 1);
+            int count = this.count;
+            if(count == ids.length){
+                int length = count < 8 ? 8 : count + (count >> 1);
+                int[] update = new int[length];
+                System.arraycopy(ids, 0, update, 0, count);
+                ids = update;
+                update = new int[length];
+                System.arraycopy(indexes, 0, update, 0, count);
+                indexes = update;
+            }
+            int move = count - i;
+            if(move > 0){
+                System.arraycopy(ids, i, ids, i + 1, move);
+                System.arraycopy(indexes, i, indexes, i + 1, move);
+            }
+            ids[i] = id;
+            indexes[i] = index;
+            this.count = count + 1;
+        }
+        private int binarySearch(int id){
+            int[] ids = this.ids;
+            int low = 0;
+            int high = count - 1;
+            while (low <= high){
+                int mid = (low + high) >>> 1;
+                int midId = ids[mid];
+                if(midId < id){
+                    low = mid + 1;
+                }else if(midId > id){
+                    high = mid - 1;
+                }else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+        private void sortAndRemoveDuplicates(){
+            int count = this.count;
+            long[] pairs = new long[count];
+            for(int i = 0; i < count; i++){
+                pairs[i] = ((long) ids[i] << 32) | indexes[i];
+            }
+            Arrays.sort(pairs);
+            int result = 0;
+            int previous = -1;
+            for(int i = 0; i < count; i++){
+                int id = (int) (pairs[i] >>> 32);
+                if(id == previous){
+                    // keep first slot of the same id
+                    continue;
+                }
+                previous = id;
+                ids[result] = id;
+                indexes[result] = (int) pairs[i];
+                result++;
+            }
+            this.count = result;
+        }
+    }
+
+    public static final int MAX_OFFSET = 0xffff * 4;
 }
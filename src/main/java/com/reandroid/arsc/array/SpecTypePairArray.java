@@ -28,13 +28,19 @@ import com.reandroid.arsc.value.ResConfig;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONException;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 
 import java.util.*;
 
 public class SpecTypePairArray extends BlockArray<SpecTypePair>
         implements JSONConvert<JSONArray>, Comparator<SpecTypePair> {
+    // Direct-address cache by type id, entries are verified on every hit
+    private final SpecTypePair[] mTypeIdCache;
     public SpecTypePairArray(){
         super();
+        this.mTypeIdCache = new SpecTypePair[0x100];
     }
 
 
@@ -138,6 +144,12 @@ public class SpecTypePairArray extends BlockArray<SpecTypePair>
         return getSpecTypePair((byte) typeId);
     }
     public SpecTypePair getSpecTypePair(byte typeId){
+        SpecTypePair[] cache = this.mTypeIdCache;
+        int slot = typeId & 0xff;
+        SpecTypePair cached = cache[slot];
+        if(cached != null && isCachedValid(cached, typeId)){
+            return cached;
+        }
         SpecTypePair[] items = getChildes();
         if(items == null){
             return null;
@@ -146,11 +158,20 @@ public class SpecTypePairArray extends BlockArray<SpecTypePair>
         for(int i = 0; i < length; i++){
             SpecTypePair specTypePair = items[i];
             if(specTypePair != null && specTypePair.getTypeId() == typeId){
+                cache[slot] = specTypePair;
                 return specTypePair;
             }
         }
+        cache[slot] = null;
         return null;
     }
+    private boolean isCachedValid(SpecTypePair specTypePair, byte typeId){
+        if(specTypePair.getTypeId() != typeId || specTypePair.getParent() != this){
+            return false;
+        }
+        int index = specTypePair.getIndex();
+        return index >= 0 && index < childesCount() && get(index) == specTypePair;
+    }
     public SpecTypePair getSpecTypePair(String typeName){
         if(typeName == null){
             return null;
@@ -327,6 +348,45 @@ public class SpecTypePairArray extends BlockArray<SpecTypePair>
         }
         return jsonArray;
     }
+    public void writeJson(JSONWriter writer) {
+        writer.array();
+        for(SpecTypePair specTypePair:listItems()){
+            specTypePair.writeJson(writer);
+        }
+        writer.endArray();
+    }
+    public void readJson(JSONReader reader) {
+        reader.beginArray();
+        while (reader.hasNext()){
+            readSpecTypePair(reader);
+        }
+        reader.endArray();
+    }
+    private void readSpecTypePair(JSONReader reader) {
+        SpecTypePair specTypePair = null;
+        JSONArray pendingTypes = null;
+        reader.beginObject();
+        while (reader.hasNext()){
+            String key = reader.nextKey();
+            if(SpecBlock.NAME_spec.equals(key)){
+                JSONObject jsonObject = reader.nextJSONObject();
+                specTypePair = getOrCreate((byte) jsonObject.getInt(TypeBlock.NAME_id));
+                specTypePair.getSpecBlock().fromJson(jsonObject);
+            }else if(!SpecTypePair.NAME_types.equals(key)){
+                reader.skipValue();
+            }else if(specTypePair != null){
+                specTypePair.getTypeBlockArray().readJson(reader);
+            }else {
+                // spec id is not known yet
+                pendingTypes = reader.nextJSONArray();
+            }
+        }
+        reader.endObject();
+        if(specTypePair == null){
+            throw new JSONException("Missing " + SpecBlock.NAME_spec);
+        }
+        specTypePair.getTypeBlockArray().fromJson(pendingTypes);
+    }
     public void merge(SpecTypePairArray pairArray){
         if(pairArray==null || pairArray==this){
             return;
@@ -17,6 +17,7 @@
 
  import com.reandroid.arsc.base.Block;
  import com.reandroid.arsc.base.BlockArray;
+ import com.reandroid.arsc.chunk.TableBlock;
  import com.reandroid.arsc.io.BlockLoad;
  import com.reandroid.arsc.io.BlockReader;
  import com.reandroid.arsc.item.IntegerItem;
@@ -83,6 +84,15 @@
              setChildesCount(this.count.get());
          }
      }
+     @Override
+     protected boolean onCountChanged(Block child){
+         // entries added, removed or reordered
+         TableBlock tableBlock = getParentInstance(TableBlock.class);
+         if(tableBlock != null){
+             tableBlock.notifyResourceIdsChanged();
+         }
+         return super.onCountChanged(child);
+     }
      private void updateCount(){
          this.count.set(childesCount());
      }
@@ -15,6 +15,7 @@
   */
 package com.reandroid.arsc.array;
 
+import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.IntegerItem;
 import com.reandroid.arsc.item.StringItem;
 import com.reandroid.arsc.pool.StringPool;
@@ -22,10 +23,12 @@ import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
 
+import java.io.IOException;
 import java.util.*;
 
 public abstract class StringArray<T extends StringItem> extends OffsetBlockArray<T> implements JSONConvert<JSONArray> {
     private boolean mUtf8;
+    private boolean mReadingLazy;
 
     public StringArray(OffsetArray offsets, IntegerItem itemCount, IntegerItem itemStart, boolean is_utf8) {
         super(offsets, itemCount, itemStart);
@@ -46,6 +49,31 @@ public abstract class StringArray<T extends StringItem> extends OffsetBlockArray
             stringPool.getStyleArray().onStringShifted(index);
         }
     }
+    /**
+     * True only while reading string items of a pool with lazy strings enabled,
+     * resolved once per read instead of per string item
+     * */
+    public boolean isReadingLazy(){
+        return mReadingLazy;
+    }
+    @Override
+    public void onReadBytes(BlockReader reader) throws IOException {
+        StringPool<?> stringPool = getParentInstance(StringPool.class);
+        if(stringPool == null || !stringPool.isLazyStrings()){
+            super.onReadBytes(reader);
+            return;
+        }
+        // The chunk reader is closed after loading, lazy strings keep reading from this copy
+        BlockReader lazyReader = reader.create(0, reader.length());
+        lazyReader.seek(reader.getPosition());
+        mReadingLazy = true;
+        try {
+            super.onReadBytes(lazyReader);
+        }finally {
+            mReadingLazy = false;
+        }
+        reader.seek(lazyReader.getPosition());
+    }
     @Override
     protected void onPreRefreshRefresh(){
         if(isFlexible()){
@@ -134,7 +162,7 @@ public abstract class StringArray<T extends StringItem> extends OffsetBlockArray
     }
 
     @Override
-    protected void refreshChildes(){
+    protected void refreshChildes(boolean incremental){
         // Not required
     }
     // Only styled strings
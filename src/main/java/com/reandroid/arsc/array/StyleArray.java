@@ -73,7 +73,7 @@ public class StyleArray extends OffsetBlockArray<StyleItem> implements JSONConve
         end4Block.fill(END_BYTE);
     }
     @Override
-    protected void refreshChildes(){
+    protected void refreshChildes(boolean incremental){
         // Not required
     }
     @Override
@@ -29,6 +29,8 @@ import com.reandroid.arsc.value.ResConfig;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 
 import java.io.IOException;
 import java.util.*;
@@ -66,6 +68,19 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
     public void sort(){
         sort(this);
     }
+    /**
+     * See {@link TypeBlock#optimizeLayout(int)}
+     * @return number of types changed layout
+     * */
+    public int optimizeLayouts(int minSdkVersion){
+        int result = 0;
+        for(TypeBlock typeBlock : listItems(true)){
+            if(typeBlock.optimizeLayout(minSdkVersion)){
+                result ++;
+            }
+        }
+        return result;
+    }
     public boolean removeNullEntries(int startId){
         boolean result = true;
         for(TypeBlock typeBlock:listItems()){
@@ -289,8 +304,11 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
         return new TypeBlock[len];
     }
     public TypeBlock createNext(boolean sparse){
+        return createNext(sparse, false);
+    }
+    public TypeBlock createNext(boolean sparse, boolean offset16){
         byte id = getTypeId();
-        TypeBlock typeBlock = new TypeBlock(sparse);
+        TypeBlock typeBlock = new TypeBlock(sparse, offset16);
         typeBlock.setTypeId(id);
         add(typeBlock);
         return typeBlock;
@@ -321,7 +339,7 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
             return false;
         }
         int pos=reader.getPosition();
-        TypeBlock typeBlock=createNext();
+        TypeBlock typeBlock=createNext(typeHeader.isSparse(), typeHeader.isOffset16());
         typeBlock.readBytes(reader);
         return reader.getPosition()>pos;
     }
@@ -388,6 +406,23 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
             typeBlock.fromJson(jsonObject);
         }
     }
+    public void writeJson(JSONWriter writer) {
+        writer.array();
+        for(TypeBlock typeBlock:listItems()){
+            typeBlock.writeJson(writer);
+        }
+        writer.endArray();
+    }
+    public void readJson(JSONReader reader) {
+        reader.beginArray();
+        while (reader.hasNext()){
+            // written first by writeJson, otherwise the type switches layout once seen
+            boolean sparse = TypeBlock.NAME_is_sparse.equals(reader.peekFirstKey());
+            TypeBlock typeBlock = createNext(sparse);
+            typeBlock.readJson(reader);
+        }
+        reader.endArray();
+    }
     public void merge(TypeBlockArray typeBlockArray){
         if(typeBlockArray == null || typeBlockArray == this){
             return;
@@ -26,6 +26,7 @@ public abstract class Block {
     private Block mParent;
     private boolean mNull;
     private BlockLoad mBlockLoad;
+    private boolean mRefreshPending = true;
     public abstract byte[] getBytes();
     public abstract int countBytes();
     public final int countUpTo(Block block){
@@ -42,6 +43,10 @@ public abstract class Block {
     public final void readBytes(BlockReader reader) throws IOException{
         onReadBytes(reader);
         notifyBlockLoad(reader);
+        if(mParent == null){
+            // freshly loaded tree is consistent, nothing to refresh until it changes
+            clearRefreshPending(this);
+        }
     }
     public final void setBlockLoad(BlockLoad blockLoad){
         mBlockLoad=blockLoad;
@@ -68,7 +73,11 @@ public abstract class Block {
         return mNull;
     }
     public void setNull(boolean is_null){
+        if(is_null == mNull){
+            return;
+        }
         mNull=is_null;
+        notifyCountChanged();
     }
     public final int getIndex(){
         return mIndex;
@@ -90,7 +99,14 @@ public abstract class Block {
         if(parent==this){
             return;
         }
+        Block old = mParent;
         mParent=parent;
+        if(old != null){
+            old.notifyCountChanged();
+        }
+        if(parent != null && parent != old){
+            parent.notifyCountChanged();
+        }
     }
     public final Block getParent(){
         return mParent;
@@ -118,6 +134,105 @@ public abstract class Block {
         return null;
     }
 
+    /**
+     * Must be called whenever the byte size of this block might have changed, clears
+     * cached byte counts of this block and its parents.
+     * Propagation stops at the first block whose cached count is already cleared and is
+     * already pending refresh, since parents of such block are in the same state
+     * */
+    protected final void notifyCountChanged(){
+        Block child = null;
+        Block block = this;
+        while (block != null){
+            boolean pending = block.mRefreshPending;
+            block.mRefreshPending = true;
+            if(!block.onCountChanged(child) && pending){
+                return;
+            }
+            child = block;
+            block = block.getParent();
+        }
+    }
+    /**
+     * @return true if size of this block or any of its descendants might have changed since
+     * last refresh or load
+     * */
+    public final boolean isRefreshPending(){
+        return mRefreshPending;
+    }
+    /**
+     * Clears refresh pending flag of this block only, must be called after refresh and only
+     * if none of its childes is pending
+     * */
+    protected final void markRefreshed(){
+        mRefreshPending = false;
+    }
+    protected void clearChildesRefreshPending(){
+    }
+    protected static void clearRefreshPending(Block block){
+        block.mRefreshPending = false;
+        block.clearChildesRefreshPending();
+    }
+    /**
+     * Returns this block and its parents which are not pending refresh (bottom up), blocks
+     * above the first pending parent are pending too. See {@link #restoreRefreshed(Block[])}
+     * */
+    protected final Block[] listRefreshedPath(){
+        int count = 0;
+        Block block = this;
+        while (block != null && !block.mRefreshPending){
+            count ++;
+            block = block.getParent();
+        }
+        Block[] results = new Block[count];
+        block = this;
+        for(int i = 0; i < count; i++){
+            results[i] = block;
+            block = block.getParent();
+        }
+        return results;
+    }
+    /**
+     * Clears refresh pending flags set while loading content which is consistent with
+     * source bytes (e.g. lazily parsed childes), the first block of the path is cleared
+     * along with its descendants.
+     * @param path as returned by {@link #listRefreshedPath()} before loading
+     * */
+    protected static void restoreRefreshed(Block[] path){
+        int length = path.length;
+        if(length == 0){
+            return;
+        }
+        clearRefreshPending(path[0]);
+        for(int i = 1; i < length; i++){
+            path[i].mRefreshPending = false;
+        }
+    }
+    /**
+     * Clears cached byte count if any
+     * @param child the direct child through which the change propagated, or null if
+     *              the change started on this block
+     * @return false if count was not cached, thus no need to notify parents
+     * */
+    protected boolean onCountChanged(Block child){
+        return true;
+    }
+
+    /**
+     * Writes this block into a single array pre-sized by {@link #countBytes()}, linear
+     * on total size unlike joining bytes of each child through {@link #addBytes(byte[], byte[])}
+     * @return written bytes or null if nothing written
+     * */
+    protected byte[] writeBytesToArray(){
+        BytesOutput output = new BytesOutput(countBytes());
+        try {
+            writeBytes(output);
+        } catch (IOException exception) {
+            // not thrown by BytesOutput
+            throw new IllegalArgumentException(exception);
+        }
+        return output.toByteArray();
+    }
 
     protected static byte[] addBytes(byte[] bts1, byte[] bts2){
         boolean empty1=(bts1==null || bts1.length==0);
@@ -138,4 +253,54 @@ public abstract class Block {
         System.arraycopy(bts2, 0, result, start, bts2.length);
         return result;
     }
+
+    private static class BytesOutput extends OutputStream {
+        private byte[] mBytes;
+        private int mCount;
+        BytesOutput(int initialSize){
+            if(initialSize < 0){
+                initialSize = 0;
+            }
+            this.mBytes = new byte[initialSize];
+        }
+        @Override
+        public void write(int b) {
+            ensureCapacity(1);
+            mBytes[mCount] = (byte) b;
+            mCount ++;
+        }
+        @Override
+        public void write(byte[] bts, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bts, offset, mBytes, mCount, length);
+            mCount += length;
+        }
+        private void ensureCapacity(int length){
+            int required = mCount + length;
+            byte[] bytes = this.mBytes;
+            if(required <= bytes.length){
+                return;
+            }
+            int size = bytes.length * 2;
+            if(size < required){
+                size = required;
+            }
+            byte[] result = new byte[size];
+            System.arraycopy(bytes, 0, result, 0, mCount);
+            this.mBytes = result;
+        }
+        byte[] toByteArray(){
+            int count = this.mCount;
+            if(count == 0){
+                return null;
+            }
+            byte[] bytes = this.mBytes;
+            if(count == bytes.length){
+                return bytes;
+            }
+            byte[] result = new byte[count];
+            System.arraycopy(bytes, 0, result, 0, count);
+            return result;
+        }
+    }
 }
@@ -144,6 +144,7 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
             elementData[i]=null;
         }
         this.elementData = newInstance(0);
+        notifyCountChanged();
     }
     public void addAll(T[] blocks){
         if(blocks == null || blocks.length == 0){
@@ -185,6 +186,8 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
         for(int i=0 ; i <elementData.length; i++){
             elementData[i].setIndex(i);
         }
+        // positions changed, cached offsets of subclasses are no longer valid
+        notifyCountChanged();
     }
     public void insertItem(int index, T item){
         int count = childesCount();
@@ -204,10 +207,12 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
         childes[index] = item;
         item.setParent(this);
         item.setIndex(index);
+        notifyCountChanged();
     }
     public void setItem(int index, T item){
         ensureSize(index + 1);
         elementData[index] = item;
+        notifyCountChanged();
         if(item != null){
             item.setIndex(index);
             item.setParent(this);
@@ -243,6 +248,7 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
         if(isFlexible()){
             mFreeSpace--;
         }
+        notifyCountChanged();
     }
     protected void onPreShifting(){
     }
@@ -408,6 +414,7 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
                 removedList.add(item);
             }
         }
+        notifyCountChanged();
         trimNullBlocks();
     }
     public void onPreRemove(T block){
@@ -431,6 +438,9 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
                 onPreRemove(item);
             }
         }
+        if(found){
+            notifyCountChanged();
+        }
         if(found && trim){
             trimNullBlocks();
         }
@@ -458,6 +468,7 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
             }
         }
         elementData=update;
+        notifyCountChanged();
     }
     private int countNonNull(boolean is_null_check){
         T[] items=elementData;
@@ -501,6 +512,7 @@ public abstract class BlockArray<T extends Block> extends BlockContainer<T> impl
             item.setParent(this);
         }
         elementData=update;
+        notifyCountChanged();
     }
     private void allocateIfFull(){
         if(mFreeSpace > 0){
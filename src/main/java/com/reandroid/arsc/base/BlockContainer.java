@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 public abstract class BlockContainer<T extends Block> extends Block{
+    private int mCachedCount = -1;
     public BlockContainer(){
         super();
     }
@@ -31,14 +32,28 @@ public abstract class BlockContainer<T extends Block> extends Block{
     }
     protected abstract void onRefreshed();
     public final void refresh(){
+        refresh(false);
+    }
+    /**
+     * On incremental refresh, childes whose size did not change since their last refresh
+     * (or load) are skipped. Values that depend on position of such childes (e.g. offset
+     * array starts) are refreshed by their parent chunks.
+     * */
+    public final void refresh(boolean incremental){
         if(isNull()){
             return;
         }
+        if(incremental && !isRefreshPending()){
+            return;
+        }
         onPreRefreshRefresh();
-        refreshChildes();
+        refreshChildes(incremental);
         onRefreshed();
+        if(!hasRefreshPendingChildes()){
+            markRefreshed();
+        }
     }
-    protected void refreshChildes(){
+    protected void refreshChildes(boolean incremental){
         T[] childes=getChildes();
         if(childes!=null){
             int max=childes.length;
@@ -46,14 +61,39 @@ public abstract class BlockContainer<T extends Block> extends Block{
                 T item=childes[i];
                 if(item instanceof BlockContainer){
                     BlockContainer<?> container=(BlockContainer<?>)item;
-                    container.refresh();
+                    container.refresh(incremental);
                 }else if(item instanceof BlockList){
                     BlockList<?> blockList=(BlockList<?>)item;
-                    blockList.refresh();
+                    blockList.refresh(incremental);
                 }
             }
         }
     }
+    protected boolean hasRefreshPendingChildes(){
+        T[] childes=getChildes();
+        if(childes==null){
+            return false;
+        }
+        for(T item : childes){
+            if((item instanceof BlockContainer || item instanceof BlockList)
+                    && item.isRefreshPending()){
+                return true;
+            }
+        }
+        return false;
+    }
+    @Override
+    protected void clearChildesRefreshPending(){
+        T[] childes=getChildes();
+        if(childes==null){
+            return;
+        }
+        for(T item : childes){
+            if(item!=null){
+                clearRefreshPending(item);
+            }
+        }
+    }
     @Override
     public void onCountUpTo(BlockCounter counter){
         if(counter.FOUND){
@@ -81,9 +121,23 @@ public abstract class BlockContainer<T extends Block> extends Block{
     }
     @Override
     public int countBytes(){
+        // childes are counted even if null, keeps cached counts of descendants valid
+        int result = countChildesBytes();
         if(isNull()){
             return 0;
         }
+        return result;
+    }
+    private int countChildesBytes(){
+        int result = this.mCachedCount;
+        if(result >= 0){
+            return result;
+        }
+        result = computeChildesBytes();
+        this.mCachedCount = result;
+        return result;
+    }
+    private int computeChildesBytes(){
         T[] childes=getChildes();
         if(childes==null){
             return 0;
@@ -98,6 +152,31 @@ public abstract class BlockContainer<T extends Block> extends Block{
         }
         return result;
     }
+    /**
+     * Caches count of childes bytes when it is already known (e.g. from offsets), the value
+     * must be the same as sum of childes countBytes()
+     * */
+    protected final void cacheChildesBytes(int count){
+        this.mCachedCount = count;
+    }
+    /**
+     * @return true if byte count is cached and none of descendants changed since then
+     * */
+    protected boolean isCountCached(){
+        return mCachedCount >= 0;
+    }
+    @Override
+    protected boolean onCountChanged(Block child){
+        int count = this.mCachedCount;
+        if(count == COUNT_CLEARED){
+            return false;
+        }
+        // never counted (e.g. countBytes overridden by subclass) keeps notifying parents
+        if(count >= 0){
+            this.mCachedCount = COUNT_CLEARED;
+        }
+        return true;
+    }
     @Override
     public byte[] getBytes(){
         if(isNull()){
@@ -107,15 +186,7 @@ public abstract class BlockContainer<T extends Block> extends Block{
         if(childes==null){
             return null;
         }
-        byte[] results=null;
-        int max=childes.length;
-        for(int i=0;i<max;i++){
-            T item=childes[i];
-            if(item!=null){
-                results = addBytes(results, item.getBytes());
-            }
-        }
-        return results;
+        return writeBytesToArray();
     }
     @Override
     public int onWriteBytes(OutputStream stream) throws IOException {
@@ -154,4 +225,6 @@ public abstract class BlockContainer<T extends Block> extends Block{
 
     public abstract int childesCount();
     public abstract T[] getChildes();
+
+    private static final int COUNT_CLEARED = -2;
 }
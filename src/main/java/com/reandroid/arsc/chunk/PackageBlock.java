@@ -40,6 +40,8 @@ import com.reandroid.common.Namespace;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 import com.reandroid.utils.*;
 import com.reandroid.utils.collection.EmptyIterator;
 import com.reandroid.utils.collection.IterableIterator;
@@ -56,7 +58,12 @@ import java.io.IOException;
 import java.util.*;
 import java.util.function.Predicate;
 
-
+/**
+ * Not thread safe for modification. Concurrent reads (resource lookups by id or name,
+ * lazily loaded type entries and strings) are supported as long as no thread modifies
+ * this package, its table or the table frameworks meanwhile, as done while compiling xml
+ * files in parallel (see {@link com.reandroid.apk.xmlencoder.XMLEncodeSource#encodeBytes()}).
+ * */
 public class PackageBlock extends Chunk<PackageHeader>
         implements ParentChunk,
         JSONConvert<JSONObject>,
@@ -368,6 +375,10 @@ public class PackageBlock extends Chunk<PackageHeader>
         getHeaderBlock().getPackageId().set(id);
         mPrefix = null;
         mHasValidPrefix = false;
+        TableBlock tableBlock = getTableBlock();
+        if(tableBlock != null){
+            tableBlock.notifyResourceIdsChanged();
+        }
     }
     @Override
     public String getName(){
@@ -665,6 +676,67 @@ public class PackageBlock extends Chunk<PackageHeader>
             getOverlayableList().fromJson(json.getJSONArray(NAME_overlaybles));
         }
     }
+    /**
+     * Streaming version of {@link #toJson()}, types are written one at a time
+     * */
+    public void writeJson(JSONWriter writer) {
+        writer.object();
+
+        writer.key(BuildInfo.NAME_arsc_lib_version).value(BuildInfo.getVersion());
+
+        writer.key(NAME_package_id).value(getId());
+        writer.put(NAME_package_name, getName());
+        writer.key(NAME_specs);
+        getSpecTypePairArray().writeJson(writer);
+        LibraryInfoArray libraryInfoArray = getLibraryBlock().getLibraryInfoArray();
+        if(libraryInfoArray.childesCount()>0){
+            writer.key(NAME_libraries).value(libraryInfoArray.toJson());
+        }
+        StagedAlias stagedAlias =
+                StagedAlias.mergeAll(getStagedAliasList().getChildes());
+        if(stagedAlias!=null){
+            writer.key(NAME_staged_aliases)
+                    .value(stagedAlias.getStagedAliasEntryArray().toJson());
+        }
+        writer.put(NAME_overlaybles, getOverlayableList().toJson());
+        writer.endObject();
+    }
+    /**
+     * Streaming version of {@link #fromJson(JSONObject)}
+     * */
+    public void readJson(JSONReader reader) {
+        JSONArray libraries = null;
+        reader.beginObject();
+        while (reader.hasNext()){
+            String key = reader.nextKey();
+            if(NAME_package_id.equals(key)){
+                int id = reader.nextInt();
+                if(id != 0){
+                    setId(id);
+                }
+            }else if(NAME_package_name.equals(key)){
+                String name = reader.nextString();
+                if(name != null){
+                    setName(name);
+                }
+            }else if(NAME_specs.equals(key)){
+                getSpecTypePairArray().readJson(reader);
+            }else if(NAME_libraries.equals(key)){
+                libraries = reader.nextJSONArray();
+            }else if(NAME_staged_aliases.equals(key)){
+                StagedAlias stagedAlias=new StagedAlias();
+                stagedAlias.getStagedAliasEntryArray()
+                        .fromJson(reader.nextJSONArray());
+                getStagedAliasList().add(stagedAlias);
+            }else if(NAME_overlaybles.equals(key)){
+                getOverlayableList().fromJson(reader.nextJSONArray());
+            }else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        getLibraryBlock().getLibraryInfoArray().fromJson(libraries);
+    }
     public void merge(PackageBlock packageBlock){
         if(packageBlock==null||packageBlock==this){
             return;
@@ -18,7 +18,9 @@ package com.reandroid.arsc.chunk;
 import com.reandroid.arsc.ApkFile;
 import com.reandroid.arsc.BuildInfo;
 import com.reandroid.arsc.array.PackageArray;
+import com.reandroid.arsc.container.SpecTypePair;
 import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.model.ResourceIdIndex;
 import com.reandroid.arsc.header.HeaderBlock;
 import com.reandroid.arsc.header.InfoHeader;
 import com.reandroid.arsc.header.TableHeader;
@@ -29,6 +31,8 @@ import com.reandroid.common.ReferenceResolver;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 import com.reandroid.utils.*;
 import com.reandroid.utils.collection.CombiningIterator;
 import com.reandroid.utils.collection.EmptyIterator;
@@ -51,6 +55,10 @@ public class TableBlock extends Chunk<TableHeader>
     private ApkFile mApkFile;
     private ReferenceResolver referenceResolver;
     private PackageBlock mCurrentPackage;
+    private boolean mLazyLoadTypes;
+    private boolean mLazyLoadStrings;
+    private ResourceIdIndex mResourceIdIndex;
+    private volatile int mResourceIdsVersion;
 
     public TableBlock() {
         super(new TableHeader(), 2);
@@ -62,11 +70,96 @@ public class TableBlock extends Chunk<TableHeader>
         addChild(mPackageArray);
     }
 
+    public boolean isLazyLoadStrings(){
+        return mLazyLoadStrings;
+    }
+    /**
+     * When enabled, string pools of this table and its packages read afterwards keep
+     * strings undecoded until first access, see {@link com.reandroid.arsc.pool.StringPool#setLazyStrings(boolean)}.
+     * This should be set before reading bytes.
+     * */
+    public void setLazyLoadStrings(boolean lazyLoadStrings){
+        this.mLazyLoadStrings = lazyLoadStrings;
+    }
+    public boolean isLazyLoadTypes(){
+        return mLazyLoadTypes;
+    }
+    /**
+     * When enabled, types read afterwards only parse their headers (type id and config),
+     * entries are parsed on first access. This should be set before reading bytes.
+     * */
+    public void setLazyLoadTypes(boolean lazyLoadTypes){
+        this.mLazyLoadTypes = lazyLoadTypes;
+    }
+    /**
+     * Discards parsed entries of lazily read types, see {@link TypeBlock#releaseEntries()}
+     * @return number of released types
+     * */
+    public int releaseLoadedTypes(){
+        int result = 0;
+        for(PackageBlock packageBlock : listPackages()){
+            for(SpecTypePair specTypePair : packageBlock.listSpecTypePairs()){
+                Iterator<TypeBlock> iterator = specTypePair.getTypeBlocks();
+                while (iterator.hasNext()){
+                    if(iterator.next().releaseEntries()){
+                        result ++;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+    /**
+     * Switches every type to its smallest entries layout supported by the given minimum
+     * sdk version, see {@link TypeBlock#optimizeLayout(int)}. Call right before writing.
+     * @return number of types changed layout
+     * */
+    public int optimizeTypeLayouts(int minSdkVersion){
+        int result = 0;
+        for(PackageBlock packageBlock : listPackages()){
+            for(SpecTypePair specTypePair : packageBlock.listSpecTypePairs()){
+                result += specTypePair.getTypeBlockArray().optimizeLayouts(minSdkVersion);
+            }
+        }
+        return result;
+    }
+    public boolean isResourceIndexEnabled(){
+        return mResourceIdIndex != null;
+    }
+    /**
+     * When enabled, lookups by resource id (getResource(int), getEntries(int) and reference
+     * resolving) go through {@link ResourceIdIndex} instead of scanning all packages and frameworks
+     * */
+    public void setResourceIndexEnabled(boolean enabled){
+        if(enabled == isResourceIndexEnabled()){
+            return;
+        }
+        if(enabled){
+            mResourceIdIndex = new ResourceIdIndex(this);
+        }else {
+            mResourceIdIndex = null;
+        }
+    }
+    public ResourceIdIndex getResourceIdIndex(){
+        return mResourceIdIndex;
+    }
+    /**
+     * Changes whenever packages, package ids, staged aliases, current package or frameworks
+     * of this table are changed. Used by {@link ResourceIdIndex} of this table and of tables
+     * using this as framework
+     * */
+    public int getResourceIdsVersion(){
+        return mResourceIdsVersion;
+    }
+    public void notifyResourceIdsChanged(){
+        mResourceIdsVersion ++;
+    }
     public PackageBlock getCurrentPackage(){
         return mCurrentPackage;
     }
     public void setCurrentPackage(PackageBlock packageBlock){
         mCurrentPackage = packageBlock;
+        notifyResourceIdsChanged();
     }
     public PackageBlock getPackageBlockByTag(Object tag){
         for(PackageBlock packageBlock : listPackages()){
@@ -85,6 +178,10 @@ public class TableBlock extends Chunk<TableHeader>
         };
     }
     public ResourceEntry getResource(int resourceId){
+        ResourceIdIndex resourceIdIndex = this.mResourceIdIndex;
+        if(resourceIdIndex != null){
+            return resourceIdIndex.getResource(resourceId);
+        }
         if(resourceId == 0){
             return null;
         }
@@ -111,6 +208,10 @@ public class TableBlock extends Chunk<TableHeader>
         return null;
     }
     public ResourceEntry getResource(PackageBlock context, int resourceId){
+        ResourceIdIndex resourceIdIndex = this.mResourceIdIndex;
+        if(resourceIdIndex != null){
+            return resourceIdIndex.getResource(context, resourceId);
+        }
         if(resourceId == 0){
             return null;
         }
@@ -281,6 +382,10 @@ public class TableBlock extends Chunk<TableHeader>
         return getEntries(resourceId, true);
     }
     public Iterator<Entry> getEntries(int resourceId, boolean skipNull){
+        ResourceIdIndex resourceIdIndex = this.mResourceIdIndex;
+        if(resourceIdIndex != null){
+            return resourceIdIndex.getEntries(resourceId, skipNull);
+        }
 
         final int packageId = (resourceId >> 24) & 0xff;
         final int typeId = (resourceId >> 16) & 0xff;
@@ -586,7 +691,16 @@ public class TableBlock extends Chunk<TableHeader>
     }
 
     public void readBytes(File file) throws IOException{
-        BlockReader reader=new BlockReader(file);
+        readBytes(file, false);
+    }
+    /**
+     * @param memoryMap if true, files of at least 1MB are memory mapped instead of being copied
+     *                  to heap (see {@link BlockReader#BlockReader(File, boolean)}), mostly useful
+     *                  along with lazy strings/types. The file must NOT be modified while this
+     *                  table is in use and on Windows it stays locked until the mapping is collected.
+     * */
+    public void readBytes(File file, boolean memoryMap) throws IOException{
+        BlockReader reader=new BlockReader(file, memoryMap);
         super.readBytes(reader);
     }
     public void readBytes(InputStream inputStream) throws IOException{
@@ -659,12 +773,15 @@ public class TableBlock extends Chunk<TableHeader>
             }
         }
         mFrameWorks.add(tableBlock);
+        notifyResourceIdsChanged();
     }
     public void removeFramework(TableBlock tableBlock){
         mFrameWorks.remove(tableBlock);
+        notifyResourceIdsChanged();
     }
     public void clearFrameworks(){
         mFrameWorks.clear();
+        notifyResourceIdsChanged();
     }
     public PackageBlock parsePublicXml(XmlPullParser parser) throws IOException,
             XmlPullParserException {
@@ -690,15 +807,63 @@ public class TableBlock extends Chunk<TableHeader>
         getPackageArray().fromJson(json.getJSONArray(NAME_packages));
         refresh();
     }
+    /**
+     * Streaming version of {@link #toJson()}, writes directly to the writer without building
+     * the whole json tree
+     * */
+    public void writeJson(JSONWriter writer) {
+        writer.object();
+
+        writer.key(BuildInfo.NAME_arsc_lib_version).value(BuildInfo.getVersion());
+
+        writer.key(NAME_packages);
+        getPackageArray().writeJson(writer);
+        writer.put(NAME_styled_strings, getStringPool().toJson());
+        writer.endObject();
+    }
+    /**
+     * Streaming version of {@link #fromJson(JSONObject)}
+     * */
+    public void readJson(JSONReader reader) {
+        reader.beginObject();
+        while (reader.hasNext()){
+            String key = reader.nextKey();
+            if(NAME_packages.equals(key)){
+                getPackageArray().readJson(reader);
+            }else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        refresh();
+    }
     public void merge(TableBlock tableBlock){
         if(tableBlock==null||tableBlock==this){
             return;
         }
+        mergeWithoutRefresh(tableBlock);
+        refresh();
+    }
+    /**
+     * Merges all tables in the given order like {@link #merge(TableBlock)}, but refreshes
+     * only once at the end
+     * */
+    public void merge(Collection<TableBlock> tableBlocks){
+        if(tableBlocks == null || tableBlocks.isEmpty()){
+            return;
+        }
+        for(TableBlock tableBlock : tableBlocks){
+            if(tableBlock != null && tableBlock != this){
+                mergeWithoutRefresh(tableBlock);
+            }
+        }
+        refresh();
+    }
+    private void mergeWithoutRefresh(TableBlock tableBlock){
         if(countPackages()==0 && getStringPool().countStrings()==0){
             getStringPool().merge(tableBlock.getStringPool());
         }
         getPackageArray().merge(tableBlock.getPackageArray());
-        refresh();
     }
     @Override
     public String toString(){
@@ -717,13 +882,34 @@ public class TableBlock extends Chunk<TableHeader>
         return load(inputStream);
     }
     public static TableBlock load(File file) throws IOException{
-        return load(new FileInputStream(file));
+        return load(file, false);
+    }
+    /**
+     * @param memoryMap see {@link #readBytes(File, boolean)}
+     * */
+    public static TableBlock load(File file, boolean memoryMap) throws IOException{
+        TableBlock tableBlock=new TableBlock();
+        tableBlock.readBytes(file, memoryMap);
+        return tableBlock;
     }
     public static TableBlock load(InputStream inputStream) throws IOException{
         TableBlock tableBlock=new TableBlock();
         tableBlock.readBytes(inputStream);
         return tableBlock;
     }
+    public static TableBlock loadLazy(File file) throws IOException{
+        return loadLazy(file, false);
+    }
+    /**
+     * @param memoryMap see {@link #readBytes(File, boolean)}
+     * */
+    public static TableBlock loadLazy(File file, boolean memoryMap) throws IOException{
+        TableBlock tableBlock=new TableBlock();
+        tableBlock.setLazyLoadTypes(true);
+        tableBlock.setLazyLoadStrings(true);
+        tableBlock.readBytes(file, memoryMap);
+        return tableBlock;
+    }
 
     public static boolean isResTableBlock(File file){
         if(file==null){
@@ -17,9 +17,14 @@ package com.reandroid.arsc.chunk;
 
 import com.reandroid.arsc.array.EntryArray;
 import com.reandroid.arsc.array.OffsetArray;
+import com.reandroid.arsc.array.ShortOffsetArray;
 import com.reandroid.arsc.array.SparseOffsetsArray;
+import com.reandroid.arsc.base.Block;
+import com.reandroid.arsc.base.BlockCounter;
 import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.header.HeaderBlock;
 import com.reandroid.arsc.header.TypeHeader;
+import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.*;
 import com.reandroid.arsc.pool.SpecStringPool;
 import com.reandroid.arsc.pool.TableStringPool;
@@ -29,9 +34,11 @@ import com.reandroid.arsc.value.Entry;
 import com.reandroid.arsc.value.ResConfig;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import com.reandroid.json.JSONWriter;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -39,18 +46,21 @@ import java.util.List;
 public class TypeBlock extends Chunk<TypeHeader>
         implements JSONConvert<JSONObject>, Comparable<TypeBlock> {
 
-    private final EntryArray mEntryArray;
+    private EntryArray mEntryArray;
     private TypeString mTypeString;
+    private SpecTypePair mSpecTypePair;
+    private BlockReader mLazyReader;
+    private int mLazyBodyPosition;
+    private volatile boolean mEntriesLoaded = true;
     public TypeBlock(boolean sparse) {
+        this(sparse, false);
+    }
+    public TypeBlock(boolean sparse, boolean offset16) {
         super(new TypeHeader(sparse), 2);
         TypeHeader header = getHeaderBlock();
+        header.setOffset16(offset16 && !sparse);
 
-        OffsetArray entryOffsets;
-        if(sparse){
-            entryOffsets = new SparseOffsetsArray();
-        }else {
-            entryOffsets = new OffsetArray();
-        }
+        OffsetArray entryOffsets = newOffsetArray(sparse, offset16);
         this.mEntryArray = new EntryArray(entryOffsets,
                 header.getCount(), header.getEntriesStart());
 
@@ -90,6 +100,186 @@ public class TypeBlock extends Chunk<TypeHeader>
     public boolean isSparse(){
         return getHeaderBlock().isSparse();
     }
+    public boolean isOffset16(){
+        return getHeaderBlock().isOffset16();
+    }
+    /**
+     * Switches to the smallest entries layout supported by the given minimum sdk version:
+     * dense, dense with 16-bit offsets (api {@link #SDK_OFFSET16}) or sparse
+     * (api {@link #SDK_SPARSE}). Entries and their ids are kept. Since sparse and non-sparse
+     * types are looked up separately (e.g. TypeBlockArray#getTypeBlock(ResConfig, boolean)),
+     * this is meant to be called right before writing.
+     * @return true if layout is changed
+     * */
+    public boolean optimizeLayout(int minSdkVersion){
+        EntryArray entryArray = getEntryArray();
+        int nonNull = entryArray.countNonNull();
+        if(nonNull == 0){
+            return false;
+        }
+        int denseCount;
+        if(entryArray.isSparse()){
+            denseCount = entryArray.getHighestEntryId() + 1;
+        }else {
+            denseCount = entryArray.childesCount();
+        }
+        int dense = denseCount * 4;
+        int best = dense;
+        boolean sparse = false;
+        boolean offset16 = false;
+        if(minSdkVersion >= SDK_OFFSET16 && canEncodeOffset16(entryArray)){
+            int size = (denseCount * 2 + 3) & ~3;
+            if(size < best){
+                best = size;
+                offset16 = true;
+            }
+        }
+        if(minSdkVersion >= SDK_SPARSE && nonNull * 4 < best
+                && nonNull * 100 < denseCount * SPARSE_DENSITY_PERCENT
+                && canEncodeSparse(entryArray)){
+            sparse = true;
+            offset16 = false;
+        }
+        return setLayout(sparse, offset16);
+    }
+    /**
+     * Changes how entry offsets are encoded, entries and their ids are kept
+     * @return true if layout is changed
+     * */
+    public boolean setLayout(boolean sparse, boolean offset16){
+        offset16 = offset16 && !sparse;
+        if(sparse == isSparse() && offset16 == isOffset16()){
+            return false;
+        }
+        EntryArray entryArray = getEntryArray();
+        if(offset16 && !canEncodeOffset16(entryArray)){
+            throw new IllegalArgumentException("Entries too large for 16-bit offsets: " + this);
+        }
+        if(sparse && !canEncodeSparse(entryArray)){
+            throw new IllegalArgumentException("Entries too large for sparse offsets: " + this);
+        }
+        synchronized (this){
+            changeLayout(sparse, offset16);
+        }
+        return true;
+    }
+    private void changeLayout(boolean sparse, boolean offset16){
+        EntryArray entryArray = this.mEntryArray;
+        Entry[] entries = entryArray.listItems(true).toArray(new Entry[0]);
+        int length = entries.length;
+        int[] ids = new int[length];
+        int highest = -1;
+        for(int i = 0; i < length; i++){
+            int id = entries[i].getId();
+            ids[i] = id;
+            if(id > highest){
+                highest = id;
+            }
+        }
+        int denseCount = highest + 1;
+        if(!entryArray.isSparse() && entryArray.childesCount() > denseCount){
+            denseCount = entryArray.childesCount();
+        }
+        entryArray.clearChildes();
+
+        TypeHeader header = getHeaderBlock();
+        header.setSparse(sparse);
+        header.setOffset16(offset16);
+        OffsetArray offsetArray = newOffsetArray(sparse, offset16);
+        EntryArray update = new EntryArray(offsetArray,
+                header.getCount(), header.getEntriesStart());
+        if(sparse){
+            sortById(entries, ids);
+            offsetArray.setSize(length);
+            SparseOffsetsArray sparseOffsets = (SparseOffsetsArray) offsetArray;
+            for(int i = 0; i < length; i++){
+                sparseOffsets.setIdx(i, ids[i]);
+            }
+            update.addAll(entries);
+        }else {
+            Entry[] denseEntries = new Entry[denseCount];
+            for(int i = 0; i < length; i++){
+                denseEntries[ids[i]] = entries[i];
+            }
+            for(int i = 0; i < denseCount; i++){
+                if(denseEntries[i] == null){
+                    Entry entry = update.newInstance();
+                    entry.setNull(true);
+                    denseEntries[i] = entry;
+                }
+            }
+            offsetArray.setSize(denseCount);
+            update.addAll(denseEntries);
+        }
+        Block[] childes = getChildes();
+        for(int i = 0; i < childes.length; i++){
+            Block block = childes[i];
+            if(block instanceof OffsetArray){
+                replaceChild(i, offsetArray);
+            }else if(block == entryArray){
+                replaceChild(i, update);
+            }
+        }
+        this.mEntryArray = update;
+        update.refreshCount();
+        // source bytes no longer match this layout
+        this.mLazyReader = null;
+    }
+    private void replaceChild(int index, Block block){
+        Block[] childes = getChildes();
+        Block old = childes[index];
+        childes[index] = block;
+        old.setParent(null);
+        old.setIndex(-1);
+        block.setIndex(index);
+        block.setParent(this);
+    }
+    private static void sortById(Entry[] entries, int[] ids){
+        int length = entries.length;
+        for(int i = 1; i < length; i++){
+            int id = ids[i];
+            Entry entry = entries[i];
+            int j = i - 1;
+            while (j >= 0 && ids[j] > id){
+                ids[j + 1] = ids[j];
+                entries[j + 1] = entries[j];
+                j--;
+            }
+            ids[j + 1] = id;
+            entries[j + 1] = entry;
+        }
+    }
+    private static boolean canEncodeOffset16(EntryArray entryArray){
+        Iterator<Entry> iterator = entryArray.iterator(true);
+        int offset = 0;
+        while (iterator.hasNext()){
+            if(!ShortOffsetArray.canEncode(offset)){
+                return false;
+            }
+            offset += iterator.next().countBytes();
+        }
+        return true;
+    }
+    private static boolean canEncodeSparse(EntryArray entryArray){
+        Iterator<Entry> iterator = entryArray.iterator(true);
+        int offset = 0;
+        while (iterator.hasNext()){
+            if(!SparseOffsetsArray.canEncode(offset)){
+                return false;
+            }
+            offset += iterator.next().countBytes();
+        }
+        return true;
+    }
+    private static OffsetArray newOffsetArray(boolean sparse, boolean offset16){
+        if(sparse){
+            return new SparseOffsetsArray();
+        }
+        if(offset16){
+            return new ShortOffsetArray();
+        }
+        return new OffsetArray();
+    }
     public void destroy(){
         getEntryArray().destroy();
         setId(0);
@@ -102,7 +292,7 @@ public class TypeBlock extends Chunk<TypeHeader>
         return entryArray.childesCount() == startId;
     }
     public PackageBlock getPackageBlock(){
-        SpecTypePair specTypePair = getParent(SpecTypePair.class);
+        SpecTypePair specTypePair = getParentSpecTypePair();
         if(specTypePair!=null){
             return specTypePair.getPackageBlock();
         }
@@ -182,7 +372,15 @@ public class TypeBlock extends Chunk<TypeHeader>
         return getEntryArray().countNonNull();
     }
     public SpecTypePair getParentSpecTypePair(){
-        return getParent(SpecTypePair.class);
+        SpecTypePair specTypePair = this.mSpecTypePair;
+        // parent chain: TypeBlockArray -> SpecTypePair
+        Block parent = getParent();
+        if(specTypePair != null && parent != null && parent.getParent() == specTypePair){
+            return specTypePair;
+        }
+        specTypePair = getParent(SpecTypePair.class);
+        this.mSpecTypePair = specTypePair;
+        return specTypePair;
     }
     public void cleanEntries(){
         Iterator<Entry> iterator = getEntries();
@@ -259,8 +457,105 @@ public class TypeBlock extends Chunk<TypeHeader>
         return getHeaderBlock().getConfig();
     }
     public EntryArray getEntryArray(){
+        ensureEntriesLoaded();
         return mEntryArray;
     }
+    /**
+     * Returns false if this type was read lazily (see {@link TableBlock#setLazyLoadTypes(boolean)})
+     * and its entries are not parsed yet
+     * */
+    public boolean isEntriesLoaded(){
+        return mEntriesLoaded;
+    }
+    /**
+     * Discards parsed entries of lazily read type, entries will be parsed again from
+     * source bytes on next access. Any changes made to this type since it was read are lost.
+     * Releasing is not possible once table/spec string references are linked, i.e. after
+     * string pools are modified or after a lookup by resource name (which links all spec
+     * string users); in that case returns false. Lookups by resource id do not link.
+     * */
+    public boolean releaseEntries(){
+        BlockReader reader = this.mLazyReader;
+        if(reader == null || !mEntriesLoaded){
+            return false;
+        }
+        if(isStringsLinked()){
+            return false;
+        }
+        synchronized (this){
+            if(!mEntriesLoaded){
+                return false;
+            }
+            Block[] refreshedPath = listRefreshedPath();
+            mEntryArray.clearChildes();
+            reader.seek(0);
+            try {
+                readHeaderOnly(reader);
+            } catch (IOException exception) {
+                throw new IllegalArgumentException(exception);
+            }
+            mEntriesLoaded = false;
+            restoreRefreshed(refreshedPath);
+        }
+        return true;
+    }
+    private boolean isStringsLinked(){
+        PackageBlock packageBlock = getPackageBlock();
+        if(packageBlock == null){
+            return true;
+        }
+        if(!packageBlock.getSpecStringPool().isStringLinkLocked()){
+            return true;
+        }
+        TableBlock tableBlock = packageBlock.getTableBlock();
+        return tableBlock == null || !tableBlock.getStringPool().isStringLinkLocked();
+    }
+    private void ensureEntriesLoaded(){
+        if(mEntriesLoaded){
+            return;
+        }
+        synchronized (this){
+            if(mEntriesLoaded){
+                return;
+            }
+            // parsed entries are the same as source bytes, keep refresh state as it was
+            Block[] refreshedPath = listRefreshedPath();
+            try {
+                loadEntries(mLazyReader);
+            } catch (IOException exception) {
+                throw new IllegalArgumentException(exception);
+            }
+            mEntriesLoaded = true;
+            restoreRefreshed(refreshedPath);
+        }
+    }
+    private void loadEntries(BlockReader reader) throws IOException {
+        TypeHeader header = getHeaderBlock();
+        EntryArray entryArray = this.mEntryArray;
+        entryArray.onBlockLoaded(reader, header.getCount());
+        reader.seek(mLazyBodyPosition);
+        Block[] childes = getChildes();
+        for(Block block : childes){
+            if(block != null && block != header){
+                block.readBytes(reader);
+            }
+        }
+    }
+    private void readHeaderOnly(BlockReader reader) throws IOException {
+        TypeHeader header = getHeaderBlock();
+        header.getCount().setBlockLoad(null);
+        header.readBytes(reader);
+        header.getCount().setBlockLoad(mEntryArray);
+        mLazyBodyPosition = reader.getPosition();
+    }
+    private boolean isLazyLoadTypes(){
+        PackageBlock packageBlock = getPackageBlock();
+        if(packageBlock == null){
+            return false;
+        }
+        TableBlock tableBlock = packageBlock.getTableBlock();
+        return tableBlock != null && tableBlock.isLazyLoadTypes();
+    }
     public void ensureEntriesCount(int count){
         EntryArray entryArray = getEntryArray();
         entryArray.ensureSize(count);
@@ -287,23 +582,53 @@ public class TypeBlock extends Chunk<TypeHeader>
         getEntryArray().refreshCountAndStart();
     }
     @Override
+    public void onReadBytes(BlockReader reader) throws IOException {
+        if(!isLazyLoadTypes()){
+            super.onReadBytes(reader);
+            return;
+        }
+        HeaderBlock headerBlock = reader.readHeaderBlock();
+        checkInvalidChunk(headerBlock);
+        BlockReader chunkReader = reader.create(headerBlock.getChunkSize());
+        readHeaderOnly(chunkReader);
+        this.mLazyReader = chunkReader;
+        this.mEntriesLoaded = false;
+        reader.offset(headerBlock.getChunkSize());
+        onChunkLoaded();
+    }
+    @Override
+    public int countBytes(){
+        ensureEntriesLoaded();
+        return super.countBytes();
+    }
+    @Override
+    public void onCountUpTo(BlockCounter counter){
+        ensureEntriesLoaded();
+        super.onCountUpTo(counter);
+    }
+    @Override
+    public int onWriteBytes(OutputStream stream) throws IOException {
+        ensureEntriesLoaded();
+        return super.onWriteBytes(stream);
+    }
+    @Override
     protected void onPreRefreshRefresh(){
+        ensureEntriesLoaded();
+        if(isOffset16() && !canEncodeOffset16(mEntryArray)){
+            setLayout(false, false);
+        }else if(isSparse() && !canEncodeSparse(mEntryArray)){
+            setLayout(false, false);
+        }
         getHeaderBlock().getConfig().refresh();
         super.onPreRefreshRefresh();
     }
-    /*
-     * method Block.addBytes is inefficient for large size byte array
-     * so let's override here because this block is the largest
-     */
     @Override
     public byte[] getBytes(){
-        ByteArrayOutputStream os=new ByteArrayOutputStream();
-        try {
-            writeBytes(os);
-            os.close();
-        } catch (IOException ignored) {
+        byte[] results = writeBytesToArray();
+        if(results == null){
+            results = new byte[0];
         }
-        return os.toByteArray();
+        return results;
     }
     @Override
     public JSONObject toJson() {
@@ -329,6 +654,49 @@ public class TypeBlock extends Chunk<TypeHeader>
         getResConfig()
                 .fromJson(json.getJSONObject(NAME_config));
     }
+    /**
+     * Streaming version of {@link #toJson()}, entries are written one at a time
+     * */
+    public void writeJson(JSONWriter writer) {
+        writer.object();
+        if(isSparse()){
+            writer.key(NAME_is_sparse).value(true);
+        }
+        writer.key(NAME_id).value(getId());
+        writer.put(NAME_name, getTypeName());
+        writer.key(NAME_config).value(getResConfig().toJson());
+        writer.key(NAME_entries);
+        getEntryArray().writeJson(writer);
+        writer.endObject();
+    }
+    /**
+     * Streaming version of {@link #fromJson(JSONObject)}. Keys may come in any order,
+     * if "is_sparse" differs from the layout this type was created with (e.g. not the
+     * first key), the layout is switched keeping entries already read
+     * */
+    public void readJson(JSONReader reader) {
+        reader.beginObject();
+        while (reader.hasNext()){
+            String key = reader.nextKey();
+            if(NAME_id.equals(key)){
+                setId(reader.nextInt());
+            }else if(NAME_name.equals(key)){
+                String name = reader.nextString();
+                if(name != null){
+                    setTypeName(name);
+                }
+            }else if(NAME_entries.equals(key)){
+                getEntryArray().readJson(reader);
+            }else if(NAME_config.equals(key)){
+                getResConfig().fromJson(reader.nextJSONObject());
+            }else if(NAME_is_sparse.equals(key)){
+                setLayout(reader.nextBoolean(), isOffset16());
+            }else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
     public void merge(TypeBlock typeBlock){
         if(typeBlock==null||typeBlock==this){
             return;
@@ -403,6 +771,20 @@ public class TypeBlock extends Chunk<TypeHeader>
         }
     }
 
+    /**
+     * Minimum api level reading sparse types (FLAG_SPARSE)
+     * */
+    public static final int SDK_SPARSE = 26;
+    /**
+     * Sparse layout is chosen only if less than this percent of entries are present (as aapt2)
+     * */
+    public static final int SPARSE_DENSITY_PERCENT = 60;
+    /**
+     * Minimum api level assumed to read 16-bit entry offsets (FLAG_OFFSET16), chosen
+     * conservatively
+     * */
+    public static final int SDK_OFFSET16 = 35;
+
     public static final String NAME_name = "name";
     public static final String NAME_config = "config";
     public static final String NAME_id = "id";
@@ -54,13 +54,11 @@ public class UnknownChunk extends Chunk<HeaderBlock> implements HeaderBlock.Head
      }
      @Override
      public byte[] getBytes(){
-         ByteArrayOutputStream os=new ByteArrayOutputStream();
-         try {
-             writeBytes(os);
-             os.close();
-         } catch (IOException ignored) {
+         byte[] results = writeBytesToArray();
+         if(results == null){
+             results = new byte[0];
          }
-         return os.toByteArray();
+         return results;
      }
      public int readBytes(File file) throws IOException{
          FileInputStream inputStream=new FileInputStream(file);
@@ -27,6 +27,7 @@ import com.reandroid.arsc.value.ValueType;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONWriter;
 import com.reandroid.xml.XMLDocument;
 import com.reandroid.xml.XMLElement;
 import com.reandroid.xml.XMLFactory;
@@ -198,19 +199,13 @@ public class ResXmlDocument extends Chunk<HeaderBlock>
             element.linkStringReferences();
         }
     }
-    /*
-     * method Block.addBytes is inefficient for large size byte array
-     * so let's override here because this block is the largest
-     */
     @Override
     public byte[] getBytes(){
-        ByteArrayOutputStream os=new ByteArrayOutputStream();
-        try {
-            writeBytes(os);
-            os.close();
-        } catch (IOException ignored) {
+        byte[] results = writeBytesToArray();
+        if(results == null){
+            results = new byte[0];
         }
-        return os.toByteArray();
+        return results;
     }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
@@ -352,7 +347,16 @@ public class ResXmlDocument extends Chunk<HeaderBlock>
 
     }
     public void readBytes(File file) throws IOException{
-        BlockReader reader=new BlockReader(file);
+        readBytes(file, false);
+    }
+    /**
+     * @param memoryMap if true, files of at least 1MB are memory mapped instead of being copied
+     *                  to heap, see {@link BlockReader#BlockReader(File, boolean)}. The file must
+     *                  NOT be modified while this document is in use and on Windows it stays
+     *                  locked until the mapping is collected.
+     * */
+    public void readBytes(File file, boolean memoryMap) throws IOException{
+        BlockReader reader=new BlockReader(file, memoryMap);
         super.readBytes(reader);
     }
     public void readBytes(InputStream inputStream) throws IOException{
@@ -433,6 +437,19 @@ public class ResXmlDocument extends Chunk<HeaderBlock>
         }
         return jsonObject;
     }
+    /**
+     * Streaming version of {@link #toJson()}
+     * */
+    public void writeJson(JSONWriter writer) {
+        writer.object();
+        ResXmlElement xmlElement = getResXmlElement();
+        if(xmlElement != null){
+            writer.key(ResXmlDocument.NAME_element);
+            xmlElement.writeJson(writer);
+        }
+        writer.put(ResXmlDocument.NAME_styled_strings, getStringPool().toJson());
+        writer.endObject();
+    }
     @Override
     public void fromJson(JSONObject json) {
         onFromJson(json);
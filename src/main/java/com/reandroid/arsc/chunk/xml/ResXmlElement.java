@@ -29,6 +29,7 @@ import com.reandroid.arsc.pool.ResXmlStringPool;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONArray;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONWriter;
 import com.reandroid.xml.*;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
@@ -41,7 +42,7 @@ public class ResXmlElement extends ResXmlNode implements JSONConvert<JSONObject>
         Comparator<ResXmlNode> {
     private final BlockList<ResXmlStartNamespace> mStartNamespaceList;
     private final SingleBlockContainer<ResXmlStartElement> mStartElementContainer;
-    private final BlockList<ResXmlNode> mBody;
+    private final ResXmlNodeList mBody;
     private final SingleBlockContainer<ResXmlEndElement> mEndElementContainer;
     private final BlockList<ResXmlEndNamespace> mEndNamespaceList;
     private int mLevel;
@@ -49,7 +50,7 @@ public class ResXmlElement extends ResXmlNode implements JSONConvert<JSONObject>
         super(5);
         this.mStartNamespaceList = new BlockList<>();
         this.mStartElementContainer= new SingleBlockContainer<>();
-        this.mBody = new BlockList<>();
+        this.mBody = new ResXmlNodeList();
         this.mEndElementContainer = new SingleBlockContainer<>();
         this.mEndNamespaceList = new BlockList<>();
         addChild(0, mStartNamespaceList);
@@ -425,7 +426,7 @@ public class ResXmlElement extends ResXmlNode implements JSONConvert<JSONObject>
         if(name==null){
             return null;
         }
-        for(ResXmlElement child:listElements()){
+        for(ResXmlElement child:listElementCandidates(name)){
             if(name.equals(child.getName())
                     || name.equals(child.getName(true))){
                 return child;
@@ -718,7 +719,7 @@ public class ResXmlElement extends ResXmlNode implements JSONConvert<JSONObject>
         if(name==null){
             return results;
         }
-        for(ResXmlElement element:listElements()){
+        for(ResXmlElement element:listElementCandidates(name)){
             if(name.equals(element.getName(false))
                     || name.equals(element.getName(true))){
                 results.add(element);
@@ -726,6 +727,21 @@ public class ResXmlElement extends ResXmlNode implements JSONConvert<JSONObject>
         }
         return results;
     }
+    private List<ResXmlElement> listElementCandidates(String name){
+        if(name.indexOf(':') < 0){
+            List<ResXmlElement> results = mBody.listByName(name);
+            if(results != null){
+                return results;
+            }
+        }
+        return listElements();
+    }
+    void onNameChanged(String oldName){
+        Block parent = getParent();
+        if(parent instanceof ResXmlNodeList){
+            ((ResXmlNodeList) parent).onElementRenamed(this, oldName);
+        }
+    }
     public ResXmlElement getRootResXmlElement(){
         ResXmlElement parent = getParentResXmlElement();
         if(parent != null){
@@ -871,7 +887,11 @@ public class ResXmlElement extends ResXmlNode implements JSONConvert<JSONObject>
         return mStartElementContainer.getItem();
     }
     private void setStartElement(ResXmlStartElement item){
+        String oldName = getName(false);
         mStartElementContainer.setItem(item);
+        if(!Objects.equals(oldName, getName(false))){
+            onNameChanged(oldName);
+        }
     }
 
     private ResXmlEndElement getEndElement(){
@@ -1282,6 +1302,56 @@ public class ResXmlElement extends ResXmlNode implements JSONConvert<JSONObject>
         }
         return jsonObject;
     }
+    /**
+     * Streaming version of {@link #toJson()}, child elements are written one at a time
+     * */
+    public void writeJson(JSONWriter writer) {
+        writer.object();
+        writer.key(NAME_node_type).value(NAME_element);
+        writer.put(NAME_name, getName(false));
+        writer.put(NAME_namespace_uri, getUri());
+        writer.put(NAME_namespace_prefix, getPrefix());
+        int lineStart = getStartLineNumber();
+        int lineEnd = getEndLineNumber();
+        writer.key(NAME_line).value(lineStart);
+        if(lineStart != lineEnd){
+            writer.key(NAME_line_end).value(lineEnd);
+        }
+        JSONArray nsList = new JSONArray();
+        for(ResXmlStartNamespace namespace : getStartNamespaceList()){
+            JSONObject ns=new JSONObject();
+            ns.put(NAME_namespace_uri, namespace.getUri());
+            ns.put(NAME_namespace_prefix, namespace.getPrefix());
+            nsList.put(ns);
+        }
+        if(!nsList.isEmpty()){
+            writer.key(NAME_namespaces).value(nsList);
+        }
+        writer.put(NAME_comment, getStartComment());
+        ResXmlAttributeArray attributeArray = getAttributeArray();
+        if(attributeArray != null){
+            JSONArray attrArray = attributeArray.toJson();
+            if(!attrArray.isEmpty()){
+                writer.key(NAME_attributes).value(attrArray);
+            }
+        }
+        boolean hasChildes = false;
+        for(ResXmlNode xmlNode : getXmlNodes()){
+            if(!hasChildes){
+                writer.key(NAME_childes).array();
+                hasChildes = true;
+            }
+            if(xmlNode instanceof ResXmlElement){
+                ((ResXmlElement) xmlNode).writeJson(writer);
+            }else {
+                writer.value(xmlNode.toJson());
+            }
+        }
+        if(hasChildes){
+            writer.endArray();
+        }
+        writer.endObject();
+    }
     @Override
     public void fromJson(JSONObject json) {
         ensureStartEndElement();
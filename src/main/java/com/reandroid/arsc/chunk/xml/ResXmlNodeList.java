@@ -0,0 +1,111 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.arsc.base.Block;
+import com.reandroid.arsc.container.BlockList;
+
+import java.util.*;
+
+/**
+ * Body of {@link ResXmlElement}, keeps lazily built index of child elements by tag name
+ * for elements having many childes (e.g. application tag of large manifest)
+ * */
+class ResXmlNodeList extends BlockList<ResXmlNode> {
+    private Map<String, List<ResXmlElement>> mNameIndex;
+    ResXmlNodeList(){
+        super();
+    }
+    /**
+     * Returns child elements (in order) whose local tag name equals to the given name,
+     * or null if not indexed. Callers should still check the name
+     * */
+    List<ResXmlElement> listByName(String name){
+        Map<String, List<ResXmlElement>> index = getNameIndex();
+        if(index == null){
+            return null;
+        }
+        List<ResXmlElement> results = index.get(name);
+        if(results == null){
+            return Collections.emptyList();
+        }
+        return results;
+    }
+    void onElementRenamed(ResXmlElement element, String oldName){
+        Map<String, List<ResXmlElement>> index = this.mNameIndex;
+        if(index == null){
+            return;
+        }
+        List<ResXmlElement> oldList = index.get(oldName);
+        int last;
+        if(oldList == null || (last = oldList.size() - 1) < 0
+                || oldList.get(last) != element
+                || element.getIndex() != size() - 1){
+            // renamed element is not the last one, order can not be kept cheaply
+            clearIndex();
+            return;
+        }
+        oldList.remove(last);
+        addToIndex(index, element);
+    }
+    private Map<String, List<ResXmlElement>> getNameIndex(){
+        if(mNameIndex == null && size() >= INDEX_THRESHOLD){
+            Map<String, List<ResXmlElement>> index = new HashMap<>();
+            for(ResXmlNode node : getChildes()){
+                if(node instanceof ResXmlElement){
+                    addToIndex(index, (ResXmlElement) node);
+                }
+            }
+            mNameIndex = index;
+        }
+        return mNameIndex;
+    }
+    private void clearIndex(){
+        mNameIndex = null;
+    }
+    private static void addToIndex(Map<String, List<ResXmlElement>> index, ResXmlElement element){
+        String name = element.getName(false);
+        List<ResXmlElement> list = index.get(name);
+        if(list == null){
+            list = new ArrayList<>(2);
+            index.put(name, list);
+        }
+        list.add(element);
+    }
+    @Override
+    public void add(ResXmlNode item){
+        Map<String, List<ResXmlElement>> index = this.mNameIndex;
+        super.add(item);
+        if(index != null && item instanceof ResXmlElement && item.getParent() == this){
+            addToIndex(index, (ResXmlElement) item);
+            this.mNameIndex = index;
+        }
+    }
+    @Override
+    public void sort(Comparator<ResXmlNode> comparator){
+        super.sort(comparator);
+        clearIndex();
+    }
+    @Override
+    protected boolean onCountChanged(Block child){
+        if(child == null){
+            clearIndex();
+        }
+        return super.onCountChanged(child);
+    }
+
+    private static final int INDEX_THRESHOLD = 16;
+}
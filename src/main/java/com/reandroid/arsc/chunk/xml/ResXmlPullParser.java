@@ -653,7 +653,7 @@ public class ResXmlPullParser implements XmlResourceParser {
         return event;
     }
 
-    private static InputStream getFromLock(Reader reader){
+    static InputStream getFromLock(Reader reader){
         try{
             Field field = Reader.class.getDeclaredField("lock");
             field.setAccessible(true);
@@ -20,6 +20,7 @@ import com.reandroid.arsc.array.ResXmlAttributeArray;
 import com.reandroid.arsc.item.ShortItem;
 
 import java.util.Collection;
+import java.util.Objects;
 
 public class ResXmlStartElement extends BaseXmlChunk {
     private final ShortItem mAttributeStart;
@@ -149,15 +150,10 @@ public class ResXmlStartElement extends BaseXmlChunk {
         }
     }
     public ResXmlAttribute getAttribute(int resourceId){
-        for(ResXmlAttribute attribute:listResXmlAttributes()){
-            if(resourceId==attribute.getNameResourceID()){
-                return attribute;
-            }
-        }
-        return null;
+        return getResXmlAttributeArray().getByNameResourceId(resourceId);
     }
     private ResXmlAttribute getNoIdAttribute(String name){
-        for(ResXmlAttribute attribute:listResXmlAttributes()){
+        for(ResXmlAttribute attribute:getResXmlAttributeArray().listByName(name)){
             if(attribute.getNameResourceID()!=0){
                 continue;
             }
@@ -171,7 +167,7 @@ public class ResXmlStartElement extends BaseXmlChunk {
         if(name==null){
             return null;
         }
-        for(ResXmlAttribute attribute:listResXmlAttributes()){
+        for(ResXmlAttribute attribute:getResXmlAttributeArray().listByName(name)){
             if(attribute.equalsName(name)){
                 if(uri != null){
                     if(uri.equals(attribute.getUri())){
@@ -190,7 +186,7 @@ public class ResXmlStartElement extends BaseXmlChunk {
             return null;
         }
         ResXmlAttribute withIdAttribute = null;
-        for(ResXmlAttribute attribute:listResXmlAttributes()){
+        for(ResXmlAttribute attribute:getResXmlAttributeArray().listByName(name)){
             if(attribute.equalsName(name)){
                 if(attribute.getNameResourceID() != 0){
                     withIdAttribute = attribute;
@@ -205,12 +201,7 @@ public class ResXmlStartElement extends BaseXmlChunk {
         if(resourceId == 0){
             return null;
         }
-        for(ResXmlAttribute attribute:listResXmlAttributes()){
-            if(resourceId == attribute.getNameResourceID()){
-                return attribute;
-            }
-        }
-        return null;
+        return getResXmlAttributeArray().getByNameResourceId(resourceId);
     }
     public String getTagName(){
         return getTagName(true);
@@ -246,6 +237,18 @@ public class ResXmlStartElement extends BaseXmlChunk {
             endElement.setString(name);
         }
     }
+    @Override
+    void setStringReference(int val){
+        if(val == getStringReference()){
+            return;
+        }
+        String oldName = getName();
+        super.setStringReference(val);
+        ResXmlElement element = getParentResXmlElement();
+        if(element != null && !Objects.equals(oldName, getName())){
+            element.onNameChanged(oldName);
+        }
+    }
     public Collection<ResXmlAttribute> listResXmlAttributes(){
         return getResXmlAttributeArray().listItems();
     }
@@ -0,0 +1,993 @@
+ /*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.arsc.chunk.xml;
+
+import android.content.res.XmlResourceParser;
+import com.reandroid.arsc.chunk.ChunkType;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.coder.StringDecoder;
+import com.reandroid.arsc.coder.ValueCoder;
+import com.reandroid.arsc.coder.XmlSanitizer;
+import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.value.AttributeDataFormat;
+import com.reandroid.arsc.value.ValueType;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Streaming binary xml parser, reads one chunk at a time directly from the input stream
+ * and decodes strings and resource ids on demand. Unlike {@link ResXmlPullParser}, neither
+ * {@link ResXmlDocument} nor event list is built, events, names and values are decoded the
+ * same way as {@link ResXmlPullParser}.
+ * */
+public class ResXmlStreamParser implements XmlResourceParser {
+    private PackageBlock mCurrentPackage;
+    private InputStream mInputStream;
+    private int mRemaining;
+
+    private byte[] mStringPool;
+    private String[] mStrings;
+    private int mStringCount;
+    private int mStringsStart;
+    private int mOffsetsStart;
+    private boolean mUtf8;
+    private int[] mResourceIds;
+
+    private byte[] mChunk;
+    private byte[] mPeekChunk;
+    private boolean mHasPeek;
+
+    private int mEvent;
+    private boolean mEventPending;
+    private int mLevel;
+    private int mDepth;
+    private int[] mNamespaces;
+    private int mNamespaceCount;
+    private int[] mNamespaceEnds;
+
+    private boolean processNamespaces;
+    private boolean reportNamespaceAttrs;
+    private boolean mIsTagStared;
+
+    public ResXmlStreamParser(PackageBlock packageBlock){
+        this.mCurrentPackage = packageBlock;
+        this.mEvent = -1;
+        this.mNamespaces = new int[8];
+        this.mNamespaceEnds = new int[16];
+    }
+    public ResXmlStreamParser(){
+        this(null);
+    }
+    public PackageBlock getCurrentPackage(){
+        return mCurrentPackage;
+    }
+    public void setCurrentPackage(PackageBlock packageBlock){
+        this.mCurrentPackage = packageBlock;
+    }
+
+    @Override
+    public void close(){
+        mInputStream = null;
+        mRemaining = 0;
+        mStringPool = null;
+        mStrings = null;
+        mStringCount = 0;
+        mResourceIds = null;
+        mHasPeek = false;
+        mEvent = -1;
+        mEventPending = false;
+        mLevel = 0;
+        mDepth = 0;
+        mNamespaceCount = 0;
+        mIsTagStared = false;
+    }
+    @Override
+    public int getAttributeCount() {
+        if(mEvent != START_TAG){
+            return 0;
+        }
+        int count = getResAttributeCount();
+        if(isCountNamespacesAsAttribute()){
+            count += getNamespaceCountInternal();
+        }
+        return count;
+    }
+    @Override
+    public String getAttributeName(int index) {
+        if(isCountNamespacesAsAttribute()){
+            int nsCount = getNamespaceCountInternal();
+            if(index < nsCount){
+                return "xmlns:" + getNamespacePrefixInternal(index);
+            }
+        }
+        return decodeAttributeName(getAttributeOffset(index));
+    }
+    @Override
+    public String getAttributeValue(int index) {
+        if(isCountNamespacesAsAttribute()){
+            int nsCount = getNamespaceCountInternal();
+            if(index < nsCount){
+                return getNamespaceUriInternal(index);
+            }
+        }
+        return decodeAttributeValue(getAttributeOffset(index));
+    }
+    @Override
+    public String getAttributeValue(String namespace, String name) {
+        return decodeAttributeValue(getAttributeOffset(namespace, name));
+    }
+    @Override
+    public String getPositionDescription() {
+        return null;
+    }
+    @Override
+    public int getAttributeNameResource(int index) {
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return 0;
+        }
+        return getNameResourceId(getInt(mChunk, offset + 4));
+    }
+    @Override
+    public int getAttributeListValue(String namespace, String attribute, String[] options, int defaultValue) {
+        return listValueAt(getAttributeOffset(namespace, attribute), options, defaultValue);
+    }
+    @Override
+    public boolean getAttributeBooleanValue(String namespace, String attribute, boolean defaultValue) {
+        return booleanValueAt(getAttributeOffset(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeResourceValue(String namespace, String attribute, int defaultValue) {
+        return resourceValueAt(getAttributeOffset(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeIntValue(String namespace, String attribute, int defaultValue) {
+        return intValueAt(getAttributeOffset(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeUnsignedIntValue(String namespace, String attribute, int defaultValue) {
+        return unsignedIntValueAt(getAttributeOffset(namespace, attribute), defaultValue);
+    }
+    @Override
+    public float getAttributeFloatValue(String namespace, String attribute, float defaultValue) {
+        return floatValueAt(getAttributeOffset(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeListValue(int index, String[] options, int defaultValue) {
+        return listValueAt(getAttributeOffset(index), options, defaultValue);
+    }
+    @Override
+    public boolean getAttributeBooleanValue(int index, boolean defaultValue) {
+        return booleanValueAt(getAttributeOffset(index), defaultValue);
+    }
+    @Override
+    public int getAttributeResourceValue(int index, int defaultValue) {
+        return resourceValueAt(getAttributeOffset(index), defaultValue);
+    }
+    @Override
+    public int getAttributeIntValue(int index, int defaultValue) {
+        return intValueAt(getAttributeOffset(index), defaultValue);
+    }
+    @Override
+    public int getAttributeUnsignedIntValue(int index, int defaultValue) {
+        return unsignedIntValueAt(getAttributeOffset(index), defaultValue);
+    }
+    @Override
+    public float getAttributeFloatValue(int index, float defaultValue) {
+        return floatValueAt(getAttributeOffset(index), defaultValue);
+    }
+    private int listValueAt(int offset, String[] options, int defaultValue) {
+        if(offset < 0){
+            return defaultValue;
+        }
+        List<String> list = Arrays.asList(options);
+        int index = list.indexOf(decodeAttributeValue(offset));
+        if(index == -1){
+            return defaultValue;
+        }
+        return index;
+    }
+    private boolean booleanValueAt(int offset, boolean defaultValue) {
+        if(offset < 0 || getValueType(offset) != ValueType.BOOLEAN){
+            return defaultValue;
+        }
+        return getData(offset) != 0;
+    }
+    private int resourceValueAt(int offset, int defaultValue) {
+        if(offset < 0){
+            return defaultValue;
+        }
+        ValueType valueType = getValueType(offset);
+        if(valueType == ValueType.ATTRIBUTE
+                || valueType == ValueType.REFERENCE
+                || valueType == ValueType.DYNAMIC_ATTRIBUTE
+                || valueType == ValueType.DYNAMIC_REFERENCE){
+            return getData(offset);
+        }
+        return defaultValue;
+    }
+    private int intValueAt(int offset, int defaultValue) {
+        if(offset < 0){
+            return defaultValue;
+        }
+        ValueType valueType = getValueType(offset);
+        if(valueType == ValueType.DEC || valueType == ValueType.HEX){
+            return getData(offset);
+        }
+        return defaultValue;
+    }
+    private int unsignedIntValueAt(int offset, int defaultValue) {
+        if(offset < 0 || getValueType(offset) != ValueType.DEC){
+            return defaultValue;
+        }
+        return getData(offset);
+    }
+    private float floatValueAt(int offset, float defaultValue) {
+        if(offset < 0 || getValueType(offset) != ValueType.FLOAT){
+            return defaultValue;
+        }
+        return Float.intBitsToFloat(getData(offset));
+    }
+
+    @Override
+    public String getIdAttribute() {
+        return decodeAttributeValue(getSpecialAttributeOffset(14));
+    }
+    @Override
+    public String getClassAttribute() {
+        return decodeAttributeValue(getSpecialAttributeOffset(16));
+    }
+    @Override
+    public int getIdAttributeResourceValue(int defaultValue) {
+        return resourceValueAt(getSpecialAttributeOffset(14), defaultValue);
+    }
+    @Override
+    public int getStyleAttribute() {
+        return resourceValueAt(getSpecialAttributeOffset(18), 0);
+    }
+
+    @Override
+    public void setFeature(String name, boolean state) throws XmlPullParserException {
+        boolean changed;
+        if(FEATURE_PROCESS_NAMESPACES.equals(name)) {
+            changed = processNamespaces != state;
+            processNamespaces = state;
+        }else if(FEATURE_REPORT_NAMESPACE_ATTRIBUTES.equals(name)) {
+            changed = reportNamespaceAttrs != state;
+            reportNamespaceAttrs = state;
+        }else {
+            throw new XmlPullParserException("Unsupported feature: " + name);
+        }
+        if(changed && mIsTagStared){
+            throw new XmlPullParserException("Feature changed during parsing: "
+                    + name + ", state=" + state);
+        }
+    }
+    @Override
+    public boolean getFeature(String name) {
+        if(FEATURE_PROCESS_NAMESPACES.equals(name)) {
+            return processNamespaces;
+        }else if(FEATURE_REPORT_NAMESPACE_ATTRIBUTES.equals(name)) {
+            return reportNamespaceAttrs;
+        }
+        return false;
+    }
+    @Override
+    public void setProperty(String name, Object value) throws XmlPullParserException {
+    }
+    @Override
+    public Object getProperty(String name) {
+        return null;
+    }
+    @Override
+    public void setInput(Reader in) throws XmlPullParserException {
+        InputStream inputStream = ResXmlPullParser.getFromLock(in);
+        if(inputStream == null){
+            throw new XmlPullParserException("Can't parse binary xml from reader");
+        }
+        setInput(inputStream, null);
+    }
+    @Override
+    public void setInput(InputStream inputStream, String inputEncoding) throws XmlPullParserException {
+        close();
+        try {
+            readDocumentStart(inputStream);
+        } catch (IOException exception) {
+            close();
+            XmlPullParserException pullParserException = new XmlPullParserException(exception.getMessage());
+            pullParserException.initCause(exception);
+            throw pullParserException;
+        }
+        processNamespaces = true;
+        reportNamespaceAttrs = true;
+    }
+    @Override
+    public String getInputEncoding() {
+        // Not applicable but let not return null
+        return "UTF-8";
+    }
+    @Override
+    public void defineEntityReplacementText(String entityName, String replacementText) throws XmlPullParserException {
+    }
+    @Override
+    public int getNamespaceCount(int depth) throws XmlPullParserException {
+        if(isCountNamespacesAsAttribute() || !isTagEvent() || depth < 0){
+            return 0;
+        }
+        if(depth > mDepth){
+            depth = mDepth;
+        }
+        return getNamespaceEnd(depth) - getNamespaceStart(depth);
+    }
+    @Override
+    public String getNamespacePrefix(int pos) throws XmlPullParserException {
+        if(!isTagEvent()){
+            return null;
+        }
+        return getNamespacePrefixInternal(pos);
+    }
+    @Override
+    public String getNamespaceUri(int pos) throws XmlPullParserException {
+        if(!isTagEvent()){
+            return null;
+        }
+        return getNamespaceUriInternal(pos);
+    }
+    @Override
+    public String getNamespace(String prefix) {
+        if(!isTagEvent()){
+            return null;
+        }
+        int[] namespaces = this.mNamespaces;
+        for(int i = mNamespaceCount - 1; i >= 0; i--){
+            if(Objects.equals(prefix, getString(namespaces[i * 2]))){
+                return getString(namespaces[i * 2 + 1]);
+            }
+        }
+        return null;
+    }
+    @Override
+    public int getDepth() {
+        int event = mEvent;
+        if(event == START_TAG || event == END_TAG || event == TEXT){
+            return mDepth;
+        }
+        return 0;
+    }
+    @Override
+    public int getLineNumber() {
+        int event = mEvent;
+        if(event == START_TAG || event == END_TAG || event == TEXT || event == COMMENT){
+            return getInt(mChunk, 8);
+        }
+        return 0;
+    }
+    @Override
+    public int getColumnNumber() {
+        return 0;
+    }
+    @Override
+    public boolean isWhitespace() throws XmlPullParserException {
+        String text = getText();
+        if(text == null){
+            return true;
+        }
+        text = text.trim();
+        return text.length() == 0;
+    }
+    @Override
+    public String getText() {
+        int event = mEvent;
+        if(event == COMMENT){
+            return getString(getInt(mChunk, 12));
+        }
+        if(event == START_TAG || event == END_TAG){
+            return getName();
+        }
+        if(event == TEXT){
+            String text = getString(getInt(mChunk, getHeaderSize(mChunk)));
+            if(text == null){
+                text = "";
+            }
+            return XmlSanitizer.escapeSpecialCharacter(text);
+        }
+        return null;
+    }
+    @Override
+    public char[] getTextCharacters(int[] holderForStartAndLength) {
+        String text = getText();
+        if (text == null) {
+            holderForStartAndLength[0] = -1;
+            holderForStartAndLength[1] = -1;
+            return null;
+        }
+        char[] result = text.toCharArray();
+        holderForStartAndLength[0] = 0;
+        holderForStartAndLength[1] = result.length;
+        return result;
+    }
+    @Override
+    public String getNamespace() {
+        if(!isTagEvent()){
+            return null;
+        }
+        return getString(getInt(mChunk, getHeaderSize(mChunk)));
+    }
+    @Override
+    public String getName() {
+        if(!isTagEvent()){
+            return null;
+        }
+        return getString(getInt(mChunk, getHeaderSize(mChunk) + 4));
+    }
+    @Override
+    public String getPrefix() {
+        if(!isTagEvent()){
+            return null;
+        }
+        return getPrefixOfUri(getInt(mChunk, getHeaderSize(mChunk)));
+    }
+    @Override
+    public boolean isEmptyElementTag() throws XmlPullParserException {
+        if(mEvent != START_TAG){
+            return true;
+        }
+        if(getResAttributeCount() != 0){
+            return false;
+        }
+        try {
+            return peekChunkType() == ChunkType.XML_END_ELEMENT.ID;
+        } catch (IOException exception) {
+            XmlPullParserException pullParserException = new XmlPullParserException(exception.getMessage());
+            pullParserException.initCause(exception);
+            throw pullParserException;
+        }
+    }
+    @Override
+    public String getAttributeNamespace(int index) {
+        if(processNamespaces){
+            return null;
+        }
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return null;
+        }
+        return getString(getInt(mChunk, offset));
+    }
+    @Override
+    public String getAttributePrefix(int index) {
+        if(processNamespaces){
+            return null;
+        }
+        int offset = getAttributeOffset(index);
+        if(offset < 0){
+            return null;
+        }
+        return getPrefixOfUri(getInt(mChunk, offset));
+    }
+    @Override
+    public String getAttributeType(int index) {
+        return "CDATA";
+    }
+    @Override
+    public boolean isAttributeDefault(int index) {
+        return false;
+    }
+    @Override
+    public int getEventType() throws XmlPullParserException {
+        return mEvent;
+    }
+    @Override
+    public int next() throws XmlPullParserException, IOException {
+        int event = nextEvent();
+        mEvent = event;
+        if(event == START_TAG){
+            mIsTagStared = true;
+        }
+        return event;
+    }
+    @Override
+    public int nextToken() throws XmlPullParserException, IOException {
+        return next();
+    }
+    @Override
+    public void require(int type, String namespace, String name) throws XmlPullParserException, IOException {
+        if (type != this.getEventType()
+                || (namespace != null && !namespace.equals(getNamespace()))
+                || (name != null && !name.equals(getName()))) {
+            throw new XmlPullParserException(
+                    "expected: " + TYPES[type] + " {" + namespace + "}" + name, this, null);
+        }
+    }
+    @Override
+    public String nextText() throws XmlPullParserException, IOException {
+        int event = getEventType();
+        if (event != START_TAG) {
+            throw new XmlPullParserException("precondition: START_TAG", this, null);
+        }
+        while (event!=TEXT && event!=END_TAG && event!=END_DOCUMENT){
+            event=next();
+        }
+        if(event==TEXT){
+            return getText();
+        }
+        return "";
+    }
+    @Override
+    public int nextTag() throws XmlPullParserException, IOException {
+        int event = getEventType();
+        if (event != START_TAG) {
+            throw new XmlPullParserException("precondition: START_TAG", this, null);
+        }
+        event = next();
+        while (event!=START_TAG && event!=END_DOCUMENT){
+            event=next();
+        }
+        return event;
+    }
+
+    private int nextEvent() throws IOException {
+        int event = mEvent;
+        if(event == END_DOCUMENT || mInputStream == null){
+            return event;
+        }
+        if(event == -1){
+            return START_DOCUMENT;
+        }
+        if(mEventPending){
+            mEventPending = false;
+            return getChunkEvent();
+        }
+        while (nextChunk()){
+            int type = getShort(mChunk, 0);
+            if(type == ChunkType.XML_START_NAMESPACE.ID){
+                pushNamespace();
+            }else if(type == ChunkType.XML_END_NAMESPACE.ID){
+                if(mNamespaceCount > 0){
+                    mNamespaceCount--;
+                }
+            }else if(type == ChunkType.XML_START_ELEMENT.ID){
+                int level = mLevel;
+                if(level == mNamespaceEnds.length){
+                    mNamespaceEnds = Arrays.copyOf(mNamespaceEnds, level * 2);
+                }
+                mNamespaceEnds[level] = mNamespaceCount;
+                mDepth = level;
+                mLevel = level + 1;
+                return commentOrEvent();
+            }else if(type == ChunkType.XML_END_ELEMENT.ID){
+                if(mLevel > 0){
+                    mLevel--;
+                }
+                mDepth = mLevel;
+                return commentOrEvent();
+            }else if(type == ChunkType.XML_CDATA.ID){
+                mDepth = mLevel;
+                return commentOrEvent();
+            }
+        }
+        return END_DOCUMENT;
+    }
+    private int commentOrEvent(){
+        if(getString(getInt(mChunk, 12)) != null){
+            mEventPending = true;
+            return COMMENT;
+        }
+        return getChunkEvent();
+    }
+    private int getChunkEvent(){
+        int type = getShort(mChunk, 0);
+        if(type == ChunkType.XML_START_ELEMENT.ID){
+            return START_TAG;
+        }
+        if(type == ChunkType.XML_END_ELEMENT.ID){
+            return END_TAG;
+        }
+        return TEXT;
+    }
+    private void pushNamespace(){
+        int[] namespaces = this.mNamespaces;
+        int index = mNamespaceCount * 2;
+        if(index == namespaces.length){
+            namespaces = Arrays.copyOf(namespaces, index * 2);
+            this.mNamespaces = namespaces;
+        }
+        byte[] chunk = this.mChunk;
+        int ext = getHeaderSize(chunk);
+        namespaces[index] = getInt(chunk, ext);
+        namespaces[index + 1] = getInt(chunk, ext + 4);
+        mNamespaceCount++;
+    }
+    private boolean isTagEvent(){
+        return mEvent == START_TAG || mEvent == END_TAG;
+    }
+    private boolean isCountNamespacesAsAttribute(){
+        return processNamespaces & reportNamespaceAttrs;
+    }
+    private int getNamespaceStart(int depth){
+        if(depth == 0){
+            return 0;
+        }
+        return mNamespaceEnds[depth - 1];
+    }
+    private int getNamespaceEnd(int depth){
+        return mNamespaceEnds[depth];
+    }
+    private int getNamespaceCountInternal(){
+        if(!isTagEvent()){
+            return 0;
+        }
+        return getNamespaceEnd(mDepth) - getNamespaceStart(mDepth);
+    }
+    private String getNamespacePrefixInternal(int pos){
+        return getString(mNamespaces[(getNamespaceStart(mDepth) + pos) * 2]);
+    }
+    private String getNamespaceUriInternal(int pos){
+        return getString(mNamespaces[(getNamespaceStart(mDepth) + pos) * 2 + 1]);
+    }
+    private String getPrefixOfUri(int uriReference){
+        if(uriReference < 0){
+            return null;
+        }
+        int[] namespaces = this.mNamespaces;
+        for(int i = mNamespaceCount - 1; i >= 0; i--){
+            if(namespaces[i * 2 + 1] == uriReference){
+                return getString(namespaces[i * 2]);
+            }
+        }
+        String uri = getString(uriReference);
+        for(int i = mNamespaceCount - 1; i >= 0; i--){
+            if(Objects.equals(uri, getString(namespaces[i * 2 + 1]))){
+                return getString(namespaces[i * 2]);
+            }
+        }
+        return null;
+    }
+
+    private int getResAttributeCount(){
+        byte[] chunk = this.mChunk;
+        return getShort(chunk, getHeaderSize(chunk) + 12);
+    }
+    private int getAttributeOffset(int index){
+        if(mEvent != START_TAG){
+            return -1;
+        }
+        if(isCountNamespacesAsAttribute()){
+            index = index - getNamespaceCountInternal();
+        }
+        return getResAttributeOffset(index);
+    }
+    private int getResAttributeOffset(int index){
+        byte[] chunk = this.mChunk;
+        int ext = getHeaderSize(chunk);
+        if(index < 0 || index >= getShort(chunk, ext + 12)){
+            return -1;
+        }
+        int offset = ext + getShort(chunk, ext + 8) + index * getShort(chunk, ext + 10);
+        if(offset + ATTRIBUTE_SIZE > getInt(chunk, 4)){
+            return -1;
+        }
+        return offset;
+    }
+    private int getAttributeOffset(String namespace, String name){
+        if(mEvent != START_TAG){
+            return -1;
+        }
+        byte[] chunk = this.mChunk;
+        int count = getResAttributeCount();
+        for(int i = 0; i < count; i++){
+            int offset = getResAttributeOffset(i);
+            if(offset < 0){
+                break;
+            }
+            if(Objects.equals(name, getString(getInt(chunk, offset + 4)))
+                    && Objects.equals(namespace, getString(getInt(chunk, offset)))){
+                return offset;
+            }
+        }
+        return -1;
+    }
+    private int getSpecialAttributeOffset(int position){
+        if(mEvent != START_TAG){
+            return -1;
+        }
+        byte[] chunk = this.mChunk;
+        return getResAttributeOffset(getShort(chunk, getHeaderSize(chunk) + position) - 1);
+    }
+    private ValueType getValueType(int offset){
+        return ValueType.valueOf(mChunk[offset + 15]);
+    }
+    private int getData(int offset){
+        return getInt(mChunk, offset + 16);
+    }
+    private String decodeAttributeName(int offset){
+        if(offset < 0){
+            return null;
+        }
+        byte[] chunk = this.mChunk;
+        int nameReference = getInt(chunk, offset + 4);
+        int resourceId = getNameResourceId(nameReference);
+        if(resourceId == 0){
+            return getString(nameReference);
+        }
+        String name;
+        ResourceEntry resourceEntry = resolve(resourceId);
+        if(resourceEntry == null || !resourceEntry.isDeclared()){
+            name = ValueCoder.decodeUnknownNameId(resourceId);
+        }else {
+            name = resourceEntry.getName();
+        }
+        if(processNamespaces && name != null){
+            String prefix = getPrefixOfUri(getInt(chunk, offset));
+            if(prefix != null){
+                name = prefix + ":" + name;
+            }
+        }
+        return name;
+    }
+    private String decodeAttributeValue(int offset){
+        if(offset < 0){
+            return null;
+        }
+        ValueType valueType = getValueType(offset);
+        if(valueType == null){
+            return null;
+        }
+        int data = getData(offset);
+        String value = null;
+        if(AttributeDataFormat.INTEGER.contains(valueType)){
+            int nameId = getNameResourceId(getInt(mChunk, offset + 4));
+            ResourceEntry attr = nameId != 0 ? resolve(nameId) : null;
+            if(attr != null){
+                value = attr.decodeAttributeData(data);
+            }
+        }
+        if(value != null){
+            return value;
+        }
+        if(valueType.isReference()){
+            return decodeReference(valueType, data);
+        }
+        if(valueType == ValueType.STRING){
+            return XmlSanitizer.escapeSpecialCharacter(getString(data));
+        }
+        return ValueCoder.decode(valueType, data);
+    }
+    private String decodeReference(ValueType valueType, int data){
+        if(data == 0){
+            if(valueType == ValueType.ATTRIBUTE){
+                return "?null";
+            }
+            return "@null";
+        }
+        ResourceEntry resourceEntry = resolve(data);
+        if(resourceEntry == null || !resourceEntry.isDeclared()){
+            return ValueCoder.decodeUnknownResourceId(valueType.isReference(), data);
+        }
+        return resourceEntry.buildReference(mCurrentPackage, valueType);
+    }
+    private ResourceEntry resolve(int resourceId){
+        PackageBlock packageBlock = this.mCurrentPackage;
+        if(packageBlock == null){
+            return null;
+        }
+        TableBlock tableBlock = packageBlock.getTableBlock();
+        if(tableBlock == null){
+            return null;
+        }
+        return tableBlock.getResource(packageBlock, resourceId);
+    }
+    private int getNameResourceId(int nameReference){
+        int[] resourceIds = this.mResourceIds;
+        if(resourceIds == null || nameReference < 0 || nameReference >= resourceIds.length){
+            return 0;
+        }
+        return resourceIds[nameReference];
+    }
+
+    private String getString(int index){
+        if(index < 0 || index >= mStringCount){
+            return null;
+        }
+        String[] strings = this.mStrings;
+        String str = strings[index];
+        if(str == null){
+            str = decodeString(index);
+            strings[index] = str;
+        }
+        return str;
+    }
+    private String decodeString(int index){
+        byte[] pool = this.mStringPool;
+        int length = pool.length;
+        int offset = mStringsStart + getInt(pool, mOffsetsStart + index * 4);
+        if(offset < 0 || offset + 2 > length){
+            return null;
+        }
+        int size;
+        if(mUtf8){
+            offset += (pool[offset] & 0x80) != 0 ? 2 : 1;
+            if(offset + 2 > length){
+                return null;
+            }
+            size = pool[offset] & 0xff;
+            offset++;
+            if((size & 0x80) != 0){
+                size = ((size & 0x7f) << 8) | (pool[offset] & 0xff);
+                offset++;
+            }
+            return StringDecoder.decodeUtf8(pool, offset, Math.min(size, length - offset));
+        }
+        size = getShort(pool, offset);
+        offset += 2;
+        if((size & 0x8000) != 0){
+            if(offset + 2 > length){
+                return null;
+            }
+            size = ((size & 0x7fff) << 16) | getShort(pool, offset);
+            offset += 2;
+        }
+        return StringDecoder.decodeUtf16(pool, offset, Math.min(size * 2, length - offset));
+    }
+
+    private void readDocumentStart(InputStream inputStream) throws IOException {
+        byte[] header = new byte[8];
+        readFully(inputStream, header, 0, 8);
+        int type = getShort(header, 0);
+        if(type != ChunkType.XML.ID){
+            throw new IOException("Not binary xml, chunk type = " + String.format("0x%04x", type));
+        }
+        int headerSize = getShort(header, 2);
+        int chunkSize = getInt(header, 4);
+        if(headerSize < 8 || chunkSize < headerSize){
+            throw new IOException("Invalid xml chunk, header = " + headerSize + ", size = " + chunkSize);
+        }
+        skipFully(inputStream, headerSize - 8);
+        this.mInputStream = inputStream;
+        this.mRemaining = chunkSize - headerSize;
+        while (nextChunk()){
+            byte[] chunk = this.mChunk;
+            type = getShort(chunk, 0);
+            if(type == ChunkType.STRING.ID){
+                initStringPool(chunk);
+                this.mChunk = null;
+            }else if(type == ChunkType.XML_RESOURCE_MAP.ID){
+                initResourceIds(chunk);
+            }else if(type >= ChunkType.XML_START_NAMESPACE.ID
+                    && type <= ChunkType.XML_CDATA.ID){
+                this.mChunk = this.mPeekChunk;
+                this.mPeekChunk = chunk;
+                this.mHasPeek = true;
+                break;
+            }
+        }
+    }
+    private void initStringPool(byte[] pool){
+        int headerSize = getShort(pool, 2);
+        int count = getInt(pool, 8);
+        int max = (pool.length - headerSize) / 4;
+        if(count < 0 || count > max){
+            count = max;
+        }
+        this.mStringPool = pool;
+        this.mStringCount = count;
+        this.mStrings = new String[count];
+        this.mUtf8 = (getInt(pool, 16) & FLAG_UTF8) != 0;
+        this.mStringsStart = getInt(pool, 20);
+        this.mOffsetsStart = headerSize;
+    }
+    private void initResourceIds(byte[] chunk){
+        int headerSize = getShort(chunk, 2);
+        int count = (getInt(chunk, 4) - headerSize) / 4;
+        int[] resourceIds = new int[Math.max(count, 0)];
+        for(int i = 0; i < count; i++){
+            resourceIds[i] = getInt(chunk, headerSize + i * 4);
+        }
+        this.mResourceIds = resourceIds;
+    }
+    private boolean nextChunk() throws IOException {
+        if(mHasPeek){
+            byte[] chunk = this.mChunk;
+            this.mChunk = this.mPeekChunk;
+            this.mPeekChunk = chunk;
+            this.mHasPeek = false;
+            return true;
+        }
+        byte[] chunk = readChunk(this.mChunk);
+        if(chunk == null){
+            return false;
+        }
+        this.mChunk = chunk;
+        return true;
+    }
+    private int peekChunkType() throws IOException {
+        if(!mHasPeek){
+            byte[] chunk = readChunk(this.mPeekChunk);
+            if(chunk == null){
+                return -1;
+            }
+            this.mPeekChunk = chunk;
+            this.mHasPeek = true;
+        }
+        return getShort(mPeekChunk, 0);
+    }
+    /**
+     * Reads the next chunk into the given buffer, returns the same buffer unless it is not
+     * big enough for the chunk or null at end of document
+     * */
+    private byte[] readChunk(byte[] buffer) throws IOException {
+        InputStream inputStream = this.mInputStream;
+        if(inputStream == null || mRemaining < 8){
+            return null;
+        }
+        if(buffer == null || buffer.length < 8){
+            buffer = new byte[8];
+        }
+        readFully(inputStream, buffer, 0, 8);
+        int size = getInt(buffer, 4);
+        if(size < 8 || size > mRemaining){
+            throw new IOException("Invalid chunk size = " + size + ", remaining = " + mRemaining);
+        }
+        if(size > buffer.length){
+            byte[] update = new byte[size];
+            System.arraycopy(buffer, 0, update, 0, 8);
+            buffer = update;
+        }
+        readFully(inputStream, buffer, 8, size - 8);
+        mRemaining -= size;
+        return buffer;
+    }
+    private static void readFully(InputStream inputStream, byte[] buffer, int offset, int length) throws IOException {
+        while (length > 0){
+            int read = inputStream.read(buffer, offset, length);
+            if(read < 0){
+                throw new IOException("Unexpected end of stream, remaining = " + length);
+            }
+            offset += read;
+            length -= read;
+        }
+    }
+    private static void skipFully(InputStream inputStream, int length) throws IOException {
+        while (length > 0){
+            if(inputStream.read() < 0){
+                throw new IOException("Unexpected end of stream");
+            }
+            length--;
+        }
+    }
+    private static int getHeaderSize(byte[] chunk){
+        return getShort(chunk, 2);
+    }
+    private static int getShort(byte[] bytes, int offset){
+        return (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8);
+    }
+    private static int getInt(byte[] bytes, int offset){
+        return (bytes[offset] & 0xff)
+                | ((bytes[offset + 1] & 0xff) << 8)
+                | ((bytes[offset + 2] & 0xff) << 16)
+                | ((bytes[offset + 3] & 0xff) << 24);
+    }
+
+    private static final int ATTRIBUTE_SIZE = 20;
+    private static final int FLAG_UTF8 = 0x0100;
+}
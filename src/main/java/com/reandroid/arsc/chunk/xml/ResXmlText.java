@@ -40,6 +40,8 @@ public class ResXmlText extends BaseXmlChunk {
     }
     public void setTextReference(int ref){
         setNamespaceReference(ref);
+        // null text makes this chunk null
+        notifyCountChanged();
     }
     public void setText(String text){
         ResXmlStringPool stringPool=getStringPool();
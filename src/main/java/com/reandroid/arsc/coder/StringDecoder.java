@@ -0,0 +1,192 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.coder;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Stateless (thus thread-safe) decoder of string pool bytes, works directly on the
+ * backing bytes without intermediate buffers.
+ * The results are the same as strict UTF-8/UTF-16LE CharsetDecoder, falling back to
+ * three byte (modified) UTF-8 as {@link ThreeByteCharsetDecoder} and finally to
+ * {@link String} constructor replacing malformed input.
+ * */
+public class StringDecoder {
+
+    public static String decodeUtf8(byte[] bytes, int offset, int length){
+        int end = offset + length;
+        int i = offset;
+        while (i < end && bytes[i] >= 0){
+            i++;
+        }
+        if(i == end){
+            return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[length];
+        int count = decodeUtf8(bytes, offset, i, end, chars);
+        if(count < 0){
+            count = decodeThreeByte(bytes, offset, i, end, chars);
+        }
+        if(count < 0){
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+        return new String(chars, 0, count);
+    }
+    public static String decodeUtf16(byte[] bytes, int offset, int length){
+        if((length & 1) != 0){
+            return new String(bytes, offset, length, StandardCharsets.UTF_16LE);
+        }
+        int count = length / 2;
+        char[] chars = new char[count];
+        int position = offset;
+        for(int i = 0; i < count; i++){
+            chars[i] = (char) ((bytes[position] & 0xff) | ((bytes[position + 1] & 0xff) << 8));
+            position += 2;
+        }
+        if(!isValidUtf16(chars)){
+            return new String(bytes, offset, length, StandardCharsets.UTF_16LE);
+        }
+        return new String(chars);
+    }
+    // returns -1 for malformed input
+    private static int decodeUtf8(byte[] bytes, int offset, int position, int end, char[] chars){
+        int count = copyAscii(bytes, offset, position, chars);
+        while (position < end){
+            int b1 = bytes[position];
+            if(b1 >= 0){
+                chars[count++] = (char) b1;
+                position ++;
+                continue;
+            }
+            b1 = b1 & 0xff;
+            if(b1 < 0xc2){
+                return -1;
+            }
+            if(b1 < 0xe0){
+                if(end - position < 2){
+                    return -1;
+                }
+                int b2 = bytes[position + 1];
+                if(isNotContinuation(b2)){
+                    return -1;
+                }
+                chars[count++] = (char) (((b1 & 0x1f) << 6) | (b2 & 0x3f));
+                position += 2;
+                continue;
+            }
+            if(b1 < 0xf0){
+                if(end - position < 3){
+                    return -1;
+                }
+                int b2 = bytes[position + 1] & 0xff;
+                int b3 = bytes[position + 2];
+                if(isNotContinuation(b2) || isNotContinuation(b3)){
+                    return -1;
+                }
+                if(b1 == 0xe0 && b2 < 0xa0){
+                    return -1;
+                }
+                char c = (char) (((b1 & 0x0f) << 12) | ((b2 & 0x3f) << 6) | (b3 & 0x3f));
+                if(Character.isSurrogate(c)){
+                    return -1;
+                }
+                chars[count++] = c;
+                position += 3;
+                continue;
+            }
+            if(b1 > 0xf4 || end - position < 4){
+                return -1;
+            }
+            int b2 = bytes[position + 1] & 0xff;
+            int b3 = bytes[position + 2];
+            int b4 = bytes[position + 3];
+            if(isNotContinuation(b2) || isNotContinuation(b3) || isNotContinuation(b4)){
+                return -1;
+            }
+            if((b1 == 0xf0 && b2 < 0x90) || (b1 == 0xf4 && b2 > 0x8f)){
+                return -1;
+            }
+            int codePoint = ((b1 & 0x07) << 18) | ((b2 & 0x3f) << 12)
+                    | ((b3 & 0x3f) << 6) | (b4 & 0x3f);
+            chars[count++] = Character.highSurrogate(codePoint);
+            chars[count++] = Character.lowSurrogate(codePoint);
+            position += 4;
+        }
+        return count;
+    }
+    // Same rules as ThreeByteCharsetDecoder, returns -1 for malformed input
+    private static int decodeThreeByte(byte[] bytes, int offset, int position, int end, char[] chars){
+        int count = copyAscii(bytes, offset, position, chars);
+        while (position < end){
+            int b1 = bytes[position];
+            if(b1 >= 0){
+                chars[count++] = (char) b1;
+                position ++;
+                continue;
+            }
+            if(b1 >> 5 == -2 && (b1 & 0x1e) != 0){
+                if(end - position < 2){
+                    return -1;
+                }
+                int b2 = bytes[position + 1];
+                if(isNotContinuation(b2)){
+                    return -1;
+                }
+                chars[count++] = (char) (b1 << 6 ^ b2 ^ 0x0f80);
+                position += 2;
+                continue;
+            }
+            if(b1 >> 4 != -2 || end - position < 3){
+                return -1;
+            }
+            int b2 = bytes[position + 1];
+            int b3 = bytes[position + 2];
+            if((b1 == -32 && (b2 & 0xe0) == 0x80) || isNotContinuation(b2) || isNotContinuation(b3)){
+                return -1;
+            }
+            chars[count++] = (char) (b1 << 12 ^ b2 << 6 ^ b3 ^ 0xfffe1f80);
+            position += 3;
+        }
+        return count;
+    }
+    private static int copyAscii(byte[] bytes, int offset, int position, char[] chars){
+        int count = position - offset;
+        for(int i = 0; i < count; i++){
+            chars[i] = (char) bytes[offset + i];
+        }
+        return count;
+    }
+    private static boolean isNotContinuation(int b){
+        return (b & 0xc0) != 0x80;
+    }
+    private static boolean isValidUtf16(char[] chars){
+        int length = chars.length;
+        for(int i = 0; i < length; i++){
+            char c = chars[i];
+            if(!Character.isSurrogate(c)){
+                continue;
+            }
+            if(Character.isLowSurrogate(c)){
+                return false;
+            }
+            i++;
+            if(i == length || !Character.isLowSurrogate(chars[i])){
+                return false;
+            }
+        }
+        return true;
+    }
+}
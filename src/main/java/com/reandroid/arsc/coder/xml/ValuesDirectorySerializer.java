@@ -42,11 +42,15 @@ public class ValuesDirectorySerializer implements ValuesSerializerFactory{
         serializer.endDocument();
         serializer.flush();
         IOUtil.close(serializer);
-        File file = serializerFileMap.remove(serializer);
-        if (writtenEntries == 0 && file != null && file.isFile()){
-            file.delete();
-            File dir = file.getParentFile();
-            FileUtil.deleteEmptyDirectory(dir);
+        // Directories are shared between types, create/delete them under lock
+        // to allow concurrent decoding of different types
+        synchronized (serializerFileMap){
+            File file = serializerFileMap.remove(serializer);
+            if (writtenEntries == 0 && file != null && file.isFile()){
+                file.delete();
+                File dir = file.getParentFile();
+                FileUtil.deleteEmptyDirectory(dir);
+            }
         }
     }
     @Override
@@ -62,8 +66,11 @@ public class ValuesDirectorySerializer implements ValuesSerializerFactory{
         }
         name = name + ".xml";
         File file = new File(dir, name);
-        XmlSerializer serializer = XMLFactory.newSerializer(file);
-        serializerFileMap.put(serializer, file);
+        XmlSerializer serializer;
+        synchronized (serializerFileMap){
+            serializer = XMLFactory.newSerializer(file);
+            serializerFileMap.put(serializer, file);
+        }
         serializer.startDocument("utf-8", null);
         XmlDecodeUtil.rootIndent(serializer);
         serializer.startTag(null, PackageBlock.TAG_resources);
@@ -34,8 +34,10 @@ import org.xmlpull.v1.XmlSerializer;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 
@@ -101,15 +103,26 @@ public class XmlCoder {
             for (SpecTypePair specTypePair : specs){
                 Set<ResConfig> configs = specTypePair.listResConfig();
                 for(ResConfig resConfig : configs){
-                    TypeBlock typeBlock = specTypePair.getTypeBlock(resConfig);
-                    logVerbose("Decoding", packageBlock.getName()
-                            + ":" + typeBlock.getTypeName() + resConfig.getQualifiers());
-                    XmlSerializer serializer = serializerFactory.createSerializer(typeBlock);
-                    int entriesCount = decode(serializer, specTypePair, resConfig, decodedEntries);
-                    serializerFactory.onFinish(serializer, entriesCount);
+                    decodeType(serializerFactory, specTypePair, resConfig, decodedEntries);
                 }
             }
         }
+        /**
+         * Decodes single values file of the given type and config, does not modify the table
+         * thus can be called concurrently for different types/configs once
+         * {@link PackageBlock#sortTypes()} is done.
+         * */
+        public void decodeType(ValuesSerializerFactory serializerFactory,
+                               SpecTypePair specTypePair,
+                               ResConfig resConfig,
+                               Predicate<Entry> decodedEntries) throws IOException {
+            TypeBlock typeBlock = specTypePair.getTypeBlock(resConfig);
+            logVerbose("Decoding", specTypePair.getPackageBlock().getName()
+                    + ":" + typeBlock.getTypeName() + resConfig.getQualifiers());
+            XmlSerializer serializer = serializerFactory.createSerializer(typeBlock);
+            int entriesCount = decode(serializer, specTypePair, resConfig, decodedEntries);
+            serializerFactory.onFinish(serializer, entriesCount);
+        }
         public int decode(XmlSerializer serializer,
                            SpecTypePair specTypePair,
                            ResConfig resConfig,
@@ -207,6 +220,37 @@ public class XmlCoder {
             encode(parser, typeBlock);
         }
         public void encode(XmlPullParser parser, TypeBlock typeBlock) throws IOException, XmlPullParserException {
+            startEntries(parser);
+            while (XMLUtil.ensureStartTag(parser) == XmlPullParser.START_TAG){
+                XMLElement element = XMLElement.parseElement(parser);
+                encodeEntry(element, typeBlock);
+            }
+            IOUtil.close(parser);
+        }
+        /**
+         * Parses entry elements of values xml file without touching any table, thus
+         * independent files can be parsed concurrently and encoded later in order
+         * by {@link #encode(File, List, PackageBlock)}
+         * */
+        public List<XMLElement> parseEntries(File valuesXmlFile) throws IOException, XmlPullParserException {
+            XmlPullParser parser = XMLFactory.newPullParser(valuesXmlFile);
+            startEntries(parser);
+            List<XMLElement> results = new ArrayList<>();
+            while (XMLUtil.ensureStartTag(parser) == XmlPullParser.START_TAG){
+                results.add(XMLElement.parseElement(parser));
+            }
+            IOUtil.close(parser);
+            return results;
+        }
+        public void encode(File valuesXmlFile, List<XMLElement> entries, PackageBlock packageBlock) throws IOException {
+            TypeBlock typeBlock = packageBlock.getOrCreateTypeBlock(
+                    XmlEncodeUtil.getQualifiersFromValuesXml(valuesXmlFile),
+                    XmlEncodeUtil.getTypeFromValuesXml(valuesXmlFile));
+            for(XMLElement element : entries){
+                encodeEntry(element, typeBlock);
+            }
+        }
+        private void startEntries(XmlPullParser parser) throws IOException, XmlPullParserException {
             int event = parser.getEventType();
             boolean documentStarted = false;
             if(event == XmlPullParser.START_DOCUMENT){
@@ -223,11 +267,6 @@ public class XmlCoder {
             }else if(documentStarted){
                 throw new XmlEncodeException("Expecting <resources> tag but found: " + parser.getName());
             }
-            while (XMLUtil.ensureStartTag(parser) == XmlPullParser.START_TAG){
-                XMLElement element = XMLElement.parseElement(parser);
-                encodeEntry(element, typeBlock);
-            }
-            IOUtil.close(parser);
         }
         public void encodeEntry(XMLElement entryElement, TypeBlock typeBlock) throws IOException{
             Entry entry = typeBlock.getOrCreateDefinedEntry(
@@ -31,6 +31,7 @@ import java.util.function.Predicate;
 
 public class BlockList<T extends Block> extends Block {
     private final List<T> mItems;
+    private int mCachedCount = -1;
     public BlockList(){
         super();
         mItems=new ArrayList<>();
@@ -56,6 +57,7 @@ public class BlockList<T extends Block> extends Block {
             item.setParent(null);
             item.setIndex(-1);
         }
+        notifyCountChanged();
         return mItems.remove(item);
     }
     public void add(int index, T item){
@@ -95,40 +97,78 @@ public class BlockList<T extends Block> extends Block {
         return mItems;
     }
     public final void refresh(){
+        refresh(false);
+    }
+    /**
+     * See {@link BlockContainer#refresh(boolean)}
+     * */
+    public final void refresh(boolean incremental){
         if(isNull()){
             return;
         }
-        refreshChildes();
+        if(incremental && !isRefreshPending()){
+            return;
+        }
+        refreshChildes(incremental);
+        if(!hasRefreshPendingChildes()){
+            markRefreshed();
+        }
     }
-    private void refreshChildes(){
+    private boolean hasRefreshPendingChildes(){
+        for(T item:getChildes()){
+            if((item instanceof BlockContainer || item instanceof BlockList)
+                    && item.isRefreshPending()){
+                return true;
+            }
+        }
+        return false;
+    }
+    private void refreshChildes(boolean incremental){
         for(T item:getChildes()){
             if(item instanceof BlockContainer){
                 BlockContainer<?> container=(BlockContainer<?>)item;
-                container.refresh();
+                container.refresh(incremental);
             }else if(item instanceof BlockList){
                 BlockList<?> blockList=(BlockList<?>)item;
-                blockList.refresh();
+                blockList.refresh(incremental);
             }
         }
     }
     @Override
-    public byte[] getBytes() {
-        byte[] results=null;
-        for(T item:mItems){
-            if(item!=null){
-                results=addBytes(results, item.getBytes());
-            }
+    protected void clearChildesRefreshPending(){
+        for(T item:getChildes()){
+            clearRefreshPending(item);
         }
-        return results;
+    }
+    @Override
+    public byte[] getBytes() {
+        return writeBytesToArray();
     }
     @Override
     public int countBytes() {
-        int result=0;
+        int result = this.mCachedCount;
+        if(result >= 0){
+            return result;
+        }
+        result = 0;
         for(T item:mItems){
             result+=item.countBytes();
         }
+        this.mCachedCount = result;
         return result;
     }
+    @Override
+    protected boolean onCountChanged(Block child){
+        int count = this.mCachedCount;
+        if(count == COUNT_CLEARED){
+            return false;
+        }
+        // never counted (e.g. countBytes overridden by subclass) keeps notifying parents
+        if(count >= 0){
+            this.mCachedCount = COUNT_CLEARED;
+        }
+        return true;
+    }
 
     @Override
     public void onCountUpTo(BlockCounter counter) {
@@ -161,4 +201,6 @@ public class BlockList<T extends Block> extends Block {
             item.readBytes(reader);
         }
     }
+
+    private static final int COUNT_CLEARED = -2;
 }
@@ -116,7 +116,7 @@ public class PackageBody extends FixedBlockContainer {
     private void readTypeBlock(BlockReader reader) throws IOException{
         TypeHeader typeHeader = reader.readTypeHeader();
         SpecTypePair specTypePair = mSpecTypePairArray.getOrCreate(typeHeader.getId().get());
-        TypeBlock typeBlock = specTypePair.getTypeBlockArray().createNext(typeHeader.isSparse());
+        TypeBlock typeBlock = specTypePair.getTypeBlockArray().createNext(typeHeader.isSparse(), typeHeader.isOffset16());
         typeBlock.readBytes(reader);
     }
     private void readLibraryBlock(BlockReader reader) throws IOException{
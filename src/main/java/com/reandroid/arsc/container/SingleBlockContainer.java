@@ -29,14 +29,25 @@ public class SingleBlockContainer<T extends Block> extends BlockContainer<T> {
         super();
     }
     @Override
-    protected void refreshChildes(){
+    protected void refreshChildes(boolean incremental){
         if(mItem!=null){
             if(mItem instanceof BlockContainer){
-                ((BlockContainer)mItem).refresh();
+                ((BlockContainer)mItem).refresh(incremental);
             }
         }
     }
     @Override
+    protected boolean hasRefreshPendingChildes(){
+        T item = mItem;
+        return item instanceof BlockContainer && item.isRefreshPending();
+    }
+    @Override
+    protected void clearChildesRefreshPending(){
+        if(mItem!=null){
+            clearRefreshPending(mItem);
+        }
+    }
+    @Override
     protected void onRefreshed() {
 
     }
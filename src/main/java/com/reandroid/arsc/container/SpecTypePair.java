@@ -16,6 +16,7 @@
 package com.reandroid.arsc.container;
 
 import com.reandroid.arsc.chunk.*;
+import com.reandroid.arsc.array.EntryArray;
 import com.reandroid.arsc.array.TypeBlockArray;
 import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.base.BlockContainer;
@@ -33,6 +34,7 @@ import com.reandroid.arsc.value.Entry;
 import com.reandroid.arsc.value.ResConfig;
 import com.reandroid.json.JSONConvert;
 import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONWriter;
 import org.xmlpull.v1.XmlSerializer;
 
 import java.io.IOException;
@@ -45,6 +47,9 @@ public class SpecTypePair extends BlockContainer<Block>
     private final Block[] mChildes;
     private final SpecBlock mSpecBlock;
     private final TypeBlockArray mTypeBlockArray;
+    private PackageBlock mPackageBlock;
+    // entry id -> (index of first type having the entry) + 1, negative if only null entries
+    private volatile int[] mEntryIndex;
 
     public SpecTypePair(SpecBlock specBlock, TypeBlockArray typeBlockArray){
         this.mSpecBlock = specBlock;
@@ -185,6 +190,24 @@ public class SpecTypePair extends BlockContainer<Block>
         getTypeBlockArray().destroy();
     }
     public Entry getAnyEntry(short entryId){
+        int[] entryIndex = getEntryIndex();
+        if(entryIndex != null){
+            int id = entryId & 0xffff;
+            if(id >= entryIndex.length){
+                return null;
+            }
+            int index = entryIndex[id];
+            if(index == 0){
+                return null;
+            }
+            if(index < 0){
+                index = -index;
+            }
+            TypeBlock typeBlock = getTypeBlockArray().get(index - 1);
+            if(typeBlock != null){
+                return typeBlock.getEntry(id);
+            }
+        }
         Entry result = null;
         TypeBlock[] types = getTypeBlockArray().getChildes();
         for(int i = 0; i < types.length; i++){
@@ -312,7 +335,18 @@ public class SpecTypePair extends BlockContainer<Block>
         return mTypeBlockArray;
     }
     public PackageBlock getPackageBlock(){
-        return getParent(PackageBlock.class);
+        PackageBlock packageBlock = this.mPackageBlock;
+        // parent chain: SpecTypePairArray -> PackageBody -> PackageBlock
+        Block parent = getParent();
+        if(parent != null){
+            Block body = parent.getParent();
+            if(packageBlock != null && body != null && body.getParent() == packageBlock){
+                return packageBlock;
+            }
+        }
+        packageBlock = getParent(PackageBlock.class);
+        this.mPackageBlock = packageBlock;
+        return packageBlock;
     }
     public List<Entry> listEntries(int entryId){
         List<Entry> results=new ArrayList<>();
@@ -343,6 +377,74 @@ public class SpecTypePair extends BlockContainer<Block>
         return getTypeBlockArray().listItems();
     }
 
+    /**
+     * Returns index of entry ids, or null if any of types might have changed since last
+     * refresh (or load). Changes reach this block through notifyCountChanged only while
+     * it is not pending refresh, thus the index is cleared and bypassed otherwise
+     * */
+    private int[] getEntryIndex(){
+        if(isRefreshPending()){
+            return null;
+        }
+        int[] entryIndex = this.mEntryIndex;
+        if(entryIndex != null){
+            return entryIndex;
+        }
+        synchronized (this){
+            entryIndex = this.mEntryIndex;
+            if(entryIndex == null){
+                entryIndex = buildEntryIndex();
+                if(isRefreshPending()){
+                    return null;
+                }
+                this.mEntryIndex = entryIndex;
+            }
+            return entryIndex;
+        }
+    }
+    private int[] buildEntryIndex(){
+        TypeBlock[] types = getTypeBlockArray().getChildes();
+        int length = 0;
+        for(TypeBlock typeBlock : types){
+            if(typeBlock != null){
+                length = Math.max(length, typeBlock.getEntryArray().getHighestEntryId() + 1);
+            }
+        }
+        int[] entryIndex = new int[length];
+        for(int i = 0; i < types.length; i++){
+            TypeBlock typeBlock = types[i];
+            if(typeBlock == null){
+                continue;
+            }
+            EntryArray entryArray = typeBlock.getEntryArray();
+            Entry[] entries = entryArray.getChildes();
+            for(int j = 0; j < entries.length; j++){
+                Entry entry = entries[j];
+                if(entry == null){
+                    continue;
+                }
+                int id = entryArray.getEntryId(j);
+                if(id < 0 || id >= length){
+                    continue;
+                }
+                int index = entryIndex[id];
+                if(index > 0){
+                    continue;
+                }
+                if(!entry.isNull()){
+                    entryIndex[id] = i + 1;
+                }else if(index == 0){
+                    entryIndex[id] = -(i + 1);
+                }
+            }
+        }
+        return entryIndex;
+    }
+    @Override
+    protected boolean onCountChanged(Block child){
+        this.mEntryIndex = null;
+        return super.onCountChanged(child);
+    }
     @Override
     protected void onRefreshed() {
 
@@ -374,7 +476,7 @@ public class SpecTypePair extends BlockContainer<Block>
     }
     private void readTypeBlock(BlockReader reader) throws IOException {
         TypeHeader typeHeader = reader.readTypeHeader();
-        TypeBlock typeBlock = mTypeBlockArray.createNext(typeHeader.isSparse());
+        TypeBlock typeBlock = mTypeBlockArray.createNext(typeHeader.isSparse(), typeHeader.isOffset16());
         typeBlock.readBytes(reader);
     }
     private void readUnexpectedNonSpecBlock(BlockReader reader, HeaderBlock headerBlock) throws IOException{
@@ -426,6 +528,16 @@ public class SpecTypePair extends BlockContainer<Block>
         }
         return jsonObject;
     }
+    /**
+     * Streaming version of {@link #toJson()}
+     * */
+    public void writeJson(JSONWriter writer) {
+        writer.object();
+        writer.key(SpecBlock.NAME_spec).value(getSpecBlock().toJson());
+        writer.key(NAME_types);
+        getTypeBlockArray().writeJson(writer);
+        writer.endObject();
+    }
     public void merge(SpecTypePair typePair){
         if(typePair==null||typePair==this){
             return;
@@ -174,7 +174,7 @@ public class HeaderBlock extends ExpandableBlockContainer implements BlockLoad {
         // Not required, the parent should call refreshHeader()
     }
     @Override
-    protected void refreshChildes(){
+    protected void refreshChildes(boolean incremental){
         // Not required
     }
     void initExtraBytes(ByteArray extraBytes, int difference){
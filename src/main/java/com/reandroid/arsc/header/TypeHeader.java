@@ -56,6 +56,21 @@ public class TypeHeader extends HeaderBlock{
         }
         getFlags().set(flag);
     }
+    /**
+     * Entry offsets are 16-bit (offset / 4, 0xffff for no entry), see FLAG_OFFSET16 of ResTable_type
+     * */
+    public boolean isOffset16(){
+        return (getFlags().get() & FLAG_OFFSET16) == FLAG_OFFSET16;
+    }
+    public void setOffset16(boolean offset16){
+        byte flag = getFlags().get();
+        if(offset16){
+            flag = (byte) (flag | FLAG_OFFSET16);
+        }else {
+            flag = (byte) (flag & (~FLAG_OFFSET16 & 0xff));
+        }
+        getFlags().set(flag);
+    }
 
     @Override
     public int getMinimumSize(){
@@ -91,6 +106,7 @@ public class TypeHeader extends HeaderBlock{
     }
 
     private static final byte FLAG_SPARSE = 0x1;
+    private static final byte FLAG_OFFSET16 = 0x2;
 
     //typeHeader.countBytes() - getConfig().countBytes() + ResConfig.SIZE_16
     private static final int TYPE_MIN_SIZE = 36;
@@ -20,11 +20,16 @@ import com.reandroid.arsc.header.SpecHeader;
 import com.reandroid.arsc.header.TypeHeader;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 
 public class BlockReader extends InputStream {
     private final Object mLock=new Object();
     private byte[] BUFFER;
+    private ByteBuffer mByteBuffer;
     private final int mStart;
     private final int mLength;
     private int mPosition;
@@ -39,14 +44,44 @@ public class BlockReader extends InputStream {
     public BlockReader(byte[] buffer) {
         this(buffer, 0, buffer.length);
     }
+    private BlockReader(ByteBuffer byteBuffer, int start, int length) {
+        if(byteBuffer.hasArray()){
+            this.BUFFER = byteBuffer.array();
+            start = start + byteBuffer.arrayOffset();
+        }else {
+            this.mByteBuffer = byteBuffer;
+        }
+        this.mStart = start;
+        this.mLength = length;
+        this.mPosition = 0;
+    }
+    /**
+     * Reads directly from the given buffer (e.g. a {@link MappedByteBuffer}) without
+     * copying its content to heap, bytes between buffer's position and limit are used.
+     * For mapped buffers the underlying file must not be modified while this reader
+     * (or any block lazily reading from it) is in use.
+     * */
+    public BlockReader(ByteBuffer byteBuffer) {
+        this(byteBuffer.slice(), 0, byteBuffer.remaining());
+    }
     public BlockReader(InputStream in) throws IOException {
-        this(loadBuffer(in));
+        this(loadByteBuffer(in));
     }
     public BlockReader(InputStream in, int length) throws IOException {
         this(loadBuffer(in, length));
     }
     public BlockReader(File file) throws IOException {
-        this(loadBuffer(file));
+        this(file, false);
+    }
+    /**
+     * @param memoryMap if true, files of at least MAP_THRESHOLD bytes are memory mapped
+     *                  instead of being copied to heap. The mapping is held as long as this
+     *                  reader (or any block lazily reading from it) is in use, the file must
+     *                  NOT be modified meanwhile and on Windows it remains locked until the
+     *                  mapping is garbage collected.
+     * */
+    public BlockReader(File file, boolean memoryMap) throws IOException {
+        this(loadByteBuffer(file, memoryMap));
     }
     public int readUnsignedShort() throws IOException {
         return 0x0000ffff & readShort();
@@ -97,7 +132,7 @@ public class BlockReader extends InputStream {
             int max=available()/4;
             for(int i=0;i<max;i++){
                 int pos=actPos+(i*4);
-                int valCur=toInt(BUFFER, pos);
+                int valCur=toInt(pos);
                 if(valCur==value){
                     return pos-mStart;
                 }
@@ -105,11 +140,27 @@ public class BlockReader extends InputStream {
             return -1;
         }
     }
-    private int toInt(byte[] bts, int offset){
-        return bts[offset] & 0xff |
-                (bts[offset+1] & 0xff) << 8 |
-                (bts[offset+2] & 0xff) << 16 |
-                (bts[offset+3] & 0xff) << 24;
+    private int toInt(int offset){
+        return getByte(offset) & 0xff |
+                (getByte(offset+1) & 0xff) << 8 |
+                (getByte(offset+2) & 0xff) << 16 |
+                (getByte(offset+3) & 0xff) << 24;
+    }
+    private byte getByte(int offset){
+        ByteBuffer byteBuffer = this.mByteBuffer;
+        if(byteBuffer != null){
+            return byteBuffer.get(offset);
+        }
+        return BUFFER[offset];
+    }
+    private void copyBytes(int offset, byte[] bts, int start, int length){
+        ByteBuffer byteBuffer = this.mByteBuffer;
+        if(byteBuffer == null){
+            System.arraycopy(BUFFER, offset, bts, start, length);
+            return;
+        }
+        byteBuffer.position(offset);
+        byteBuffer.get(bts, start, length);
     }
     private short toShort(byte[] bts, int offset){
         return (short) (bts[offset] & 0xff |
@@ -117,14 +168,16 @@ public class BlockReader extends InputStream {
     }
     public byte[] getBytes(){
         int len = length();
-        if(this.BUFFER.length == len){
+        if(this.BUFFER != null && this.BUFFER.length == len){
             return BUFFER;
         }
         byte[] bytes = new byte[len];
         if(len==0){
             return bytes;
         }
-        System.arraycopy(BUFFER, mStart, bytes, 0, len);
+        synchronized (mLock){
+            copyBytes(mStart, bytes, 0, len);
+        }
         return bytes;
     }
     public BlockReader create(int len){
@@ -136,6 +189,10 @@ public class BlockReader extends InputStream {
             len = this.mLength - start;
         }
         start = start + this.mStart;
+        ByteBuffer byteBuffer = this.mByteBuffer;
+        if(byteBuffer != null){
+            return new BlockReader(byteBuffer.duplicate(), start, len);
+        }
         return new BlockReader(BUFFER, start, len);
     }
     public boolean isAvailable(){
@@ -193,6 +250,22 @@ public class BlockReader extends InputStream {
         return readFully(bts, 0, length);
     }
 
+    /**
+     * Reads bytes at the given position (relative to this reader) without moving
+     * the current position, safe to call concurrently
+     * */
+    public void readFully(int position, byte[] bts, int start, int length) throws IOException {
+        if(mIsClosed){
+            throw new IOException("Stream is closed");
+        }
+        if(position < 0 || position + length > mLength){
+            throw new EOFException("Out of range: position=" + position
+                    + ", length=" + length + ", available=" + mLength);
+        }
+        synchronized (mLock){
+            copyBytes(mStart + position, bts, start, length);
+        }
+    }
     public int readFully(byte[] bts, int start, int length) throws IOException {
         if(length==0){
             return 0;
@@ -208,17 +281,69 @@ public class BlockReader extends InputStream {
             len=length;
         }
         synchronized (mLock){
-            int actPos=mStart+mPosition;
-            int i;
-            for(i=0;i<len;i++){
-                bts[start+i] = BUFFER[actPos+i];
-                mPosition++;
-                if(mPosition>=mLength){
-                    i++;
-                    break;
-                }
+            int avail=mLength-mPosition;
+            if(len>avail){
+                len=avail;
             }
-            return i;
+            copyBytes(mStart+mPosition, bts, start, len);
+            mPosition+=len;
+            return len;
+        }
+    }
+    /**
+     * Reads little-endian integers directly to values, returns number of integers read.
+     * Like {@link #readFully(byte[])} reading stops at the end of available bytes.
+     * */
+    public int readIntegers(int[] values, int start, int length) throws IOException {
+        if(length==0){
+            return 0;
+        }
+        if(mIsClosed){
+            throw new IOException("Stream is closed");
+        }
+        if(mPosition>=mLength){
+            throw new EOFException("Finished reading: "+mPosition);
+        }
+        synchronized (mLock){
+            int avail = (mLength - mPosition) / 4;
+            if(length > avail){
+                length = avail;
+            }
+            int offset = mStart + mPosition;
+            for(int i = 0; i < length; i++){
+                values[start + i] = toInt(offset);
+                offset += 4;
+            }
+            mPosition += length * 4;
+            return length;
+        }
+    }
+    /**
+     * Reads up to length (max 8) bytes as little-endian value without allocating,
+     * same as {@link #readFully(byte[])} missing bytes at the end are left as zero
+     * */
+    public long readLittleEndian(int length) throws IOException {
+        if(length == 0){
+            return 0;
+        }
+        if(mIsClosed){
+            throw new IOException("Stream is closed");
+        }
+        if(mPosition>=mLength){
+            throw new EOFException("Finished reading: "+mPosition);
+        }
+        synchronized (mLock){
+            int avail = mLength - mPosition;
+            if(length > avail){
+                length = avail;
+            }
+            int offset = mStart + mPosition;
+            long result = 0;
+            for(int i = length - 1; i >= 0; i--){
+                result = (result << 8) | (getByte(offset + i) & 0xff);
+            }
+            mPosition += length;
+            return result;
         }
     }
     public int getPosition(){
@@ -241,7 +366,7 @@ public class BlockReader extends InputStream {
         }
         synchronized (mLock){
             int actPos=mStart+i;
-            int val=BUFFER[actPos] & 0xff;
+            int val=getByte(actPos) & 0xff;
             mPosition++;
             return val;
         }
@@ -265,6 +390,7 @@ public class BlockReader extends InputStream {
     public void close(){
         mIsClosed=true;
         BUFFER=null;
+        mByteBuffer=null;
         mMark=0;
     }
     @Override
@@ -297,12 +423,48 @@ public class BlockReader extends InputStream {
     }
 
 
-    private static byte[] loadBuffer(File file) throws IOException {
-        FileInputStream in=new FileInputStream(file);
-        byte[] result = loadBuffer(in);
+    private static ByteBuffer loadByteBuffer(File file, boolean memoryMap) throws IOException {
+        FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        ByteBuffer result = loadByteBuffer(fileChannel, 0, memoryMap);
+        fileChannel.close();
+        return result;
+    }
+    private static ByteBuffer loadByteBuffer(InputStream in) throws IOException {
+        if(!(in instanceof FileInputStream)){
+            return ByteBuffer.wrap(loadBuffer(in));
+        }
+        FileChannel fileChannel = ((FileInputStream) in).getChannel();
+        ByteBuffer result = loadByteBuffer(fileChannel, fileChannel.position(), false);
         in.close();
         return result;
     }
+    /**
+     * If memoryMap is true, files larger than MAP_THRESHOLD are memory mapped, the mapping
+     * stays valid after the channel is closed and the content is paged in on demand instead
+     * of being copied to heap. Otherwise the file is read into exact sized array.
+     * */
+    private static ByteBuffer loadByteBuffer(FileChannel fileChannel, long offset, boolean memoryMap) throws IOException {
+        long length = fileChannel.size() - offset;
+        if(length < 0){
+            length = 0;
+        }
+        if(length > Integer.MAX_VALUE){
+            throw new IOException("File too large to read: " + length);
+        }
+        if(memoryMap && length >= MAP_THRESHOLD){
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+        byte[] bytes = new byte[(int) length];
+        ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+        while (byteBuffer.hasRemaining()){
+            int read = fileChannel.read(byteBuffer, offset + byteBuffer.position());
+            if(read < 0){
+                throw new EOFException("Read length is less than expected: length="
+                        + length + ", read=" + byteBuffer.position());
+            }
+        }
+        return ByteBuffer.wrap(bytes);
+    }
     private static byte[] loadBuffer(InputStream in) throws IOException {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         byte[] buff=new byte[40960];
@@ -338,5 +500,5 @@ public class BlockReader extends InputStream {
         return InfoHeader.readHeaderBlock(bytes);
     }
 
-    private static final int MAX_FILE_SIZE = 1024 * 1000 * 40;
+    private static final int MAP_THRESHOLD = 1024 * 1000;
 }
@@ -18,7 +18,8 @@ package com.reandroid.arsc.item;
 
  import com.reandroid.utils.HexUtil;
 
- public class ByteItem extends BlockItem {
+ public class ByteItem extends PrimitiveItem {
+    private byte mCache;
     public ByteItem() {
         super(1);
     }
@@ -40,10 +41,10 @@ package com.reandroid.arsc.item;
         set((byte) val);
     }
     public void set(byte b){
-        getBytesInternal()[0]=b;
+        mCache = b;
     }
     public byte get(){
-        return getBytesInternal()[0];
+        return mCache;
     }
     public int unsignedInt(){
         return 0xff & get();
@@ -52,6 +53,14 @@ package com.reandroid.arsc.item;
         return HexUtil.toHex2(get());
     }
     @Override
+    long getLongValue(){
+        return mCache;
+    }
+    @Override
+    void setLongValue(long value){
+        mCache = (byte) value;
+    }
+    @Override
     public String toString(){
         return String.valueOf(get());
     }
@@ -15,18 +15,29 @@
   */
 package com.reandroid.arsc.item;
 
+import com.reandroid.arsc.io.BlockReader;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Values are held on int[] and encoded to little-endian bytes only on write
+ * */
 public class IntegerArray extends BlockItem {
+    private int[] mValues;
+    private int mSize;
     public IntegerArray() {
         super(0);
+        this.mValues = EMPTY_VALUES;
     }
     public final boolean contains(int value){
         int s=size();
         for(int i=0;i<s;i++){
-            if(value==get(i)){
+            if(value==getAt(i)){
                 return true;
             }
         }
@@ -47,9 +58,7 @@ public class IntegerArray extends BlockItem {
         int old=size();
         int s=old+values.length;
         setSize(s);
-        for(int i=0;i<s;i++){
-            put(old+i, values[i]);
-        }
+        System.arraycopy(values, 0, mValues, old, values.length);
     }
     public final void set(int[] values){
         if(values==null || values.length==0){
@@ -58,9 +67,7 @@ public class IntegerArray extends BlockItem {
         }
         int s=values.length;
         setSize(s);
-        for(int i=0;i<s;i++){
-            put(i, values[i]);
-        }
+        System.arraycopy(values, 0, mValues, 0, s);
     }
     public final List<Integer> toList(){
         return new AbstractList<Integer>() {
@@ -78,7 +85,7 @@ public class IntegerArray extends BlockItem {
         int s=size();
         int[] result=new int[s];
         for(int i=0;i<s;i++){
-            result[i]=get(i);
+            result[i]=getAt(i);
         }
         return result;
     }
@@ -95,45 +102,104 @@ public class IntegerArray extends BlockItem {
         }
         setSize(s);
     }
-    public final void setSize(int s){
+    public void setSize(int s){
         if(s<0){
             s=0;
         }
-        int len=s*4;
-        setBytesLength(len);
+        int old=mSize;
+        if(s==old){
+            return;
+        }
+        int[] values=mValues;
+        if(s>values.length){
+            int length=s;
+            if(old!=0){
+                length=Math.max(s, old + (old >> 1));
+            }
+            int[] update=new int[length];
+            System.arraycopy(values, 0, update, 0, old);
+            mValues=update;
+        }else if(s<old){
+            // keep released slots zero, same as freshly allocated
+            Arrays.fill(values, s, old, 0);
+        }
+        mSize=s;
+        notifyCountChanged();
+        onBytesChanged();
     }
     public Integer get(int index){
         if(index<0 || index>=size()){
             return null;
         }
-        int i=index*4;
-        byte[] bts = getBytesInternal();
-        return bts[i] & 0xff |
-                (bts[i+1] & 0xff) << 8 |
-                (bts[i+2] & 0xff) << 16 |
-                (bts[i+3] & 0xff) << 24;
+        return getAt(index);
     }
     public int getAt(int index){
-        int i=index*4;
-        byte[] bts = getBytesInternal();
-        return bts[i] & 0xff |
-                (bts[i+1] & 0xff) << 8 |
-                (bts[i+2] & 0xff) << 16 |
-                (bts[i+3] & 0xff) << 24;
-    }
-    public final int size(){
-        return getBytesLength()/4;
-    }
-    public final void put(int index, int value){
-        int i=index*4;
-        byte[] bts = getBytesInternal();
-        bts[i+3]= (byte) (value >>> 24 & 0xff);
-        bts[i+2]= (byte) (value >>> 16 & 0xff);
-        bts[i+1]= (byte) (value >>> 8 & 0xff);
-        bts[i]= (byte) (value & 0xff);
+        return mValues[index];
+    }
+    public int size(){
+        return mSize;
+    }
+    public void put(int index, int value){
+        if(index<0 || index>=mSize){
+            throw new IndexOutOfBoundsException("Index = " + index + ", size = " + mSize);
+        }
+        mValues[index]=value;
+    }
+
+    @Override
+    public int countBytes() {
+        if(isNull()){
+            return 0;
+        }
+        return size()*4;
+    }
+    @Override
+    public byte[] getBytes() {
+        if(isNull()){
+            return null;
+        }
+        int[] values=mValues;
+        int s=mSize;
+        byte[] bts=new byte[s*4];
+        for(int i=0;i<s;i++){
+            putInteger(bts, i*4, values[i]);
+        }
+        return bts;
+    }
+    @Override
+    public void onReadBytes(BlockReader reader) throws IOException {
+        reader.readIntegers(mValues, 0, mSize);
+        onBytesChanged();
+    }
+    @Override
+    protected int onWriteBytes(OutputStream stream) throws IOException {
+        byte[] bts=getBytes();
+        stream.write(bts);
+        return bts.length;
+    }
+    @Override
+    public int readBytes(InputStream inputStream) throws IOException {
+        int s=mSize;
+        int[] values=mValues;
+        for(int i=0;i<s;i++){
+            int value=0;
+            for(int shift=0;shift<32;shift+=8){
+                int read=inputStream.read();
+                if(read<0){
+                    break;
+                }
+                value=value|(read<<shift);
+            }
+            values[i]=value;
+        }
+        onBytesChanged();
+        super.notifyBlockLoad();
+        return s*4;
     }
     @Override
     public String toString(){
         return "size="+size();
     }
+
+    private static final int[] EMPTY_VALUES = new int[0];
 }
@@ -22,7 +22,7 @@ import com.reandroid.utils.HexUtil;
 import java.io.IOException;
 import java.io.InputStream;
 
-public class IntegerItem extends BlockItem implements ReferenceItem{
+public class IntegerItem extends PrimitiveItem implements ReferenceItem{
     private int mCache;
     public IntegerItem(){
         super(4);
@@ -37,11 +37,6 @@ public class IntegerItem extends BlockItem implements ReferenceItem{
             return;
         }
         mCache=val;
-        byte[] bts = getBytesInternal();
-        bts[3]= (byte) (val >>> 24 & 0xff);
-        bts[2]= (byte) (val >>> 16 & 0xff);
-        bts[1]= (byte) (val >>> 8 & 0xff);
-        bts[0]= (byte) (val & 0xff);
     }
     @Override
     public int get(){
@@ -58,16 +53,12 @@ public class IntegerItem extends BlockItem implements ReferenceItem{
         return HexUtil.toHex8(get());
     }
     @Override
-    protected void onBytesChanged() {
-        // To save cpu usage, better to calculate once only when bytes changed
-        mCache=readIntBytes();
+    long getLongValue(){
+        return mCache;
     }
-    private int readIntBytes(){
-        byte[] bts = getBytesInternal();
-        return bts[0] & 0xff |
-                (bts[1] & 0xff) << 8 |
-                (bts[2] & 0xff) << 16 |
-                (bts[3] & 0xff) << 24;
+    @Override
+    void setLongValue(long value){
+        mCache = (int) value;
     }
     @Override
     public String toString(){
@@ -17,7 +17,7 @@ package com.reandroid.arsc.item;
 
 import com.reandroid.utils.HexUtil;
 
-public class LongItem extends BlockItem{
+public class LongItem extends PrimitiveItem {
     private long mCache;
     public LongItem() {
         super(8);
@@ -27,7 +27,6 @@ public class LongItem extends BlockItem{
             return;
         }
         mCache = value;
-        putLong(getBytesInternal(), 0, value);
     }
     public long get(){
         return mCache;
@@ -37,8 +36,12 @@ public class LongItem extends BlockItem{
     }
 
     @Override
-    protected void onBytesChanged() {
-        mCache = getLong(getBytesInternal(), 0);
+    long getLongValue(){
+        return mCache;
+    }
+    @Override
+    void setLongValue(long value){
+        mCache = value;
     }
     @Override
     public String toString(){
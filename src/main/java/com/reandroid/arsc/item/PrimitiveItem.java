@@ -0,0 +1,92 @@
+/*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.arsc.item;
+
+import com.reandroid.arsc.io.BlockReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Fixed size little-endian number item, the value lives only on a primitive field
+ * thus no backing byte array is allocated per item.
+ * */
+public abstract class PrimitiveItem extends BlockItem {
+    private final int mSize;
+    PrimitiveItem(int size){
+        super(0);
+        this.mSize = size;
+    }
+    abstract long getLongValue();
+    /**
+     * Sets value from reading, implementations should not notify any change
+     * */
+    abstract void setLongValue(long value);
+
+    @Override
+    public int countBytes() {
+        if(isNull()){
+            return 0;
+        }
+        return mSize;
+    }
+    @Override
+    public byte[] getBytes() {
+        if(isNull()){
+            return null;
+        }
+        int size = this.mSize;
+        byte[] bts = new byte[size];
+        long value = getLongValue();
+        for(int i = 0; i < size; i++){
+            bts[i] = (byte) (value & 0xff);
+            value = value >>> 8;
+        }
+        return bts;
+    }
+    @Override
+    public void onReadBytes(BlockReader reader) throws IOException{
+        setLongValue(reader.readLittleEndian(mSize));
+        onBytesChanged();
+    }
+    @Override
+    protected int onWriteBytes(OutputStream stream) throws IOException {
+        int size = this.mSize;
+        long value = getLongValue();
+        for(int i = 0; i < size; i++){
+            stream.write((int) (value & 0xff));
+            value = value >>> 8;
+        }
+        return size;
+    }
+    @Override
+    public int readBytes(InputStream inputStream) throws IOException {
+        int size = this.mSize;
+        long value = 0;
+        for(int i = 0; i < size; i++){
+            int read = inputStream.read();
+            if(read < 0){
+                break;
+            }
+            value = value | ((long) read << (i * 8));
+        }
+        setLongValue(value);
+        onBytesChanged();
+        super.notifyBlockLoad();
+        return size;
+    }
+}
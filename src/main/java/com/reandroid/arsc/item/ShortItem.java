@@ -21,7 +21,7 @@ import com.reandroid.utils.HexUtil;
 import java.io.IOException;
 import java.io.InputStream;
 
-public class ShortItem extends BlockItem {
+public class ShortItem extends PrimitiveItem {
     private short mCache;
 
     public ShortItem(){
@@ -36,9 +36,6 @@ public class ShortItem extends BlockItem {
             return;
         }
         mCache=val;
-        byte[] bts = getBytesInternal();
-        bts[1]= (byte) (val >>> 8 & 0xff);
-        bts[0]= (byte) (val & 0xff);
     }
     public short get(){
         return mCache;
@@ -50,13 +47,12 @@ public class ShortItem extends BlockItem {
         return HexUtil.toHex4(get());
     }
     @Override
-    protected void onBytesChanged() {
-        // To save cpu usage, better to calculate once only when bytes changed
-        mCache=readShortBytes();
+    long getLongValue(){
+        return mCache;
     }
-    private short readShortBytes(){
-        byte[] bts = getBytesInternal();
-        return (short) (bts[0] & 0xff | (bts[1] & 0xff) << 8);
+    @Override
+    void setLongValue(long value){
+        mCache = (short) value;
     }
     @Override
     public String toString(){
@@ -23,10 +23,11 @@ public class SpecFlag extends IndirectItem<SpecFlagsArray> {
         super(specFlagsArray, offset);
     }
     public byte getFlagByte(){
-        return getBlockItem().getBytesInternal()[getOffset() + OFFSET_FLAG];
+        return (byte) (getInteger() >>> SHIFT_FLAG);
     }
     public void setFlagByte(byte flag){
-        getBlockItem().getBytesInternal()[getOffset() + OFFSET_FLAG] = flag;
+        int value = (getInteger() & ~MASK_FLAG) | ((flag & 0xff) << SHIFT_FLAG);
+        getBlockItem().put(getOffset() / 4, value);
     }
     public void addFlagByte(byte flag){
         flag = (byte) ((getFlagByte() & 0xff) | (flag & 0xff));
@@ -42,13 +43,13 @@ public class SpecFlag extends IndirectItem<SpecFlagsArray> {
         return SpecBlock.Flag.isPublic(getFlagByte());
     }
     public int getInteger(){
-        return BlockItem.getInteger(this.getBlockItem().getBytesInternal(), this.getOffset());
+        return this.getBlockItem().getAt(this.getOffset() / 4);
     }
     public void setInteger(int value){
         if(value == getInteger()){
             return;
         }
-        BlockItem.putInteger(this.getBlockItem().getBytesInternal(), this.getOffset(), value);
+        this.getBlockItem().put(this.getOffset() / 4, value);
         this.getBlockItem().onBytesChanged();
     }
     @Override
@@ -64,6 +65,7 @@ public class SpecFlag extends IndirectItem<SpecFlagsArray> {
         return "";
     }
 
-    private static final int OFFSET_FLAG = 3;
+    private static final int SHIFT_FLAG = 24;
+    private static final int MASK_FLAG = 0xff << SHIFT_FLAG;
 
 }
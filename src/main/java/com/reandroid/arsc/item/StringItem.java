@@ -15,8 +15,9 @@
   */
 package com.reandroid.arsc.item;
 
+import com.reandroid.arsc.array.StringArray;
 import com.reandroid.arsc.base.Block;
-import com.reandroid.arsc.coder.ThreeByteCharsetDecoder;
+import com.reandroid.arsc.coder.StringDecoder;
 import com.reandroid.arsc.coder.XmlSanitizer;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.pool.StringPool;
@@ -29,10 +30,7 @@ import org.xmlpull.v1.XmlSerializer;
 
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.CharsetDecoder;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.Function;
@@ -41,12 +39,19 @@ import java.util.function.Predicate;
 public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Comparable<StringItem> {
     private String mCache;
     private boolean mUtf8;
-    private final Set<ReferenceItem> mReferencedList;
+    /**
+     * Users of this string: null, a single ReferenceItem, a null-terminated ReferenceItem[]
+     * up to MAX_REFERENCE_ARRAY or a Set for heavily referenced strings. Most strings have
+     * one or few users, this avoids allocating hash set per string.
+     * */
+    private Object mReferences;
     private StyleItem mStyleToRemove;
+    private volatile BlockReader mLazyReader;
+    private int mLazyPosition;
+    private int mLazyLength;
     public StringItem(boolean utf8) {
         super(0);
         this.mUtf8=utf8;
-        this.mReferencedList = new HashSet<>();
     }
     public<T extends Block> Iterator<T> getUsers(Class<T> parentClass){
         return getUsers(parentClass, null);
@@ -72,21 +77,69 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
     }
 
     public boolean removeReference(ReferenceItem ref){
-        return mReferencedList.remove(ref);
+        if(ref == null){
+            return false;
+        }
+        Object references = this.mReferences;
+        if(references == null){
+            return false;
+        }
+        if(references instanceof ReferenceItem){
+            if(!ref.equals(references)){
+                return false;
+            }
+            this.mReferences = null;
+            return true;
+        }
+        if(references instanceof ReferenceItem[]){
+            ReferenceItem[] array = (ReferenceItem[]) references;
+            int length = array.length;
+            for(int i = 0; i < length; i++){
+                ReferenceItem item = array[i];
+                if(item == null){
+                    return false;
+                }
+                if(ref.equals(item)){
+                    System.arraycopy(array, i + 1, array, i, length - i - 1);
+                    array[length - 1] = null;
+                    if(array[0] == null){
+                        this.mReferences = null;
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+        return referenceSet(references).remove(ref);
     }
     public boolean removeAllReference(Collection<ReferenceItem> referenceItems){
-        return mReferencedList.removeAll(referenceItems);
+        boolean result = false;
+        for(ReferenceItem ref : referenceItems){
+            if(removeReference(ref)){
+                result = true;
+            }
+        }
+        return result;
     }
     public void removeAllReference(){
-        mReferencedList.clear();
+        mReferences = null;
     }
     public boolean hasReference(){
         ensureStringLinkUnlocked();
-        return mReferencedList.size() > 0;
+        return getReferenceCount() > 0;
     }
     public Collection<ReferenceItem> getReferencedList(){
         ensureStringLinkUnlocked();
-        return mReferencedList;
+        return new AbstractCollection<ReferenceItem>() {
+            @Override
+            public Iterator<ReferenceItem> iterator() {
+                return referenceIterator();
+            }
+            @Override
+            public int size() {
+                return getReferenceCount();
+            }
+        };
     }
     void ensureStringLinkUnlocked(){
         StringPool<?> stringPool = getParentInstance(StringPool.class);
@@ -95,27 +148,116 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
         }
     }
     public void addReference(ReferenceItem ref){
-        if(ref!=null){
-            mReferencedList.add(ref);
+        if(ref == null){
+            return;
+        }
+        Object references = this.mReferences;
+        if(references == null){
+            this.mReferences = ref;
+            return;
+        }
+        if(references instanceof ReferenceItem){
+            if(ref.equals(references)){
+                return;
+            }
+            ReferenceItem[] array = new ReferenceItem[4];
+            array[0] = (ReferenceItem) references;
+            array[1] = ref;
+            this.mReferences = array;
+            return;
+        }
+        if(references instanceof ReferenceItem[]){
+            ReferenceItem[] array = (ReferenceItem[]) references;
+            int length = array.length;
+            int i = 0;
+            while (i < length){
+                ReferenceItem item = array[i];
+                if(item == null){
+                    array[i] = ref;
+                    return;
+                }
+                if(ref.equals(item)){
+                    return;
+                }
+                i++;
+            }
+            if(length < MAX_REFERENCE_ARRAY){
+                ReferenceItem[] update = new ReferenceItem[length * 2];
+                System.arraycopy(array, 0, update, 0, length);
+                update[length] = ref;
+                this.mReferences = update;
+            }else {
+                Set<ReferenceItem> set = new HashSet<>(Arrays.asList(array));
+                set.add(ref);
+                this.mReferences = set;
+            }
+            return;
         }
+        referenceSet(references).add(ref);
     }
     public void addReferenceIfAbsent(ReferenceItem ref){
-        if(ref!=null){
-            mReferencedList.add(ref);
-        }
+        addReference(ref);
     }
     public void addReference(Collection<ReferenceItem> refList){
         if(refList == null){
             return;
         }
         for(ReferenceItem ref:refList){
-            if(ref != null){
-                this.mReferencedList.add(ref);
+            addReference(ref);
+        }
+    }
+    private int getReferenceCount(){
+        Object references = this.mReferences;
+        if(references == null){
+            return 0;
+        }
+        if(references instanceof ReferenceItem){
+            return 1;
+        }
+        if(references instanceof ReferenceItem[]){
+            ReferenceItem[] array = (ReferenceItem[]) references;
+            int count = 0;
+            while (count < array.length && array[count] != null){
+                count++;
             }
+            return count;
+        }
+        return referenceSet(references).size();
+    }
+    private Iterator<ReferenceItem> referenceIterator(){
+        Object references = this.mReferences;
+        if(references == null){
+            return EmptyIterator.of();
+        }
+        if(references instanceof ReferenceItem){
+            return Collections.singletonList((ReferenceItem) references).iterator();
+        }
+        if(references instanceof ReferenceItem[]){
+            ReferenceItem[] array = (ReferenceItem[]) references;
+            return Arrays.asList(array).subList(0, getReferenceCount()).iterator();
         }
+        return referenceSet(references).iterator();
+    }
+    private ReferenceItem[] referencesToArray(){
+        Object references = this.mReferences;
+        if(references instanceof ReferenceItem[]){
+            ReferenceItem[] array = (ReferenceItem[]) references;
+            return Arrays.copyOf(array, getReferenceCount());
+        }
+        if(references instanceof ReferenceItem){
+            return new ReferenceItem[]{(ReferenceItem) references};
+        }
+        if(references == null){
+            return new ReferenceItem[0];
+        }
+        return referenceSet(references).toArray(new ReferenceItem[0]);
+    }
+    @SuppressWarnings("unchecked")
+    private static Set<ReferenceItem> referenceSet(Object references){
+        return (Set<ReferenceItem>) references;
     }
     private void reUpdateReferences(int newIndex){
-        ReferenceItem[] referenceItems = mReferencedList.toArray(new ReferenceItem[0]);
+        ReferenceItem[] referenceItems = referencesToArray();
         for(ReferenceItem ref:referenceItems){
             ref.set(newIndex);
         }
@@ -178,7 +320,96 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
         return styleItem.applyStyle(text, true, escapeXmlText);
     }
     public String get(){
-        return mCache;
+        String cache = mCache;
+        if(cache == null && mLazyReader != null){
+            return getLazy();
+        }
+        return cache;
+    }
+    private String getLazy(){
+        StringPool<?> stringPool = getParentInstance(StringPool.class);
+        boolean cacheOnPool = stringPool != null && stringPool.getStringCacheSize() > 0;
+        if(cacheOnPool){
+            String cached = stringPool.getCachedString(this);
+            if(cached != null){
+                return cached;
+            }
+        }
+        BlockReader reader = this.mLazyReader;
+        if(reader == null){
+            return mCache;
+        }
+        String str = decodeString(readLazyBytes(reader), mUtf8);
+        if(cacheOnPool){
+            stringPool.putCachedString(this, str);
+        }else if(mLazyReader != null){
+            mCache = str;
+        }
+        return str;
+    }
+    /**
+     * Returns true if this string was read in lazy mode and its bytes are not yet
+     * copied from the source, see {@link StringPool#setLazyStrings(boolean)}
+     * */
+    public boolean isLazy(){
+        return mLazyReader != null;
+    }
+    private byte[] readLazyBytes(BlockReader reader){
+        byte[] bytes = new byte[mLazyLength];
+        try {
+            reader.readFully(mLazyPosition, bytes, 0, bytes.length);
+        } catch (IOException exception) {
+            throw new IllegalArgumentException(exception);
+        }
+        return bytes;
+    }
+    private void materializeLazy(){
+        BlockReader reader = this.mLazyReader;
+        if(reader == null){
+            return;
+        }
+        synchronized (this){
+            if(mLazyReader == null){
+                return;
+            }
+            byte[] bytes = readLazyBytes(reader);
+            setBytesLength(bytes.length, false);
+            System.arraycopy(bytes, 0, super.getBytesInternal(), 0, bytes.length);
+            if(mCache == null){
+                mCache = decodeString(bytes, mUtf8);
+            }
+            mLazyReader = null;
+        }
+    }
+    @Override
+    protected byte[] getBytesInternal() {
+        materializeLazy();
+        return super.getBytesInternal();
+    }
+    @Override
+    public int countBytes() {
+        if(mLazyReader != null && !isNull()){
+            return mLazyLength;
+        }
+        return super.countBytes();
+    }
+    @Override
+    public byte[] getBytes() {
+        BlockReader reader = this.mLazyReader;
+        if(reader != null && !isNull()){
+            return readLazyBytes(reader);
+        }
+        return super.getBytes();
+    }
+    @Override
+    protected int onWriteBytes(OutputStream stream) throws IOException {
+        BlockReader reader = this.mLazyReader;
+        if(reader == null){
+            return super.onWriteBytes(stream);
+        }
+        byte[] bytes = readLazyBytes(reader);
+        stream.write(bytes);
+        return bytes.length;
     }
     public void set(String str){
         String old=get();
@@ -196,6 +427,7 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
             }
         }
         byte[] bts=encodeString(str);
+        mLazyReader = null;
         setBytesInternal(bts);
     }
 
@@ -206,6 +438,7 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
         if(utf8==mUtf8){
             return;
         }
+        materializeLazy();
         mUtf8=utf8;
         onBytesChanged();
     }
@@ -220,6 +453,15 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
             return;
         }
         int len=calculateReadLength(reader);
+        Block parent = getParent();
+        if(parent instanceof StringArray && ((StringArray<?>) parent).isReadingLazy()){
+            mCache = null;
+            mLazyPosition = reader.getPosition();
+            mLazyLength = len;
+            mLazyReader = reader;
+            reader.offset(len);
+            return;
+        }
         setBytesLength(len, false);
         byte[] bts=getBytesInternal();
         reader.readFully(bts);
@@ -264,31 +506,10 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
         }else {
             offLen=decodeUtf16StringByteLength(allStringBytes);
         }
-        CharsetDecoder charsetDecoder;
         if(isUtf8){
-            charsetDecoder=UTF8_DECODER;
-        }else {
-            charsetDecoder=UTF16LE_DECODER;
-        }
-        try {
-            ByteBuffer buf=ByteBuffer.wrap(allStringBytes, offLen[0], offLen[1]);
-            CharBuffer charBuffer=charsetDecoder.decode(buf);
-            return charBuffer.toString();
-        } catch (CharacterCodingException ex) {
-            if(isUtf8){
-                return tryThreeByteDecoder(allStringBytes, offLen[0], offLen[1]);
-            }
-            return new String(allStringBytes, offLen[0], offLen[1], StandardCharsets.UTF_16LE);
-        }
-    }
-    private String tryThreeByteDecoder(byte[] bytes, int offset, int length){
-        try {
-            ByteBuffer byteBuffer = ByteBuffer.wrap(bytes, offset, length);
-            CharBuffer charBuffer = DECODER_3B.decode(byteBuffer);
-            return charBuffer.toString();
-        } catch (CharacterCodingException e) {
-            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+            return StringDecoder.decodeUtf8(allStringBytes, offLen[0], offLen[1]);
         }
+        return StringDecoder.decodeUtf16(allStringBytes, offLen[0], offLen[1]);
     }
     public boolean hasStyle(){
         StyleItem styleItem=getStyle();
@@ -313,7 +534,8 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
         if(index < 0 || source.getIndex() < 0){
             return;
         }
-        ReferenceItem[] copyList = source.getReferencedList().toArray(new ReferenceItem[0]);
+        source.ensureStringLinkUnlocked();
+        ReferenceItem[] copyList = source.referencesToArray();
         for(ReferenceItem ref : copyList){
             if(isTransferable(ref)){
                 source.removeReference(ref);
@@ -372,7 +594,7 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
         }
         StringPool<?> stringPool = getParentInstance(StringPool.class);
         if(stringPool != null && !stringPool.isStringLinkLocked()){
-            return getIndex() + ": USED BY=" + mReferencedList.size() + "{" + xml + "}";
+            return getIndex() + ": USED BY=" + getReferenceCount() + "{" + xml + "}";
         }
         return getIndex() + ":" + xml;
     }
@@ -445,7 +667,7 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
                 lenBytes[1]=(byte) (l2);
                 lenBytes[0]=(byte) (l1|0x80);
             }else{
-                lenBytes=new ShortItem((short) strLen).getBytesInternal();
+                lenBytes=new ShortItem((short) strLen).getBytes();
                 lenBytes[1]=lenBytes[0];
                 lenBytes[0]=(byte)str.length();
             }
@@ -474,7 +696,7 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
             lenBytes[1]=(byte) (high|0x80);
             lenBytes[0]=(byte) (low);
         }else{
-            lenBytes=new ShortItem((short) strLen).getBytesInternal();
+            lenBytes=new ShortItem((short) strLen).getBytes();
         }
         return addBytes(lenBytes, bts, new byte[2]);
     }
@@ -512,9 +734,7 @@ public class StringItem extends BlockItem implements JSONConvert<JSONObject>, Co
         return result;
     }
 
-    private static final CharsetDecoder UTF16LE_DECODER = StandardCharsets.UTF_16LE.newDecoder();
-    private static final CharsetDecoder UTF8_DECODER = StandardCharsets.UTF_8.newDecoder();
-    private static final CharsetDecoder DECODER_3B = ThreeByteCharsetDecoder.INSTANCE;
+    private static final int MAX_REFERENCE_ARRAY = 16;
 
     public static final String NAME_string="string";
     public static final String NAME_style="style";
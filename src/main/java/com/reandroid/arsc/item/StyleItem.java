@@ -358,10 +358,8 @@ public class StyleItem extends IntegerArray implements JSONConvert<JSONObject> {
             return;
         }
         int len=nextPos-reader.getPosition()+4;
-        super.setBytesLength(len, false);
-        byte[] bts=getBytesInternal();
-        reader.readFully(bts);
-        onBytesChanged();
+        super.setSize(len/4);
+        super.onReadBytes(reader);
     }
     public void addSpanInfo(String tag, int first, int last){
         int index=getStylePieceCount();
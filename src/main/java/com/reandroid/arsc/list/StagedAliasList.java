@@ -15,7 +15,9 @@
   */
 package com.reandroid.arsc.list;
 
+import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.chunk.StagedAlias;
+import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.container.BlockList;
 
 public class StagedAliasList extends BlockList<StagedAlias> {
@@ -43,4 +45,14 @@ public class StagedAliasList extends BlockList<StagedAlias> {
             exist.merge(stagedAlias);
         }
     }
+    @Override
+    protected boolean onCountChanged(Block child){
+        if(child == null){
+            TableBlock tableBlock = getParentInstance(TableBlock.class);
+            if(tableBlock != null){
+                tableBlock.notifyResourceIdsChanged();
+            }
+        }
+        return super.onCountChanged(child);
+    }
 }
@@ -33,6 +33,11 @@ import com.reandroid.common.FileChannelInputStream;
 import java.io.*;
 import java.util.*;
 
+/**
+ * Table of a framework apk (e.g. android.jar resources). Instances obtained from
+ * {@link com.reandroid.apk.AndroidFrameworks} are shared between modules and must
+ * not be modified.
+ * */
 public class FrameworkTable extends TableBlock {
 
     private String frameworkName;
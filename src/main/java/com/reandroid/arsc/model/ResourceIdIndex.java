@@ -0,0 +1,287 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.model;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.StagedAlias;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.TypeBlock;
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.StagedAliasEntry;
+import com.reandroid.utils.collection.ArrayIterator;
+import com.reandroid.utils.collection.EmptyIterator;
+import com.reandroid.utils.collection.IterableIterator;
+
+import java.util.*;
+
+/**
+ * Resolves resource ids of a table and its frameworks without walking all packages.
+ * <br />package id: packages are grouped by id in the same search order as
+ * {@link TableBlock#getAllPackages()}, rebuilt only after {@link TableBlock#getResourceIdsVersion()}
+ * of the table or any of its frameworks is changed (packages, package ids, staged aliases,
+ * current package or frameworks).
+ * <br />type id: direct-address array of {@link com.reandroid.arsc.array.SpecTypePairArray}.
+ * <br />entry id: primitive array of {@link SpecTypePair} pointing to the first type having
+ * the entry, cleared through count change notification.
+ * <br />Staged alias ids are kept as sorted primitive arrays and binary searched.
+ * */
+public class ResourceIdIndex {
+    private final TableBlock tableBlock;
+    private volatile Snapshot mSnapshot;
+
+    public ResourceIdIndex(TableBlock tableBlock){
+        this.tableBlock = tableBlock;
+    }
+
+    public ResourceEntry getResource(int resourceId){
+        return getResource(null, resourceId);
+    }
+    public ResourceEntry getResource(PackageBlock context, int resourceId){
+        Snapshot snapshot = getSnapshot();
+        PackageBlock packageBlock = snapshot.findPackage(context, resourceId);
+        if(packageBlock != null){
+            return new ResourceEntry(packageBlock, resourceId);
+        }
+        int staged = snapshot.resolveStagedAlias(resourceId);
+        if(staged == 0 || staged == resourceId){
+            return null;
+        }
+        packageBlock = snapshot.findPackage(context, staged);
+        if(packageBlock != null){
+            return new ResourceEntry(packageBlock, staged);
+        }
+        return null;
+    }
+    /**
+     * Adds entries (of all configurations) of the given id into results, resolves staged
+     * alias the same way as {@link #getResource(int)}
+     * @return false if resource not found
+     * */
+    public boolean collectEntries(int resourceId, boolean skipNull, Collection<? super Entry> results){
+        Snapshot snapshot = getSnapshot();
+        PackageBlock packageBlock = snapshot.findPackage(null, resourceId);
+        if(packageBlock == null){
+            int staged = snapshot.resolveStagedAlias(resourceId);
+            if(staged == 0 || staged == resourceId){
+                return false;
+            }
+            packageBlock = snapshot.findPackage(null, staged);
+            if(packageBlock == null){
+                return false;
+            }
+            resourceId = staged;
+        }
+        SpecTypePair specTypePair = packageBlock.getSpecTypePair((resourceId >> 16) & 0xff);
+        int entryId = resourceId & 0xffff;
+        TypeBlock[] types = specTypePair.getTypeBlockArray().getChildes();
+        for(TypeBlock typeBlock : types){
+            if(typeBlock == null){
+                continue;
+            }
+            Entry entry = typeBlock.getEntry(entryId);
+            if(entry == null || (skipNull && entry.isNull())){
+                continue;
+            }
+            results.add(entry);
+        }
+        return true;
+    }
+    public Iterator<Entry> getEntries(int resourceId, boolean skipNull){
+        final int typeId = (resourceId >> 16) & 0xff;
+        final int entryId = resourceId & 0xffff;
+        PackageBlock[] packages = getPackages((resourceId >> 24) & 0xff);
+        if(packages == null){
+            return EmptyIterator.of();
+        }
+        return new IterableIterator<PackageBlock, Entry>(new ArrayIterator<>(packages)) {
+            @Override
+            public Iterator<Entry> iterator(PackageBlock element) {
+                if(super.getCount() > 0){
+                    super.stop();
+                    return null;
+                }
+                return element.getEntries(typeId, entryId, skipNull);
+            }
+        };
+    }
+    public PackageBlock[] getPackages(int packageId){
+        return getSnapshot().packagesById[packageId & 0xff];
+    }
+    public int resolveStagedAlias(int stagedResId){
+        return getSnapshot().resolveStagedAlias(stagedResId);
+    }
+    private Snapshot getSnapshot(){
+        Snapshot snapshot = this.mSnapshot;
+        if(snapshot != null && snapshot.isValid(tableBlock)){
+            return snapshot;
+        }
+        synchronized (this){
+            snapshot = this.mSnapshot;
+            if(snapshot == null || !snapshot.isValid(tableBlock)){
+                snapshot = new Snapshot(tableBlock);
+                this.mSnapshot = snapshot;
+            }
+            return snapshot;
+        }
+    }
+
+    private static class Snapshot {
+        final PackageBlock[][] packagesById;
+        private final int version;
+        private final TableBlock[] frameworks;
+        private final int[] frameworkVersions;
+        private final int[] stagedIds;
+        private final int[] finalizedIds;
+
+        Snapshot(TableBlock tableBlock){
+            // versions first, changes made while building invalidate this snapshot
+            this.version = tableBlock.getResourceIdsVersion();
+            List<TableBlock> frameworkList = tableBlock.getFrameWorks();
+            int length = frameworkList.size();
+            TableBlock[] frameworks = frameworkList.toArray(new TableBlock[length]);
+            int[] frameworkVersions = new int[length];
+            for(int i = 0; i < length; i++){
+                frameworkVersions[i] = frameworks[i].getResourceIdsVersion();
+            }
+            this.frameworks = frameworks;
+            this.frameworkVersions = frameworkVersions;
+
+            List<PackageBlock> packageList = new ArrayList<>();
+            Iterator<PackageBlock> iterator = tableBlock.getAllPackages();
+            while (iterator.hasNext()){
+                PackageBlock packageBlock = iterator.next();
+                if(packageBlock != null){
+                    packageList.add(packageBlock);
+                }
+            }
+            this.packagesById = groupById(packageList);
+
+            List<StagedAliasEntry> entryList = new ArrayList<>();
+            for(PackageBlock packageBlock : packageList){
+                for(StagedAlias stagedAlias : packageBlock.listStagedAlias()){
+                    entryList.addAll(stagedAlias.listStagedAliasEntry());
+                }
+            }
+            int size = entryList.size();
+            // sort by staged id, entries found first take precedence
+            long[] keys = new long[size];
+            for(int i = 0; i < size; i++){
+                long staged = entryList.get(i).getStagedResId() & 0xffffffffL;
+                keys[i] = (staged << 24) | i;
+            }
+            Arrays.sort(keys);
+            int[] stagedIds = new int[size];
+            int[] finalizedIds = new int[size];
+            int count = 0;
+            for(int i = 0; i < size; i++){
+                StagedAliasEntry aliasEntry = entryList.get((int) (keys[i] & 0xffffff));
+                int staged = aliasEntry.getStagedResId();
+                if(count != 0 && stagedIds[count - 1] == staged){
+                    continue;
+                }
+                stagedIds[count] = staged;
+                finalizedIds[count] = aliasEntry.getFinalizedResId();
+                count ++;
+            }
+            this.stagedIds = Arrays.copyOf(stagedIds, count);
+            this.finalizedIds = Arrays.copyOf(finalizedIds, count);
+        }
+        boolean isValid(TableBlock tableBlock){
+            if(version != tableBlock.getResourceIdsVersion()){
+                return false;
+            }
+            TableBlock[] frameworks = this.frameworks;
+            List<TableBlock> frameworkList = tableBlock.getFrameWorks();
+            int length = frameworks.length;
+            if(length != frameworkList.size()){
+                return false;
+            }
+            for(int i = 0; i < length; i++){
+                TableBlock framework = frameworks[i];
+                if(framework != frameworkList.get(i)
+                        || frameworkVersions[i] != framework.getResourceIdsVersion()){
+                    return false;
+                }
+            }
+            return true;
+        }
+        PackageBlock findPackage(PackageBlock context, int resourceId){
+            if(resourceId == 0){
+                return null;
+            }
+            int packageId = (resourceId >> 24) & 0xff;
+            int typeId = (resourceId >> 16) & 0xff;
+            short entryId = (short) (resourceId & 0xffff);
+            if(context != null && context.getId() == packageId
+                    && hasEntry(context, typeId, entryId)){
+                return context;
+            }
+            PackageBlock[] packages = packagesById[packageId];
+            if(packages == null){
+                return null;
+            }
+            for(PackageBlock packageBlock : packages){
+                if(packageBlock != context && hasEntry(packageBlock, typeId, entryId)){
+                    return packageBlock;
+                }
+            }
+            return null;
+        }
+        int resolveStagedAlias(int stagedResId){
+            int[] stagedIds = this.stagedIds;
+            int low = 0;
+            int high = stagedIds.length - 1;
+            while (low <= high){
+                int mid = (low + high) >>> 1;
+                int compare = Integer.compareUnsigned(stagedIds[mid], stagedResId);
+                if(compare < 0){
+                    low = mid + 1;
+                }else if(compare > 0){
+                    high = mid - 1;
+                }else {
+                    return finalizedIds[mid];
+                }
+            }
+            return 0;
+        }
+        private static boolean hasEntry(PackageBlock packageBlock, int typeId, short entryId){
+            SpecTypePair specTypePair = packageBlock.getSpecTypePair(typeId);
+            return specTypePair != null && specTypePair.getAnyEntry(entryId) != null;
+        }
+        private static PackageBlock[][] groupById(List<PackageBlock> packageList){
+            int length = packageList.size();
+            int[] counts = new int[0x100];
+            for(int i = 0; i < length; i++){
+                counts[packageList.get(i).getId() & 0xff] ++;
+            }
+            PackageBlock[][] packagesById = new PackageBlock[0x100][];
+            for(int i = 0; i < length; i++){
+                PackageBlock packageBlock = packageList.get(i);
+                int id = packageBlock.getId() & 0xff;
+                PackageBlock[] group = packagesById[id];
+                if(group == null){
+                    group = new PackageBlock[counts[id]];
+                    packagesById[id] = group;
+                    counts[id] = 0;
+                }
+                group[counts[id]] = packageBlock;
+                counts[id] ++;
+            }
+            return packagesById;
+        }
+    }
+}
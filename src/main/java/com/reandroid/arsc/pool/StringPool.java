@@ -20,6 +20,7 @@ import com.reandroid.arsc.array.StringArray;
 import com.reandroid.arsc.array.StyleArray;
 import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.chunk.Chunk;
+import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.group.StringGroup;
 import com.reandroid.arsc.header.StringPoolHeader;
 import com.reandroid.arsc.io.BlockLoad;
@@ -40,7 +41,11 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
     private final StyleArray mArrayStyles;
 
     private final Map<String, StringGroup<T>> mUniqueMap;
+    private volatile boolean mUniqueMapBuilt;
     private boolean stringLinkLocked;
+    private boolean mLazyStrings;
+    private int mStringCacheSize;
+    private Map<StringItem, String> mStringCache;
 
     StringPool(boolean is_utf8, boolean stringLinkLocked){
         super(new StringPoolHeader(), 4);
@@ -131,10 +136,10 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         }else {
             uniqueSet=new HashSet<>(stringList);
         }
-        refreshUniqueIdMap();
-        Set<String> keySet=mUniqueMap.keySet();
-        for(String key:keySet){
-            uniqueSet.remove(key);
+        Map<String, StringGroup<T>> uniqueMap = getUniqueMap();
+        uniqueSet.removeIf(uniqueMap::containsKey);
+        if(uniqueSet.isEmpty()){
+            return;
         }
         List<String> sortedList=new ArrayList<>(uniqueSet);
         sortedList.sort(CompareUtil.STRING_COMPARATOR);
@@ -170,8 +175,86 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         refreshUniqueIdMap();
         return results;
     }
+    /**
+     * When enabled, strings read afterwards keep only their position on the source bytes
+     * and are decoded on first access, see {@link StringItem#isLazy()}.
+     * This should be set before reading bytes.
+     * */
+    public void setLazyStrings(boolean lazyStrings){
+        this.mLazyStrings = lazyStrings;
+    }
+    public boolean isLazyStrings(){
+        if(mLazyStrings){
+            return true;
+        }
+        TableBlock tableBlock = getParentInstance(TableBlock.class);
+        return tableBlock != null && tableBlock.isLazyLoadStrings();
+    }
+    public int getStringCacheSize(){
+        return mStringCacheSize;
+    }
+    /**
+     * Maximum number of decoded lazy strings to hold, the least recently used are
+     * decoded again on next access. Default 0 means each lazy string holds its value
+     * once decoded.
+     * */
+    public void setStringCacheSize(int size){
+        if(size < 0){
+            size = 0;
+        }
+        synchronized (mLock){
+            this.mStringCacheSize = size;
+            this.mStringCache = null;
+        }
+    }
+    public String getCachedString(StringItem item){
+        synchronized (mLock){
+            Map<StringItem, String> cache = this.mStringCache;
+            if(cache == null){
+                return null;
+            }
+            return cache.get(item);
+        }
+    }
+    public void putCachedString(StringItem item, String str){
+        synchronized (mLock){
+            int maxSize = this.mStringCacheSize;
+            if(maxSize == 0){
+                return;
+            }
+            Map<StringItem, String> cache = this.mStringCache;
+            if(cache == null){
+                cache = new LinkedHashMap<StringItem, String>(16, 0.75f, true){
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<StringItem, String> eldest) {
+                        return size() > maxSize;
+                    }
+                };
+                this.mStringCache = cache;
+            }
+            cache.put(item, str);
+        }
+    }
     // call this after modifying string values
     public void refreshUniqueIdMap(){
+        synchronized (mLock){
+            mUniqueMapBuilt = false;
+            mUniqueMap.clear();
+        }
+    }
+    private Map<String, StringGroup<T>> getUniqueMap(){
+        if(mUniqueMapBuilt){
+            return mUniqueMap;
+        }
+        synchronized (mLock){
+            if(!mUniqueMapBuilt){
+                buildUniqueIdMap();
+                mUniqueMapBuilt = true;
+            }
+            return mUniqueMap;
+        }
+    }
+    private void buildUniqueIdMap(){
         Map<String, StringGroup<T>> map = mUniqueMap;
         map.clear();
         StringArray<T> stringArray = this.mArrayStrings;
@@ -202,6 +285,9 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         if(item == null){
             return;
         }
+        if(!mUniqueMapBuilt){
+            return;
+        }
         String str = item.getXml();
         if(str == null){
             str = "";
@@ -216,17 +302,18 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
     }
     public int clearDuplicates(){
         int results = 0;
-        Iterator<StringGroup<T>> iterator = mUniqueMap.values().iterator();
+        Iterator<StringGroup<T>> iterator = getUniqueMap().values().iterator();
         while (iterator.hasNext()){
             results += iterator.next().clearDuplicates();
         }
         return results;
     }
     public Iterator<StringGroup<T>> listDuplicates(){
-        if(mUniqueMap.size() == countStrings() || countStrings() == 0){
+        Map<String, StringGroup<T>> map = getUniqueMap();
+        if(map.size() == countStrings() || countStrings() == 0){
             return EmptyIterator.of();
         }
-        return new FilterIterator<>(mUniqueMap.values().iterator(), StringGroup::isDuplicate);
+        return new FilterIterator<>(map.values().iterator(), StringGroup::isDuplicate);
     }
     public List<T> removeUnusedStrings(){
         return getStringsArray().removeUnusedStrings();
@@ -255,7 +342,7 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         return null;
     }
     public boolean contains(String str){
-        return mUniqueMap.containsKey(str);
+        return getUniqueMap().containsKey(str);
     }
     public final T get(int index){
         return mArrayStrings.get(index);
@@ -264,18 +351,19 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         return mArrayStrings.getLast();
     }
     public final StringGroup<T> get(String str){
-        return mUniqueMap.get(str);
+        return getUniqueMap().get(str);
     }
     public T getOrCreate(String str){
         if(str == null){
             str = "";
         }
-        StringGroup<T> group = mUniqueMap.get(str);
+        Map<String, StringGroup<T>> map = getUniqueMap();
+        StringGroup<T> group = map.get(str);
         T item;
         if(group == null){
             item = createNewString(str);
             group = new StringGroup<>(mArrayStrings, str, item);
-            mUniqueMap.put(str, group);
+            map.put(str, group);
         }else if(group.size() == 0){
             item = createNewString(str);
             group.add(item);
@@ -39,6 +39,7 @@ import java.util.Iterator;
 public class Entry extends Block implements JSONConvert<JSONObject> {
     private TableEntry<?, ?> mTableEntry;
     private IntegerItem mNullSpecReference;
+    private TypeBlock mTypeBlock;
 
     public Entry(){
         super();
@@ -107,7 +108,13 @@ public class Entry extends Block implements JSONConvert<JSONObject> {
     }
     public int getId(){
         int id = getIndex();
-        EntryArray entryArray = getParentInstance(EntryArray.class);
+        Block parent = getParent();
+        EntryArray entryArray;
+        if(parent instanceof EntryArray){
+            entryArray = (EntryArray) parent;
+        }else {
+            entryArray = getParentInstance(EntryArray.class);
+        }
         if(entryArray != null){
             id = entryArray.getEntryId(id);
         }
@@ -383,8 +390,19 @@ public class Entry extends Block implements JSONConvert<JSONObject> {
         }
         return null;
     }
+    /**
+     * The type is cached and validated against parent chain (EntryArray -> TypeBlock)
+     * thus stays correct when this entry is moved to other array or type
+     * */
     public TypeBlock getTypeBlock(){
-        return getParent(TypeBlock.class);
+        TypeBlock typeBlock = this.mTypeBlock;
+        Block parent = getParent();
+        if(typeBlock != null && parent != null && parent.getParent() == typeBlock){
+            return typeBlock;
+        }
+        typeBlock = getParent(TypeBlock.class);
+        this.mTypeBlock = typeBlock;
+        return typeBlock;
     }
     private String getPackageName(){
         PackageBlock packageBlock = getPackageBlock();
@@ -394,6 +412,10 @@ public class Entry extends Block implements JSONConvert<JSONObject> {
         return null;
     }
     public PackageBlock getPackageBlock(){
+        TypeBlock typeBlock = getTypeBlock();
+        if(typeBlock != null){
+            return typeBlock.getPackageBlock();
+        }
         return getParent(PackageBlock.class);
     }
     private TableEntry<?, ?> ensureTableEntry(boolean is_complex){
@@ -15,6 +15,7 @@
  */
 package com.reandroid.arsc.value;
 
+import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.item.ByteArray;
 import com.reandroid.utils.HexUtil;
 import com.reandroid.json.JSONConvert;
@@ -39,12 +40,20 @@ public class StagedAliasEntry extends ByteArray implements JSONConvert<JSONObjec
     }
     public void setStagedResId(int id){
         putInteger(0, id);
+        onIdChanged();
     }
     public int getFinalizedResId(){
         return getInteger(4);
     }
     public void setFinalizedResId(int id){
         putInteger(4, id);
+        onIdChanged();
+    }
+    private void onIdChanged(){
+        TableBlock tableBlock = getParentInstance(TableBlock.class);
+        if(tableBlock != null){
+            tableBlock.notifyResourceIdsChanged();
+        }
     }
     @Override
     public String toString(){
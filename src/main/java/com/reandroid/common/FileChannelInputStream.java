@@ -15,6 +15,7 @@
  */
 package com.reandroid.common;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -33,9 +34,14 @@ public class FileChannelInputStream extends InputStream {
     private int bufferLength;
     private boolean mAutoClosable;
     private boolean mIsClosed;
+    private final boolean mPositional;
 
     public FileChannelInputStream(FileChannel fileChannel, long length, int bufferSize) throws IOException {
+        this(fileChannel, fileChannel.position(), length, bufferSize, false);
+    }
+    private FileChannelInputStream(FileChannel fileChannel, long offset, long length, int bufferSize, boolean positional) {
         this.fileChannel = fileChannel;
+        this.mPositional = positional;
         this.totalLength = length;
         if(bufferSize <= 0){
             bufferSize = 8;
@@ -46,7 +52,7 @@ public class FileChannelInputStream extends InputStream {
         this.buffer = new byte[bufferSize];
         this.bufferLength = bufferSize;
         this.bufferPosition = bufferSize;
-        this.startOffset = fileChannel.position();
+        this.startOffset = offset;
     }
     public FileChannelInputStream(FileChannel fileChannel, long length) throws IOException {
         this(fileChannel, length, DEFAULT_BUFFER_SIZE);
@@ -114,12 +120,31 @@ public class FileChannelInputStream extends InputStream {
             is_last = true;
         }
         ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
-        bufferLength = fileChannel.read(byteBuffer);
+        if(mPositional){
+            bufferLength = readPositional(byteBuffer);
+        }else {
+            bufferLength = fileChannel.read(byteBuffer);
+        }
         bufferPosition = 0;
         if(is_last){
             closeAuto();
         }
     }
+    private int readPositional(ByteBuffer byteBuffer) throws IOException {
+        long channelPosition = startOffset + position;
+        int result = 0;
+        while (byteBuffer.hasRemaining()){
+            int read = fileChannel.read(byteBuffer, channelPosition + result);
+            if(read < 0){
+                break;
+            }
+            result += read;
+        }
+        if(result == 0){
+            throw new EOFException("Unexpected end of channel at: " + channelPosition);
+        }
+        return result;
+    }
     private boolean isFinished() throws IOException {
         boolean finished = position >= totalLength;
         if(finished){
@@ -172,7 +197,9 @@ public class FileChannelInputStream extends InputStream {
         position += availableChannel;
         remaining = remaining - availableChannel;
         amount = amount - remaining;
-        fileChannel.position(fileChannel.position() + availableChannel);
+        if(!mPositional){
+            fileChannel.position(fileChannel.position() + availableChannel);
+        }
         return amount;
     }
     private int skipBuffer(long amount){
@@ -206,7 +233,9 @@ public class FileChannelInputStream extends InputStream {
     public void reset() throws IOException {
         position = 0;
         bufferPosition = bufferLength;
-        fileChannel.position(startOffset);
+        if(!mPositional){
+            fileChannel.position(startOffset);
+        }
     }
     @Override
     public int available(){
@@ -228,6 +257,14 @@ public class FileChannelInputStream extends InputStream {
         return position + " / " + totalLength;
     }
 
+    /**
+     * Reads the region [offset, offset + length) of the channel through positional reads,
+     * the channel position is never changed, thus many streams can read concurrently from
+     * the same channel
+     * */
+    public static FileChannelInputStream slice(FileChannel fileChannel, long offset, long length){
+        return new FileChannelInputStream(fileChannel, offset, length, DEFAULT_BUFFER_SIZE, true);
+    }
     public static byte[] read(File file, int length) throws IOException{
         FileChannelInputStream inputStream = new FileChannelInputStream(file,length, length);
         inputStream.loadBuffer();
@@ -17,6 +17,7 @@ package com.reandroid.common;
 
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.model.ResourceIdIndex;
 import com.reandroid.arsc.value.Entry;
 import com.reandroid.arsc.value.ResConfig;
 import com.reandroid.arsc.value.ResValue;
@@ -105,6 +106,11 @@ public class ReferenceResolver{
     }
     private List<Entry> listNonNullEntries(int resourceId){
         List<Entry> results = new ArrayList<>();
+        ResourceIdIndex resourceIdIndex = this.entryStore.getResourceIdIndex();
+        if(resourceIdIndex != null){
+            resourceIdIndex.collectEntries(resourceId, true, results);
+            return results;
+        }
         ResourceEntry resourceEntry = this.entryStore.getResource(resourceId);
         if(resourceEntry == null){
             return results;
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2002 JSON.org (now "Public Domain")
+ * This is NOT property of REAndroid
+ * This package is renamed from org.json.* to avoid class conflict when used on anroid platforms
+*/
+package com.reandroid.json;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Incremental (pull) reader of json text on top of {@link JSONTokener}, objects and arrays
+ * can be walked member by member without building the whole JSONObject/JSONArray tree.
+ * Sub-trees can still be read at once with {@link #nextJSONObject()} and {@link #nextJSONArray()}
+ * */
+public class JSONReader implements Closeable {
+    private final Reader reader;
+    private final JSONTokener tokener;
+    private final boolean[] stack;
+    private int top;
+    private boolean needsComma;
+    private boolean mPeekedBegin;
+    private String mPeekedKey;
+
+    public JSONReader(Reader reader) {
+        this.reader = reader;
+        this.tokener = new JSONTokener(reader);
+        this.stack = new boolean[MAX_DEPTH];
+    }
+    public JSONReader(InputStream inputStream) {
+        this(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+    }
+    public JSONReader(File file) throws IOException {
+        this(new FileInputStream(file));
+    }
+
+    public void beginObject() throws JSONException {
+        if (this.mPeekedBegin) {
+            this.mPeekedBegin = false;
+            return;
+        }
+        begin('{', true);
+    }
+    public void endObject() throws JSONException {
+        if (this.mPeekedKey != null) {
+            throw this.tokener.syntaxError("Unread key \"" + this.mPeekedKey + "\"");
+        }
+        end('}', true);
+    }
+    public void beginArray() throws JSONException {
+        begin('[', false);
+    }
+    public void endArray() throws JSONException {
+        end(']', false);
+    }
+    /**
+     * Returns true if the current object or array has more members
+     * */
+    public boolean hasNext() throws JSONException {
+        if (this.mPeekedKey != null) {
+            return true;
+        }
+        char c = this.tokener.nextClean();
+        if (c == ',' && this.needsComma) {
+            this.needsComma = false;
+            c = this.tokener.nextClean();
+        }
+        if (c != 0) {
+            this.tokener.back();
+        }
+        return c != 0 && c != '}' && c != ']';
+    }
+    public String nextKey() throws JSONException {
+        String key = this.mPeekedKey;
+        if (key != null) {
+            this.mPeekedKey = null;
+            return key;
+        }
+        if (this.top == 0 || !this.stack[this.top - 1]) {
+            throw this.tokener.syntaxError("Misplaced key");
+        }
+        if (!hasNext()) {
+            throw this.tokener.syntaxError("Expected a key");
+        }
+        if (this.needsComma) {
+            throw this.tokener.syntaxError("Expected a ',' or '}'");
+        }
+        key = this.tokener.nextValue().toString();
+        if (this.tokener.nextClean() != ':') {
+            throw this.tokener.syntaxError("Expected a ':' after a key");
+        }
+        return key;
+    }
+    /**
+     * Reads the beginning of the next object and its first key without consuming the key,
+     * the following {@link #beginObject()} and {@link #nextKey()} returns the peeked values.
+     * Returns null for empty object
+     * */
+    public String peekFirstKey() throws JSONException {
+        if (!this.mPeekedBegin) {
+            begin('{', true);
+            this.mPeekedBegin = true;
+        }
+        if (this.mPeekedKey == null && hasNext()) {
+            this.mPeekedKey = nextKey();
+        }
+        return this.mPeekedKey;
+    }
+    /**
+     * Returns the first character of the next value without consuming it,
+     * '{' for object, '[' for array, otherwise scalar value
+     * */
+    public char peek() throws JSONException {
+        if (this.mPeekedBegin) {
+            return '{';
+        }
+        beforeValue();
+        char c = this.tokener.nextClean();
+        if (c != 0) {
+            this.tokener.back();
+        }
+        return c;
+    }
+    public Object nextValue() throws JSONException {
+        beforeValue();
+        Object value = this.tokener.nextValue();
+        this.needsComma = true;
+        return value;
+    }
+    public JSONObject nextJSONObject() throws JSONException {
+        Object value = nextValue();
+        if (value instanceof JSONObject) {
+            return (JSONObject) value;
+        }
+        if (JSONObject.NULL.equals(value)) {
+            return null;
+        }
+        throw this.tokener.syntaxError("Expected JSONObject, found " + value);
+    }
+    public JSONArray nextJSONArray() throws JSONException {
+        Object value = nextValue();
+        if (value instanceof JSONArray) {
+            return (JSONArray) value;
+        }
+        if (JSONObject.NULL.equals(value)) {
+            return null;
+        }
+        throw this.tokener.syntaxError("Expected JSONArray, found " + value);
+    }
+    public String nextString() throws JSONException {
+        Object value = nextValue();
+        if (JSONObject.NULL.equals(value)) {
+            return null;
+        }
+        return value.toString();
+    }
+    public int nextInt() throws JSONException {
+        Object value = nextValue();
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        try {
+            return Integer.parseInt(value.toString());
+        } catch (NumberFormatException ex) {
+            throw this.tokener.syntaxError("Expected int, found " + value, ex);
+        }
+    }
+    public boolean nextBoolean() throws JSONException {
+        Object value = nextValue();
+        if (Boolean.TRUE.equals(value) || "true".equalsIgnoreCase(value.toString())) {
+            return true;
+        }
+        if (Boolean.FALSE.equals(value) || "false".equalsIgnoreCase(value.toString())) {
+            return false;
+        }
+        throw this.tokener.syntaxError("Expected boolean, found " + value);
+    }
+    public void skipValue() throws JSONException {
+        nextValue();
+    }
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    private void begin(char c, boolean isObject) throws JSONException {
+        beforeValue();
+        if (this.tokener.nextClean() != c) {
+            throw this.tokener.syntaxError(isObject
+                    ? "A JSONObject text must begin with '{'"
+                    : "A JSONArray text must start with '['");
+        }
+        if (this.top >= MAX_DEPTH) {
+            throw this.tokener.syntaxError("Nesting too deep");
+        }
+        this.stack[this.top] = isObject;
+        this.top ++;
+        this.needsComma = false;
+    }
+    private void end(char c, boolean isObject) throws JSONException {
+        if (this.top == 0 || this.stack[this.top - 1] != isObject) {
+            throw this.tokener.syntaxError("Nesting error");
+        }
+        if (hasNext()) {
+            throw this.tokener.syntaxError(isObject
+                    ? "Expected a ',' or '}'"
+                    : "Expected a ',' or ']'");
+        }
+        if (this.tokener.nextClean() != c) {
+            throw this.tokener.syntaxError("Expected '" + c + "'");
+        }
+        this.top --;
+        this.needsComma = true;
+    }
+    private void beforeValue() throws JSONException {
+        if (this.mPeekedBegin || this.mPeekedKey != null) {
+            throw this.tokener.syntaxError("Value out of sequence");
+        }
+        if (this.top == 0 || this.stack[this.top - 1]) {
+            return;
+        }
+        if (!hasNext()) {
+            throw this.tokener.syntaxError("Expected a value");
+        }
+        if (this.needsComma) {
+            throw this.tokener.syntaxError("Expected a ',' or ']'");
+        }
+    }
+
+    private static final int MAX_DEPTH = 200;
+}
@@ -11,6 +11,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 
 public class JSONTokener {
     /** current read character position on the current line. */
@@ -42,7 +43,7 @@ public class JSONTokener {
         this.line = 1;
     }
     public JSONTokener(InputStream inputStream) {
-        this(new InputStreamReader(inputStream));
+        this(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
     }
     public JSONTokener(String s) {
         this(new StringReader(s));
@@ -5,10 +5,18 @@
 */
 package com.reandroid.json;
 
+import java.io.Flushable;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Collection;
 import java.util.Map;
 
+/**
+ * Writes json text directly to the output without building intermediate JSONObject/JSONArray tree.
+ * The layout is the same as {@link JSONItem#write(Writer, int, int)}, except single member
+ * containers are not collapsed into one line.
+ * */
 public class JSONWriter {
     protected final Appendable writer;
     protected char mode;
@@ -39,35 +47,63 @@ public class JSONWriter {
         if (string == null) {
             throw new JSONException("Null pointer");
         }
-        if (this.mode == 'o' || this.mode == 'a') {
+        beforeValue();
+        try {
+            this.writer.append(string);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        afterValue();
+        return this;
+    }
+    private void beforeValue() throws JSONException {
+        if (this.mode == 'o' || this.mode == 'i') {
+            return;
+        }
+        if (this.mode == 'a') {
             try {
-                if (this.comma && this.mode == 'a') {
+                if (this.comma) {
                     this.writer.append(',');
-                    writeIndent();
                 }
-                this.writer.append(string);
+                writeIndent(this.top);
             } catch (IOException e) {
                 throw new JSONException(e);
             }
-            if (this.mode == 'o') {
-                this.mode = 'k';
-            }
-            this.comma = true;
-            return this;
+            return;
         }
         throw new JSONException("Value out of sequence.");
     }
+    private void afterValue() {
+        if (this.mode == 'o') {
+            this.mode = 'k';
+        } else if (this.mode == 'i') {
+            this.mode = 'd';
+        }
+        this.comma = true;
+    }
 
     public JSONWriter array() throws JSONException {
-        writeIndent();
-        if (this.mode == 'i' || this.mode == 'o' || this.mode == 'a') {
-            this.push(null);
-            this.append("[");
-            this.comma = false;
-            writeIndent();
-            return this;
+        return this.begin(null, '[');
+    }
+    public JSONWriter object() throws JSONException {
+        return this.begin(new JSONObject(), '{');
+    }
+    private JSONWriter begin(JSONObject jo, char c) throws JSONException {
+        if (this.mode != 'i' && this.mode != 'o' && this.mode != 'a') {
+            throw new JSONException(jo == null
+                    ? "Misplaced array."
+                    : "Misplaced object.");
         }
-        throw new JSONException("Misplaced array.");
+        beforeValue();
+        try {
+            this.writer.append(c);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        afterValue();
+        this.push(jo);
+        this.comma = false;
+        return this;
     }
 
     private JSONWriter end(char m, char c) throws JSONException {
@@ -76,9 +112,12 @@ public class JSONWriter {
                 ? "Misplaced endArray."
                 : "Misplaced endObject.");
         }
+        boolean empty = !this.comma;
         this.pop(m);
         try {
-            writeIndent();
+            if (!empty) {
+                writeIndent(this.top);
+            }
             this.writer.append(c);
         } catch (IOException e) {
             throw new JSONException(e);
@@ -103,16 +142,19 @@ public class JSONWriter {
             try {
                 JSONObject topObject = this.stack[this.top - 1];
                 // don't use the built in putOnce method to maintain Android support
-				if(topObject.has(string)) {
-					throw new JSONException("Duplicate key \"" + string + "\"");
-				}
+                if(topObject.has(string)) {
+                    throw new JSONException("Duplicate key \"" + string + "\"");
+                }
                 topObject.put(string, true);
                 if (this.comma) {
                     this.writer.append(',');
-                    writeIndent();
                 }
+                writeIndent(this.top);
                 this.writer.append(JSONObject.quote(string));
                 this.writer.append(':');
+                if (this.indentFactor > 0) {
+                    this.writer.append(' ');
+                }
                 this.comma = false;
                 this.mode = 'o';
                 return this;
@@ -122,19 +164,14 @@ public class JSONWriter {
         }
         throw new JSONException("Misplaced key.");
     }
-    public JSONWriter object() throws JSONException {
-        if (this.mode == 'i') {
-            this.mode = 'o';
-        }
-        if (this.mode == 'o' || this.mode == 'a') {
-            this.append("{");
-            this.push(new JSONObject());
-            this.comma = false;
-            writeIndent();
+    /**
+     * Writes key and value, nothing is written for null value same as {@link JSONObject#put(String, Object)}
+     * */
+    public JSONWriter put(String key, Object value) throws JSONException {
+        if (value == null) {
             return this;
         }
-        throw new JSONException("Misplaced object.");
-
+        return this.key(key).value(value);
     }
     private void pop(char c) throws JSONException {
         if (this.top <= 0) {
@@ -145,6 +182,7 @@ public class JSONWriter {
             throw new JSONException("Nesting error.");
         }
         this.top -= 1;
+        this.stack[this.top] = null;
         this.mode = this.top == 0
             ? 'd'
             : this.stack[this.top - 1] == null
@@ -172,21 +210,53 @@ public class JSONWriter {
         return this.append(Long.toString(l));
     }
     public JSONWriter value(Object object) throws JSONException {
+        if (object instanceof JSONItem) {
+            return this.value((JSONItem) object);
+        }
         return this.append(valueToString(object));
     }
-    private void writeIndent() throws JSONException {
-        if(this.indentFactor < 0 || this.mode == 'i'){
-            return;
+    /**
+     * Writes JSONObject or JSONArray with the same indentation as the current depth
+     * */
+    public JSONWriter value(JSONItem jsonItem) throws JSONException {
+        if (jsonItem == null) {
+            return this.append("null");
         }
-        try{
-            Appendable appendable = this.writer;
-            appendable.append('\n');
-            int level = this.top * this.indentFactor;
-            for(int i = 0; i < level ; i++){
-                appendable.append(' ');
+        beforeValue();
+        int indentFactor = Math.max(this.indentFactor, 0);
+        int indent = this.top * indentFactor;
+        try {
+            if (this.writer instanceof Writer) {
+                jsonItem.write((Writer) this.writer, indentFactor, indent);
+            } else {
+                StringWriter stringWriter = new StringWriter();
+                jsonItem.write(stringWriter, indentFactor, indent);
+                this.writer.append(stringWriter.getBuffer());
             }
-        }catch (IOException ex){
-            throw new JSONException(ex);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        afterValue();
+        return this;
+    }
+    public void flush() throws JSONException {
+        if (this.writer instanceof Flushable) {
+            try {
+                ((Flushable) this.writer).flush();
+            } catch (IOException e) {
+                throw new JSONException(e);
+            }
+        }
+    }
+    private void writeIndent(int depth) throws IOException {
+        if(this.indentFactor < 0){
+            return;
+        }
+        Appendable appendable = this.writer;
+        appendable.append('\n');
+        int level = depth * this.indentFactor;
+        for(int i = 0; i < level ; i++){
+            appendable.append(' ');
         }
     }
 
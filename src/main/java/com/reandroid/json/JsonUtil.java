@@ -10,6 +10,18 @@ import java.nio.charset.StandardCharsets;
 
 public class JsonUtil {
 
+    /**
+     * Returns buffered UTF-8 writer for {@link JSONWriter}, creates parent directories if missing
+     * */
+    public static Writer openFileWriter(File file) throws IOException {
+        File dir = file.getParentFile();
+        if(dir != null && !dir.exists()){
+            dir.mkdirs();
+        }
+        return new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file), StandardCharsets.UTF_8));
+    }
+
     public static void readJSONObject(File file, JSONConvert<JSONObject> jsonConvert) throws IOException {
         FileInputStream inputStream=new FileInputStream(file);
         readJSONObject(inputStream, jsonConvert);
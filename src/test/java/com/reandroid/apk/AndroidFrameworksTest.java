@@ -0,0 +1,53 @@
+package com.reandroid.apk;
+
+import com.reandroid.arsc.model.FrameworkTable;
+import com.reandroid.utils.io.FileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class AndroidFrameworksTest {
+    @Test
+    public void testSharedFramework() throws IOException {
+        FrameworkApk latest = AndroidFrameworks.getLatest();
+        int version = latest.getVersionCode();
+        Assert.assertSame(latest, AndroidFrameworks.getBestMatch(version));
+    }
+    @Test
+    public void testLoadedFrameworksBounded() throws IOException {
+        int latest = AndroidFrameworks.getLatest().getVersionCode();
+        FrameworkApk first = AndroidFrameworks.getBestMatch(latest - 1);
+        Assert.assertSame(first, AndroidFrameworks.getBestMatch(latest - 1));
+        for(int i = 0; i < AndroidFrameworks.MAX_LOADED_FRAMEWORKS; i++){
+            AndroidFrameworks.getBestMatch(latest - 2 - i);
+        }
+        FrameworkApk reloaded = AndroidFrameworks.getBestMatch(latest - 1);
+        Assert.assertNotSame(first, reloaded);
+        Assert.assertEquals(first.getVersionCode(), reloaded.getVersionCode());
+        Assert.assertFalse(first.isDestroyed());
+    }
+    @Test
+    public void testCacheDirectory() throws IOException {
+        int version = AndroidFrameworks.getLatest().getVersionCode();
+        File dir = new File(FileUtil.getTempDir(), "framework_cache");
+        File previous = AndroidFrameworks.getCacheDirectory();
+        AndroidFrameworks.setCacheDirectory(dir);
+        try{
+            FrameworkApk extracted = AndroidFrameworks.loadResource(version);
+            FrameworkApk cached = AndroidFrameworks.loadResource(version);
+            AndroidFrameworks.setCacheDirectory(null);
+            FrameworkApk bundled = AndroidFrameworks.loadResource(version);
+
+            FrameworkTable table = cached.getTableBlock();
+            Assert.assertTrue(table.isLazyLoadTypes());
+            Assert.assertEquals(version, cached.getVersionCode());
+            Assert.assertEquals(bundled.getVersionName(), cached.getVersionName());
+            Assert.assertArrayEquals(bundled.getTableBlock().getBytes(), table.getBytes());
+            Assert.assertArrayEquals(table.getBytes(), extracted.getTableBlock().getBytes());
+        }finally {
+            AndroidFrameworks.setCacheDirectory(previous);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.reandroid.apk;
+
+import com.reandroid.archive.InputSource;
+import com.reandroid.utils.io.FileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ApkModuleParallelCoderTest {
+    @Test
+    public void testEncodeXmlThreads() throws IOException {
+        File dir = new File(FileUtil.getTempDir(), "parallel_encode");
+        File decoded = createProject(new File(dir, "decoded"));
+
+        ApkModule sequential = encode(decoded, 1);
+        ApkModule parallel = encode(decoded, 4);
+        Assert.assertTrue(sequential.listResFiles().size() >= 24);
+        assertSameEntries(sequential, parallel);
+
+        File apk1 = new File(dir, "encoded_1.apk");
+        File apk4 = new File(dir, "encoded_4.apk");
+        sequential.writeApk(apk1);
+        parallel.writeApk(apk4);
+        Assert.assertArrayEquals(Files.readAllBytes(apk1.toPath()), Files.readAllBytes(apk4.toPath()));
+        FileUtil.deleteDirectory(dir);
+    }
+    @Test
+    public void testDecodeXmlThreads() throws IOException {
+        File dir = new File(FileUtil.getTempDir(), "parallel_decode");
+        File apk = new File(dir, "project.apk");
+        encode(createProject(new File(dir, "project")), 1).writeApk(apk);
+
+        File sequential = new File(dir, "decoded_1");
+        File parallel = new File(dir, "decoded_4");
+        decode(apk, sequential, 1);
+        decode(apk, parallel, 4);
+
+        List<String> paths = listFiles(sequential);
+        Assert.assertTrue(paths.size() > 24);
+        Assert.assertEquals(paths, listFiles(parallel));
+        for(String path : paths){
+            Assert.assertArrayEquals(path,
+                    Files.readAllBytes(new File(sequential, path).toPath()),
+                    Files.readAllBytes(new File(parallel, path).toPath()));
+        }
+        FileUtil.deleteDirectory(dir);
+    }
+
+    private static void decode(File apk, File dir, int threads) throws IOException {
+        ApkModule apkModule = ApkModule.loadApkFile(apk);
+        ApkModuleXmlDecoder decoder = new ApkModuleXmlDecoder(apkModule);
+        decoder.setThreadCount(threads);
+        decoder.decode(dir);
+        apkModule.close();
+    }
+    private static List<String> listFiles(File dir){
+        List<String> results = new ArrayList<>();
+        String root = dir.getAbsolutePath();
+        for(File file : ApkUtil.recursiveFiles(dir)){
+            results.add(file.getAbsolutePath().substring(root.length()));
+        }
+        Collections.sort(results);
+        return results;
+    }
+    private static File createProject(File decoded) throws IOException {
+        ApkModuleXmlDecoder decoder = new ApkModuleXmlDecoder(new ApkModuleTest().createApkModule());
+        decoder.decode(decoded);
+        addLayouts(decoded, 24);
+        return decoded;
+    }
+    static void assertSameEntries(ApkModule module1, ApkModule module2) throws IOException {
+        InputSource[] sources1 = module1.getZipEntryMap().toArray();
+        InputSource[] sources2 = module2.getZipEntryMap().toArray();
+        Assert.assertEquals(sources1.length, sources2.length);
+        for(int i = 0; i < sources1.length; i++){
+            InputSource source1 = sources1[i];
+            InputSource source2 = sources2[i];
+            Assert.assertEquals(source1.getAlias(), source2.getAlias());
+            Assert.assertArrayEquals(source1.getAlias(), toBytes(source1), toBytes(source2));
+        }
+    }
+    private static byte[] toBytes(InputSource inputSource) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        inputSource.write(outputStream);
+        return outputStream.toByteArray();
+    }
+    private static ApkModule encode(File decoded, int threads) throws IOException {
+        ApkModuleXmlEncoder encoder = new ApkModuleXmlEncoder();
+        encoder.setThreadCount(threads);
+        encoder.scanDirectory(decoded);
+        return encoder.getApkModule();
+    }
+    private static void addLayouts(File decoded, int count) throws IOException {
+        File resDir = findResDirectory(decoded);
+        File layoutDir = new File(resDir, "layout");
+        layoutDir.mkdirs();
+        File publicXml = new File(resDir, "values/public.xml");
+        String publicIds = new String(Files.readAllBytes(publicXml.toPath()), StandardCharsets.UTF_8);
+        StringBuilder layoutIds = new StringBuilder();
+        for(int i = 0; i < count; i++){
+            layoutIds.append(String.format(
+                    "  <public id=\"0x7f05%04x\" type=\"layout\" name=\"layout_%d\" />\n", i, i));
+        }
+        publicIds = publicIds.replace("</resources>", layoutIds + "</resources>");
+        Files.write(publicXml.toPath(), publicIds.getBytes(StandardCharsets.UTF_8));
+        for(int i = 0; i < count; i++){
+            StringBuilder builder = new StringBuilder();
+            builder.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+            builder.append("<LinearLayout xmlns:android=\"http://schemas.android.com/apk/res/android\"\n");
+            builder.append("    android:layout_width=\"match_parent\"\n");
+            builder.append("    android:layout_height=\"match_parent\"\n");
+            builder.append("    android:orientation=\"vertical\">\n");
+            for(int j = 0; j <= i; j++){
+                builder.append("  <TextView android:layout_width=\"wrap_content\"\n");
+                builder.append("      android:layout_height=\"").append(j % 2 == 0 ? "12dp" : "wrap_content")
+                        .append("\"\n");
+                builder.append("      android:text=\"@string/app_name\" />\n");
+            }
+            builder.append("</LinearLayout>\n");
+            Files.write(new File(layoutDir, "layout_" + i + ".xml").toPath(),
+                    builder.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+    static File findResDirectory(File dir) throws IOException {
+        File res = searchResDirectory(dir);
+        if(res == null){
+            throw new IOException("Missing res directory: " + dir);
+        }
+        return res;
+    }
+    private static File searchResDirectory(File dir){
+        File res = new File(dir, "res");
+        if(new File(res, "values").isDirectory()){
+            return res;
+        }
+        File[] files = dir.listFiles();
+        if(files != null){
+            for(File file : files){
+                if(file.isDirectory()){
+                    res = searchResDirectory(file);
+                    if(res != null){
+                        return res;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,90 @@
+package com.reandroid.archive;
+
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class ArchiveTest {
+    @Test
+    public void testEntrySourceLookup() throws IOException {
+        String[] names = new String[]{
+                "AndroidManifest.xml",
+                "res/raw/",
+                "res/layout/main.xml",
+                "lib/arm64-v8a/libmain.so",
+                "res/drawable/icon.png",
+                "lib/armeabi-v7a/libmain.so",
+                "resources.arsc",
+                "lib/arm64-v8a/libextra.so"
+        };
+        ArchiveBytes archive = new ArchiveBytes(createZip(names));
+
+        InputSource inputSource = archive.getEntrySource("res/drawable/icon.png");
+        Assert.assertNotNull(inputSource);
+        Assert.assertEquals(4, inputSource.getSort());
+        Assert.assertEquals("res/drawable/icon.png", new String(
+                IOUtil.readFully(inputSource.openStream()), StandardCharsets.UTF_8));
+        Assert.assertNull(archive.getEntrySource("res/raw/"));
+        Assert.assertNull(archive.getEntrySource("classes.dex"));
+
+        InputSource[] sources = archive.getEntrySources("lib/arm64-v8a/");
+        Assert.assertEquals(2, sources.length);
+        Assert.assertEquals("lib/arm64-v8a/libextra.so", sources[0].getAlias());
+        Assert.assertEquals("lib/arm64-v8a/libmain.so", sources[1].getAlias());
+        Assert.assertEquals(2, archive.getEntrySources("res/").length);
+        Assert.assertEquals(0, archive.getEntrySources("assets/").length);
+        Assert.assertEquals(7, archive.getEntrySources(null).length);
+    }
+    @Test
+    public void testEntrySourceAfterRename() throws IOException {
+        String[] names = new String[]{
+                "AndroidManifest.xml",
+                "res/layout/main.xml",
+                "res/drawable/icon.png"
+        };
+        ArchiveBytes archive = new ArchiveBytes(createZip(names));
+        Assert.assertNotNull(archive.getEntrySource("res/layout/main.xml"));
+        Assert.assertNull(archive.getEntrySource("res/layout/renamed.xml"));
+
+        ArchiveEntry renamed = null;
+        Iterator<ArchiveEntry> iterator = archive.iterator();
+        while (iterator.hasNext()){
+            ArchiveEntry archiveEntry = iterator.next();
+            if("res/layout/main.xml".equals(archiveEntry.getName())){
+                renamed = archiveEntry;
+            }
+        }
+        Assert.assertNotNull(renamed);
+        renamed.setName("res/layout/renamed.xml");
+
+        InputSource inputSource = archive.getEntrySource("res/layout/renamed.xml");
+        Assert.assertNotNull(inputSource);
+        Assert.assertEquals(1, inputSource.getSort());
+        Assert.assertEquals("res/layout/main.xml", new String(
+                IOUtil.readFully(inputSource.openStream()), StandardCharsets.UTF_8));
+        Assert.assertNull(archive.getEntrySource("res/layout/main.xml"));
+        InputSource[] sources = archive.getEntrySources("res/layout/");
+        Assert.assertEquals(1, sources.length);
+        Assert.assertEquals("res/layout/renamed.xml", sources[0].getAlias());
+    }
+    private static byte[] createZip(String[] names) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+        for(String name : names){
+            zipOutputStream.putNextEntry(new ZipEntry(name));
+            if(!name.endsWith("/")){
+                zipOutputStream.write(name.getBytes(StandardCharsets.UTF_8));
+            }
+            zipOutputStream.closeEntry();
+        }
+        zipOutputStream.close();
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,73 @@
+package com.reandroid.archive;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ValueType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+public class BlockInputSourceTest {
+    @Test
+    public void testCachedBytes() throws IOException {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example.package");
+        packageBlock.getOrCreate("", "string", "app_name").setValueAsString("name");
+        BlockInputSource<TableBlock> inputSource =
+                new BlockInputSource<>(TableBlock.FILE_NAME, tableBlock);
+
+        long length = inputSource.getLength();
+        long crc = inputSource.getCrc();
+        byte[] bytes = inputSource.getBytes();
+        Assert.assertEquals(bytes.length, length);
+        Assert.assertEquals(crc(bytes), crc);
+        Assert.assertArrayEquals(tableBlock.getBytes(), bytes);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Assert.assertEquals(bytes.length, inputSource.write(outputStream));
+        Assert.assertArrayEquals(bytes, outputStream.toByteArray());
+
+        inputSource.getBlock().getPackageArray().get(0)
+                .getOrCreate("", "string", "other").setValueAsString("other name");
+        byte[] modified = inputSource.getBytes();
+        Assert.assertNotEquals(bytes.length, modified.length);
+        Assert.assertArrayEquals(tableBlock.getBytes(), modified);
+        Assert.assertEquals(crc(modified), inputSource.getCrc());
+
+        inputSource.disposeInputSource();
+        Assert.assertArrayEquals(modified, inputSource.getBytes());
+    }
+    @Test
+    public void testSameSizeEdit() throws IOException {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example.package");
+        Entry entry = packageBlock.getOrCreate("", "integer", "value");
+        entry.setValueAsRaw(ValueType.DEC, 1);
+        BlockInputSource<TableBlock> inputSource =
+                new BlockInputSource<>(TableBlock.FILE_NAME, tableBlock);
+        long crc = inputSource.getCrc();
+        byte[] bytes = inputSource.getBytes();
+
+        // edit through outside reference, no change of size
+        entry.setValueAsRaw(ValueType.DEC, 2);
+        Assert.assertEquals(bytes.length, tableBlock.countBytes());
+        Assert.assertNotEquals(crc, inputSource.getCrc());
+        byte[] modified = inputSource.getBytes();
+        Assert.assertEquals(bytes.length, modified.length);
+        Assert.assertArrayEquals(tableBlock.getBytes(), modified);
+
+        entry.setValueAsRaw(ValueType.DEC, 3);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        inputSource.write(outputStream);
+        Assert.assertArrayEquals(tableBlock.getBytes(), outputStream.toByteArray());
+        Assert.assertEquals(crc(outputStream.toByteArray()), inputSource.getCrc());
+    }
+    private static long crc(byte[] bytes){
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes, 0, bytes.length);
+        return crc32.getValue();
+    }
+}
@@ -0,0 +1,185 @@
+package com.reandroid.archive.io;
+
+import com.reandroid.archive.ArchiveFile;
+import com.reandroid.utils.io.FileUtil;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class ZipFileInputTest {
+    @Test(timeout = 20000)
+    public void testTransferToWithoutProgress() throws IOException {
+        byte[] bytes = createBytes(300 * 1024, 1);
+        File file = writeFile("transfer.bin", bytes);
+        ZipFileInput zipFileInput = new ZipFileInput(file);
+        try{
+            StallingChannel channel = new StallingChannel(1);
+            zipFileInput.transferTo(10, bytes.length - 20, channel);
+            byte[] expected = new byte[bytes.length - 20];
+            System.arraycopy(bytes, 10, expected, 0, expected.length);
+            Assert.assertArrayEquals(expected, channel.toByteArray());
+
+            try{
+                zipFileInput.transferTo(0, bytes.length, new StallingChannel(Integer.MAX_VALUE));
+                Assert.fail("Expecting IOException");
+            }catch (IOException ignored){
+            }
+        }finally {
+            zipFileInput.close();
+            file.delete();
+        }
+    }
+    @Test
+    public void testConcurrentPositionalReads() throws Exception {
+        byte[] bytes = createBytes(512 * 1024, 2);
+        File file = writeFile("positional.bin", bytes);
+        ZipFileInput zipFileInput = new ZipFileInput(file);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try{
+            List<Future<?>> futureList = new ArrayList<>();
+            for(int i = 0; i < 64; i++){
+                int seed = i;
+                futureList.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for(int j = 0; j < 50; j++){
+                        int offset = random.nextInt(bytes.length);
+                        int length = random.nextInt(bytes.length - offset);
+                        byte[] expected = new byte[length];
+                        System.arraycopy(bytes, offset, expected, 0, length);
+                        ByteBuffer buffer = ByteBuffer.allocate(length);
+                        zipFileInput.read(offset, buffer);
+                        Assert.assertArrayEquals(expected, buffer.array());
+                        InputStream inputStream = zipFileInput.getInputStream(offset, length);
+                        Assert.assertArrayEquals(expected, IOUtil.readFully(inputStream));
+                        inputStream.close();
+                    }
+                    return null;
+                }));
+            }
+            for(Future<?> future : futureList){
+                future.get();
+            }
+            Assert.assertEquals(0, zipFileInput.position());
+        }finally {
+            executor.shutdown();
+            zipFileInput.close();
+            file.delete();
+        }
+    }
+    @Test
+    public void testParallelExtractAll() throws IOException {
+        File dir = new File(FileUtil.getTempDir(), "parallel_extract");
+        File zip = new File(dir, "archive.zip");
+        dir.mkdirs();
+        List<String> names = new ArrayList<>();
+        ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(zip));
+        for(int i = 0; i < 200; i++){
+            String name = "dir_" + (i % 7) + "/file_" + i + ".bin";
+            byte[] bytes = createBytes(i * 97, i);
+            ZipEntry zipEntry = new ZipEntry(name);
+            if(i % 3 == 0){
+                CRC32 crc32 = new CRC32();
+                crc32.update(bytes, 0, bytes.length);
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(bytes.length);
+                zipEntry.setCrc(crc32.getValue());
+            }
+            zipOutputStream.putNextEntry(zipEntry);
+            zipOutputStream.write(bytes);
+            zipOutputStream.closeEntry();
+            names.add(name);
+        }
+        zipOutputStream.close();
+
+        ArchiveFile archive = new ArchiveFile(zip);
+        File sequential = new File(dir, "sequential");
+        File parallel = new File(dir, "parallel");
+        try{
+            Assert.assertEquals(names.size(), archive.extractAll(sequential));
+            Assert.assertEquals(names.size(), archive.extractAll(parallel, 8));
+        }finally {
+            archive.close();
+        }
+        for(int i = 0; i < names.size(); i++){
+            String name = names.get(i);
+            byte[] expected = createBytes(i * 97, i);
+            Assert.assertArrayEquals(name, expected,
+                    Files.readAllBytes(new File(sequential, name).toPath()));
+            Assert.assertArrayEquals(name, expected,
+                    Files.readAllBytes(new File(parallel, name).toPath()));
+        }
+    }
+
+    private static byte[] createBytes(int length, int seed){
+        byte[] bytes = new byte[length];
+        Random random = new Random(seed);
+        byte[] words = "abcdefgh ".getBytes(StandardCharsets.UTF_8);
+        for(int i = 0; i < length; i++){
+            // partially compressible
+            if(i % 4 == 0){
+                bytes[i] = (byte) random.nextInt();
+            }else {
+                bytes[i] = words[i % words.length];
+            }
+        }
+        return bytes;
+    }
+    private static File writeFile(String name, byte[] bytes) throws IOException {
+        File dir = new File(FileUtil.getTempDir(), "zip_file_input");
+        dir.mkdirs();
+        File file = new File(dir, name);
+        Files.write(file.toPath(), bytes);
+        return file;
+    }
+    /**
+     * Accepts nothing for the first writes, then all bytes
+     * */
+    static class StallingChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        private int stalls;
+        StallingChannel(int stalls){
+            this.stalls = stalls;
+        }
+        @Override
+        public int write(ByteBuffer src) {
+            if(stalls > 0){
+                stalls --;
+                return 0;
+            }
+            int count = src.remaining();
+            byte[] bytes = new byte[count];
+            src.get(bytes);
+            outputStream.write(bytes, 0, count);
+            return count;
+        }
+        byte[] toByteArray(){
+            return outputStream.toByteArray();
+        }
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.reandroid.archive.writer;
+
+import com.reandroid.archive.Archive;
+import com.reandroid.archive.BlockInputSource;
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.archive.InputSource;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.utils.io.FileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+public class ApkWriterTest {
+    @Test
+    public void testParallelOutputIdentical() throws IOException {
+        File dir = new File(FileUtil.getTempDir(), "apk_writer");
+        byte[] sequential = write(new File(dir, "sequential.apk"), 1);
+        byte[] parallel = write(new File(dir, "parallel.apk"), 4);
+        Assert.assertArrayEquals(sequential, parallel);
+    }
+    @Test
+    public void testFailedWriteReleasesDeflater() throws IOException {
+        CountingDeflaterPool deflaterPool = new CountingDeflaterPool();
+        InputSource failing = new StreamInputSource("res/raw/failing.txt", new byte[100], true);
+        File dir = new File(FileUtil.getTempDir(), "apk_writer");
+        dir.mkdirs();
+        File bufferFile = new File(dir, "failing.buff");
+        BufferFileOutput output = new BufferFileOutput(bufferFile);
+        BufferFileInput input = new BufferFileInput(bufferFile);
+        try{
+            new OutputSource(failing).makeBuffer(input, output, deflaterPool);
+            Assert.fail("Expecting IOException");
+        }catch (IOException ignored){
+        }finally {
+            output.close();
+            input.close();
+            bufferFile.delete();
+        }
+        Assert.assertEquals(1, deflaterPool.obtained);
+        Assert.assertEquals(1, deflaterPool.released);
+        deflaterPool.close();
+    }
+
+    private static byte[] write(File file, int threadCount) throws IOException {
+        file.getParentFile().mkdirs();
+        ApkWriter apkWriter = new ApkWriter(file, createSources());
+        apkWriter.setThreadCount(threadCount);
+        apkWriter.write();
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        file.delete();
+        return bytes;
+    }
+    private static InputSource[] createSources(){
+        List<InputSource> results = new ArrayList<>();
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example.package");
+        for(int i = 0; i < 50; i++){
+            packageBlock.getOrCreate("", "string", "name_" + i).setValueAsString("value_" + i);
+        }
+        results.add(new BlockInputSource<>(TableBlock.FILE_NAME, tableBlock));
+        for(int i = 0; i < 40; i++){
+            StringBuilder builder = new StringBuilder();
+            for(int j = 0; j <= i * 50; j++){
+                builder.append("line ").append(j % (i + 1)).append('\n');
+            }
+            byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+            InputSource inputSource;
+            if(i % 2 == 0){
+                inputSource = new ByteInputSource(bytes, "res/raw/file_" + i + ".txt");
+            }else {
+                // not safe for concurrent reads, read on writer thread
+                inputSource = new StreamInputSource("assets/file_" + i + ".txt", bytes, false);
+            }
+            if(i % 5 == 0){
+                inputSource.setMethod(Archive.STORED);
+            }
+            results.add(inputSource);
+        }
+        return results.toArray(new InputSource[0]);
+    }
+
+    static class StreamInputSource extends InputSource {
+        private final byte[] bytes;
+        private final boolean fail;
+        StreamInputSource(String name, byte[] bytes, boolean fail){
+            super(name);
+            this.bytes = bytes;
+            this.fail = fail;
+        }
+        @Override
+        public long write(OutputStream outputStream) throws IOException {
+            if(fail){
+                outputStream.write(bytes, 0, bytes.length / 2);
+                throw new IOException("Write failed: " + getName());
+            }
+            return super.write(outputStream);
+        }
+        @Override
+        public InputStream openStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+    }
+    static class CountingDeflaterPool extends DeflaterPool {
+        int obtained;
+        int released;
+        CountingDeflaterPool(){
+            super(Deflater.BEST_SPEED);
+        }
+        @Override
+        Deflater obtain() {
+            obtained ++;
+            return super.obtain();
+        }
+        @Override
+        void release(Deflater deflater) {
+            released ++;
+            super.release(deflater);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.reandroid.arsc.array;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class SparseOffsetsArrayTest {
+    @Test
+    public void testIndexOf() {
+        SparseOffsetsArray offsetsArray = new SparseOffsetsArray();
+        Random random = new Random(7);
+        int size = 500;
+        offsetsArray.setSize(size);
+        for(int i = 0; i < size; i++){
+            offsetsArray.setIdx(i, random.nextInt(2000));
+        }
+        assertLookups(offsetsArray);
+        for(int i = 0; i < 200; i++){
+            int index = random.nextInt(size);
+            switch (i % 3){
+                case 0:
+                    offsetsArray.setIdx(index, random.nextInt(2000));
+                    break;
+                case 1:
+                    offsetsArray.setOffset(index, OffsetArray.NO_ENTRY);
+                    break;
+                default:
+                    offsetsArray.setIdx(index, OffsetArray.NO_ENTRY);
+                    break;
+            }
+            assertLookups(offsetsArray);
+        }
+        offsetsArray.ensureIdxSize(size + 10);
+        offsetsArray.setIdx(size + 9, 0xffff);
+        assertLookups(offsetsArray);
+        Assert.assertEquals(0xffff, offsetsArray.getHighestId());
+        offsetsArray.setSize(size / 2);
+        assertLookups(offsetsArray);
+        offsetsArray.setSize(0);
+        Assert.assertEquals(0, offsetsArray.getHighestId());
+        Assert.assertEquals(OffsetArray.NO_ENTRY, offsetsArray.indexOf(0));
+    }
+    @Test
+    public void testOffsetKeepsIdx() {
+        SparseOffsetsArray offsetsArray = new SparseOffsetsArray();
+        offsetsArray.setSize(3);
+        offsetsArray.setIdx(0, 5);
+        offsetsArray.setIdx(1, 9);
+        offsetsArray.setIdx(2, 7);
+        offsetsArray.setOffset(1, 64);
+        Assert.assertEquals(1, offsetsArray.indexOf(9));
+        Assert.assertEquals(64, offsetsArray.getOffset(1));
+        Assert.assertEquals(9, offsetsArray.getHighestId());
+    }
+    private static void assertLookups(SparseOffsetsArray offsetsArray){
+        int size = offsetsArray.size();
+        int highest = OffsetArray.NO_ENTRY;
+        for(int i = 0; i < size; i++){
+            int id = offsetsArray.getIdx(i);
+            if(id > highest){
+                highest = id;
+            }
+        }
+        if(highest == OffsetArray.NO_ENTRY){
+            highest = 0;
+        }
+        Assert.assertEquals(highest, offsetsArray.getHighestId());
+        for(int id = 0; id <= 2000; id++){
+            Assert.assertEquals(linearIndexOf(offsetsArray, id), offsetsArray.indexOf(id));
+        }
+    }
+    private static int linearIndexOf(SparseOffsetsArray offsetsArray, int id){
+        int size = offsetsArray.size();
+        for(int i = 0; i < size; i++){
+            if(id == offsetsArray.getIdx(i)){
+                return i;
+            }
+        }
+        return OffsetArray.NO_ENTRY;
+    }
+}
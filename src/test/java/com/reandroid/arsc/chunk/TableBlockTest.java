@@ -0,0 +1,349 @@
+package com.reandroid.arsc.chunk;
+
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.item.StringItem;
+import com.reandroid.arsc.pool.TableStringPool;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.xml.StyleDocument;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class TableBlockTest {
+    @Test
+    public void testIncrementalRefresh() throws IOException {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example.package");
+        for(int i = 0; i < 200; i++){
+            packageBlock.getOrCreate("", "string", "name_" + i)
+                    .setValueAsString("value_" + i);
+            packageBlock.getOrCreate("-de", "string", "name_" + i)
+                    .setValueAsString("de_value_" + i);
+            packageBlock.getOrCreate("", "bool", "bool_" + i)
+                    .setValueAsBoolean((i % 2) == 0);
+        }
+        tableBlock.refresh();
+        byte[] bytes = tableBlock.getBytes();
+
+        TableBlock incremental = TableBlock.load(new ByteArrayInputStream(bytes));
+        TableBlock full = TableBlock.load(new ByteArrayInputStream(bytes));
+        Assert.assertFalse(incremental.isRefreshPending());
+        incremental.refresh(true);
+        Assert.assertArrayEquals(bytes, incremental.getBytes());
+
+        edit(incremental);
+        edit(full);
+        Assert.assertTrue(incremental.isRefreshPending());
+        Assert.assertFalse(incremental.pickOne().getSpecTypePair("bool").isRefreshPending());
+
+        incremental.refresh(true);
+        full.refresh();
+        Assert.assertFalse(incremental.isRefreshPending());
+        byte[] expected = full.getBytes();
+        Assert.assertArrayEquals(expected, incremental.getBytes());
+        TableBlock loaded = TableBlock.load(new ByteArrayInputStream(expected));
+        Assert.assertEquals("a much longer value than before",
+                loaded.pickOne().getResource(getResourceId(loaded, "string", "name_10"))
+                        .get().getResValue().getValueAsString());
+    }
+    @Test
+    public void testIncrementalRefreshReordered() throws IOException, XmlPullParserException {
+        byte[] bytes = buildTable();
+        Assert.assertEquals(1, TableBlock.load(new ByteArrayInputStream(bytes))
+                .getStringPool().countStyles());
+        byte[] sorted = assertIncremental(bytes,
+                tableBlock -> tableBlock.getStringPool().sort());
+        Assert.assertFalse(Arrays.equals(bytes, sorted));
+        sorted = assertIncremental(bytes, tableBlock -> tableBlock.pickOne().sortTypes());
+        Assert.assertFalse(Arrays.equals(bytes, sorted));
+
+        // styled strings are inserted before plain strings
+        StyleDocument styled = StyleDocument.parseStyledString("<b>new</b> styled");
+        assertIncremental(bytes, tableBlock -> tableBlock.pickOne()
+                .getOrCreate("", "string", "name_3").setValueAsString(styled));
+        assertIncremental(bytes, tableBlock -> {
+            tableBlock.pickOne().getOrCreate("", "string", "name_20")
+                    .setValueAsString("value_20_replaced");
+            Assert.assertEquals(1, tableBlock.getStringPool().removeUnusedStrings().size());
+        });
+        assertIncremental(bytes,
+                tableBlock -> getString(tableBlock, "a_21").set("a_21 grown much longer than before"),
+                tableBlock -> getString(tableBlock, "a_21 grown much longer than before").set("a_21"));
+    }
+    @Test
+    public void testReadFileNotMappedByDefault() throws IOException {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example.package");
+        int count = 20000;
+        for(int i = 0; i < count; i++){
+            packageBlock.getOrCreate("", "string", "name_" + i)
+                    .setValueAsString("value_" + i + "_padded_to_make_file_large_enough");
+        }
+        tableBlock.refresh();
+        File file = File.createTempFile("table", ".arsc");
+        file.deleteOnExit();
+        int length = tableBlock.writeBytes(file);
+        Assert.assertTrue(length > 1024 * 1024);
+
+        byte[] bytes = tableBlock.getBytes();
+        TableBlock mapped = TableBlock.loadLazy(file, true);
+        Assert.assertEquals(getValue(tableBlock, "", "name_7"), getValue(mapped, "", "name_7"));
+        Assert.assertArrayEquals(bytes, mapped.getBytes());
+        Assert.assertArrayEquals(bytes, TableBlock.load(file, true).getBytes());
+
+        TableBlock loaded = new TableBlock();
+        loaded.setLazyLoadStrings(true);
+        loaded.readBytes(file);
+        // source is free to change once read
+        OutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(new byte[length]);
+        outputStream.close();
+        for(int i = 0; i < count; i += 97){
+            Assert.assertEquals("value_" + i + "_padded_to_make_file_large_enough",
+                    getValue(loaded, "", "name_" + i));
+        }
+        file.delete();
+    }
+    @Test
+    public void testLazyTypesRoundTrip() throws IOException, XmlPullParserException {
+        byte[] bytes = buildTable();
+        TableBlock eager = TableBlock.load(new ByteArrayInputStream(bytes));
+        TableBlock lazy = loadLazyTypes(bytes);
+        List<TypeBlock> typeBlocks = listTypeBlocks(lazy);
+        Assert.assertFalse(typeBlocks.isEmpty());
+        for(TypeBlock typeBlock : typeBlocks){
+            Assert.assertFalse(typeBlock.isEntriesLoaded());
+        }
+        for(int i = 0; i < 50; i++){
+            String name = "name_" + i;
+            Assert.assertEquals(getValue(eager, "", name), getValue(lazy, "", name));
+            Assert.assertEquals(getValue(eager, "-fr", name), getValue(lazy, "-fr", name));
+        }
+        Assert.assertEquals(eager.toJson().toString(), lazy.toJson().toString());
+        Assert.assertArrayEquals(bytes, lazy.getBytes());
+        for(TypeBlock typeBlock : typeBlocks){
+            Assert.assertTrue(typeBlock.isEntriesLoaded());
+        }
+        // same edits on both, no string pool change
+        Consumer<TableBlock> edit = tableBlock -> tableBlock.pickOne()
+                .getOrCreate("-de", "bool", "flag").setValueAsBoolean(true);
+        edit.accept(eager);
+        edit.accept(lazy);
+        eager.refresh();
+        lazy.refresh();
+        Assert.assertArrayEquals(eager.getBytes(), lazy.getBytes());
+    }
+    @Test
+    public void testReleaseLazyTypes() throws IOException, XmlPullParserException {
+        byte[] bytes = buildTable();
+        TableBlock eager = TableBlock.load(new ByteArrayInputStream(bytes));
+        TableBlock lazy = loadLazyTypes(bytes);
+        int resourceId = getResourceId(eager, "string", "name_3");
+        String expected = getValue(eager, "-fr", "name_3");
+        // lookup by id does not link spec strings
+        Assert.assertEquals(expected, getValue(lazy, resourceId, "-fr"));
+        Assert.assertEquals(0, new TableBlock().releaseLoadedTypes());
+        int loaded = 0;
+        for(TypeBlock typeBlock : listTypeBlocks(lazy)){
+            if(typeBlock.isEntriesLoaded()){
+                loaded ++;
+            }
+        }
+        Assert.assertTrue(loaded > 0);
+        Assert.assertEquals(loaded, lazy.releaseLoadedTypes());
+        for(TypeBlock typeBlock : listTypeBlocks(lazy)){
+            Assert.assertFalse(typeBlock.isEntriesLoaded());
+            Assert.assertFalse(typeBlock.releaseEntries());
+        }
+        Assert.assertFalse(lazy.isRefreshPending());
+
+        // reload after release
+        Assert.assertEquals(expected, getValue(lazy, resourceId, "-fr"));
+        Assert.assertArrayEquals(bytes, lazy.getBytes());
+
+        // unsaved changes are discarded on release
+        Entry entry = lazy.getResource(resourceId).get("-fr");
+        TypeBlock typeBlock = entry.getTypeBlock();
+        entry.setNull(true);
+        Assert.assertNull(lazy.getResource(resourceId).get("-fr"));
+        Assert.assertTrue(typeBlock.releaseEntries());
+        Assert.assertEquals(expected, getValue(lazy, resourceId, "-fr"));
+        lazy.refresh();
+        Assert.assertArrayEquals(bytes, lazy.getBytes());
+
+        // eagerly read types have nothing to release
+        Assert.assertEquals(0, eager.releaseLoadedTypes());
+    }
+    @Test
+    public void testReleaseAfterStringsLinked() throws IOException, XmlPullParserException {
+        byte[] bytes = buildTable();
+        TableBlock lazy = loadLazyTypes(bytes);
+        TypeBlock typeBlock = lazy.pickOne().getSpecTypePair("string")
+                .getTypeBlockArray().get(0);
+        Assert.assertNotNull(typeBlock.getEntryArray());
+        Assert.assertTrue(typeBlock.isEntriesLoaded());
+        Assert.assertTrue(lazy.pickOne().getSpecStringPool().isStringLinkLocked());
+
+        // lookup by name links spec string references of all entries
+        Assert.assertNotNull(lazy.pickOne().getResource("string", "name_3"));
+        Assert.assertFalse(lazy.pickOne().getSpecStringPool().isStringLinkLocked());
+        Assert.assertFalse(typeBlock.releaseEntries());
+        Assert.assertEquals(0, lazy.releaseLoadedTypes());
+        Assert.assertTrue(typeBlock.isEntriesLoaded());
+
+        lazy.pickOne().getOrCreate("", "string", "new_name").setValueAsString("new value");
+        lazy.refresh();
+        TableBlock reloaded = TableBlock.load(new ByteArrayInputStream(lazy.getBytes()));
+        Assert.assertEquals("new value", getValue(reloaded, "", "new_name"));
+        for(int i = 0; i < 50; i++){
+            String name = "name_" + i;
+            Assert.assertEquals(getValue(lazy, "", name), getValue(reloaded, "", name));
+            Assert.assertEquals(getValue(lazy, "-fr", name), getValue(reloaded, "-fr", name));
+        }
+    }
+    @Test
+    public void testSortAfterRefresh() throws IOException {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example.package");
+        for(int i = 0; i < 50; i++){
+            String prefix = (i % 2) == 0 ? "zzzz_long_value_here_" : "a_";
+            packageBlock.getOrCreate("", "string", "name_" + i)
+                    .setValueAsString(prefix + i);
+        }
+        tableBlock.refresh();
+        TableBlock loaded = TableBlock.load(new ByteArrayInputStream(tableBlock.getBytes()));
+        loaded.refresh();
+        loaded.getBytes();
+        loaded.getStringPool().sort();
+        loaded.pickOne().getSpecStringPool().sort();
+        loaded.refresh();
+
+        TableBlock reloaded = TableBlock.load(new ByteArrayInputStream(loaded.getBytes()));
+        for(int i = 0; i < 50; i++){
+            String prefix = (i % 2) == 0 ? "zzzz_long_value_here_" : "a_";
+            Assert.assertEquals(prefix + i, reloaded.pickOne()
+                    .getResource(getResourceId(reloaded, "string", "name_" + i))
+                    .get().getResValue().getValueAsString());
+        }
+    }
+    @Test
+    public void testMergeAll() throws IOException {
+        List<TableBlock> tableList = new ArrayList<>();
+        String[] configs = new String[]{"", "-de", "-xhdpi", "-fr-xxhdpi"};
+        for(String config : configs){
+            TableBlock tableBlock = new TableBlock();
+            PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example.package");
+            for(int i = 0; i < 50; i++){
+                packageBlock.getOrCreate(config, "string", "name_" + i)
+                        .setValueAsString("value" + config + "_" + i);
+                packageBlock.getOrCreate(config, "bool", "bool_" + i)
+                        .setValueAsBoolean((i % 2) == 0);
+            }
+            tableBlock.refresh();
+            tableList.add(TableBlock.load(new ByteArrayInputStream(tableBlock.getBytes())));
+        }
+        TableBlock sequential = new TableBlock();
+        for(TableBlock tableBlock : tableList){
+            sequential.merge(tableBlock);
+        }
+        TableBlock merged = new TableBlock();
+        merged.merge(tableList);
+        Assert.assertArrayEquals(sequential.getBytes(), merged.getBytes());
+        Assert.assertEquals(configs.length, merged.pickOne()
+                .getSpecTypePair("string").getTypeBlockArray().childesCount());
+    }
+    @SafeVarargs
+    private static byte[] assertIncremental(byte[] bytes, Consumer<TableBlock>... edits) throws IOException {
+        TableBlock incremental = TableBlock.load(new ByteArrayInputStream(bytes));
+        TableBlock full = TableBlock.load(new ByteArrayInputStream(bytes));
+        incremental.refresh();
+        Assert.assertArrayEquals(bytes, incremental.getBytes());
+        for(Consumer<TableBlock> edit : edits){
+            edit.accept(incremental);
+            edit.accept(full);
+            incremental.refresh(true);
+            full.refresh();
+            Assert.assertArrayEquals(full.getBytes(), incremental.getBytes());
+        }
+        byte[] expected = full.getBytes();
+        TableBlock loaded = TableBlock.load(new ByteArrayInputStream(expected));
+        Assert.assertArrayEquals(expected, loaded.getBytes());
+        for(int i = 0; i < 50; i++){
+            String name = "name_" + i;
+            Assert.assertEquals(getValue(full, "", name), getValue(loaded, "", name));
+            Assert.assertEquals(getValue(full, "-fr", name), getValue(loaded, "-fr", name));
+        }
+        return expected;
+    }
+    private static TableBlock loadLazyTypes(byte[] bytes) throws IOException {
+        TableBlock tableBlock = new TableBlock();
+        tableBlock.setLazyLoadTypes(true);
+        tableBlock.readBytes(new ByteArrayInputStream(bytes));
+        return tableBlock;
+    }
+    private static List<TypeBlock> listTypeBlocks(TableBlock tableBlock){
+        List<TypeBlock> results = new ArrayList<>();
+        for(PackageBlock packageBlock : tableBlock.listPackages()){
+            for(SpecTypePair specTypePair : packageBlock.listSpecTypePairs()){
+                Iterator<TypeBlock> iterator = specTypePair.getTypeBlocks();
+                while (iterator.hasNext()){
+                    results.add(iterator.next());
+                }
+            }
+        }
+        return results;
+    }
+    private static byte[] buildTable() throws IOException, XmlPullParserException {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example.package");
+        for(int i = 0; i < 50; i++){
+            String prefix = (i % 2) == 0 ? "zzzz_long_value_here_" : "a_";
+            packageBlock.getOrCreate("-fr", "string", "name_" + i)
+                    .setValueAsString("fr_" + i);
+            packageBlock.getOrCreate("", "string", "name_" + i)
+                    .setValueAsString(prefix + i);
+        }
+        packageBlock.getOrCreate("", "string", "styled_0")
+                .setValueAsString(StyleDocument.parseStyledString("<i>old</i> styled"));
+        packageBlock.getOrCreate("", "bool", "bool_0").setValueAsBoolean(true);
+        packageBlock.getOrCreate("", "attr", "attr_0").setValueAsBoolean(true);
+        tableBlock.refresh();
+        return tableBlock.getBytes();
+    }
+    private static String getValue(TableBlock tableBlock, String qualifiers, String name){
+        return tableBlock.pickOne().getOrCreate(qualifiers, "string", name)
+                .getResValue().getValueAsString();
+    }
+    private static String getValue(TableBlock tableBlock, int resourceId, String qualifiers){
+        return tableBlock.getResource(resourceId).get(qualifiers)
+                .getResValue().getValueAsString();
+    }
+    private static StringItem getString(TableBlock tableBlock, String str){
+        TableStringPool stringPool = tableBlock.getStringPool();
+        stringPool.refreshUniqueIdMap();
+        return stringPool.get(str).get(0);
+    }
+    private static void edit(TableBlock tableBlock){
+        PackageBlock packageBlock = tableBlock.pickOne();
+        packageBlock.getOrCreate("", "string", "name_10")
+                .setValueAsString("a much longer value than before");
+        packageBlock.getOrCreate("-de", "string", "name_500")
+                .setValueAsString("de_value_500");
+        Entry entry = packageBlock.getOrCreate("-de", "string", "name_20");
+        entry.setNull(true);
+    }
+    private static int getResourceId(TableBlock tableBlock, String type, String name){
+        return tableBlock.pickOne().getOrCreate("", type, name).getResourceId();
+    }
+}
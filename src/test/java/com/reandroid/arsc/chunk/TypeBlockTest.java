@@ -0,0 +1,204 @@
+package com.reandroid.arsc.chunk;
+
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.json.JSONArray;
+import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+
+public class TypeBlockTest {
+    @Test
+    public void testOptimizeLayout() throws IOException {
+        TableBlock tableBlock = buildTable();
+        tableBlock.refresh();
+        byte[] original = tableBlock.getBytes();
+
+        Assert.assertEquals(1, tableBlock.optimizeTypeLayouts(TypeBlock.SDK_SPARSE));
+        tableBlock.refresh();
+        byte[] sparse = tableBlock.getBytes();
+        Assert.assertTrue(sparse.length < original.length);
+        TableBlock loaded = TableBlock.load(new ByteArrayInputStream(sparse));
+        Assert.assertTrue(getTypeBlock(loaded, "de").isSparse());
+        Assert.assertFalse(getTypeBlock(loaded, "").isSparse());
+        assertEntries(loaded);
+        Assert.assertArrayEquals(sparse, loaded.getBytes());
+
+        Assert.assertEquals(1, loaded.optimizeTypeLayouts(TypeBlock.SDK_OFFSET16));
+        loaded.refresh();
+        byte[] offset16 = loaded.getBytes();
+        Assert.assertTrue(offset16.length < sparse.length);
+        loaded = TableBlock.load(new ByteArrayInputStream(offset16));
+        Assert.assertTrue(getTypeBlock(loaded, "").isOffset16());
+        Assert.assertTrue(getTypeBlock(loaded, "de").isSparse());
+        assertEntries(loaded);
+        Assert.assertArrayEquals(offset16, loaded.getBytes());
+
+        Assert.assertEquals(2, loaded.optimizeTypeLayouts(0));
+        loaded.refresh();
+        Assert.assertArrayEquals(original, loaded.getBytes());
+    }
+    @Test
+    public void testReadJsonKeyOrder() throws IOException {
+        TableBlock tableBlock = buildTable();
+        Assert.assertEquals(1, tableBlock.optimizeTypeLayouts(TypeBlock.SDK_SPARSE));
+        tableBlock.refresh();
+        JSONObject json = tableBlock.toJson();
+        TableBlock expected = new TableBlock();
+        expected.readJson(new JSONReader(new StringReader(json.toString())));
+
+        Assert.assertEquals(2, reorderIsSparse(json));
+        TableBlock loaded = new TableBlock();
+        loaded.readJson(new JSONReader(new StringReader(json.toString())));
+        Assert.assertTrue(getTypeBlock(loaded, "de").isSparse());
+        Assert.assertFalse(getTypeBlock(loaded, "").isSparse());
+        assertEntries(loaded);
+        Assert.assertArrayEquals(expected.getBytes(), loaded.getBytes());
+    }
+    @Test
+    public void testLargeOffsets() throws IOException {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example.package");
+        for(int i = 0; i < LARGE_COUNT; i++){
+            packageBlock.getOrCreate("", "integer", "int_" + i)
+                    .setValueAsRaw(ValueType.DEC, i);
+            if((i % 2) == 0){
+                packageBlock.getOrCreate("-de", "integer", "int_" + i)
+                        .setValueAsRaw(ValueType.DEC, i);
+            }
+            if(i < 4000 && (i % 8) == 0){
+                packageBlock.getOrCreate("-fr", "integer", "int_" + i)
+                        .setValueAsRaw(ValueType.DEC, i);
+            }
+        }
+        packageBlock.getOrCreate("", "integer", "int_5").setNull(true);
+        tableBlock.refresh();
+
+        // default: single null entry is too dense, de: offsets above 256KB, fr: sparse
+        Assert.assertEquals(1, tableBlock.optimizeTypeLayouts(TypeBlock.SDK_SPARSE));
+        Assert.assertFalse(getTypeBlock(tableBlock, "integer", "").isSparse());
+        TypeBlock de = getTypeBlock(tableBlock, "integer", "de");
+        Assert.assertFalse(de.isSparse());
+        try{
+            de.setLayout(true, false);
+            Assert.fail("Sparse layout with offsets above 256KB");
+        }catch (IllegalArgumentException ignored){
+        }
+        TypeBlock fr = getTypeBlock(tableBlock, "integer", "fr");
+        Assert.assertTrue(fr.isSparse());
+        tableBlock.refresh();
+
+        // grows beyond sparse offsets limit, falls back to 32-bit offsets on refresh
+        for(int i = 4001; i < LARGE_COUNT; i += 2){
+            fr.getOrCreateEntry((short) i).setValueAsRaw(ValueType.DEC, i);
+        }
+        tableBlock.refresh();
+        Assert.assertFalse(fr.isSparse());
+
+        TableBlock loaded = TableBlock.load(new ByteArrayInputStream(tableBlock.getBytes()));
+        TypeBlock loadedDefault = getTypeBlock(loaded, "integer", "");
+        TypeBlock loadedDe = getTypeBlock(loaded, "integer", "de");
+        TypeBlock loadedFr = getTypeBlock(loaded, "integer", "fr");
+        for(int i = 0; i < LARGE_COUNT; i++){
+            Entry entry = loadedDefault.getEntry((short) i);
+            if(i == 5){
+                Assert.assertTrue(entry.isNull());
+            }else {
+                Assert.assertEquals(i, entry.getResValue().getData());
+            }
+            if((i % 2) == 0){
+                Assert.assertEquals(i, loadedDe.getEntry((short) i).getResValue().getData());
+            }
+            if((i < 4000 && (i % 8) == 0) || (i > 4000 && (i % 2) == 1)){
+                Assert.assertEquals(i, loadedFr.getEntry((short) i).getResValue().getData());
+            }
+        }
+    }
+    private static TableBlock buildTable(){
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example.package");
+        for(int i = 0; i < COUNT; i++){
+            packageBlock.getOrCreate("", "string", "name_" + i)
+                    .setValueAsString("value_" + i);
+        }
+        for(int i = 0; i < COUNT; i += 40){
+            packageBlock.getOrCreate("-de", "string", "name_" + i)
+                    .setValueAsString("de_value_" + i);
+        }
+        return tableBlock;
+    }
+    private static void assertEntries(TableBlock tableBlock){
+        PackageBlock packageBlock = tableBlock.pickOne();
+        for(int i = 0; i < COUNT; i++){
+            Entry entry = getTypeBlock(tableBlock, "").getEntry((short) i);
+            Assert.assertEquals("name_" + i, entry.getName());
+            Assert.assertEquals("value_" + i, entry.getResValue().getValueAsString());
+            Entry de = getTypeBlock(tableBlock, "de").getEntry((short) i);
+            if(i % 40 == 0){
+                Assert.assertEquals("de_value_" + i, de.getResValue().getValueAsString());
+            }else {
+                Assert.assertTrue(de == null || de.isNull());
+            }
+        }
+        Assert.assertNotNull(packageBlock.getResource(0x7f010000 | (COUNT - 1)));
+    }
+    private static TypeBlock getTypeBlock(TableBlock tableBlock, String qualifiers){
+        return getTypeBlock(tableBlock, "string", qualifiers);
+    }
+    private static TypeBlock getTypeBlock(TableBlock tableBlock, String type, String qualifiers){
+        Iterator<TypeBlock> iterator = tableBlock.pickOne()
+                .getSpecTypePair(type).getTypeBlocks();
+        while (iterator.hasNext()){
+            TypeBlock typeBlock = iterator.next();
+            if(typeBlock.getResConfig().getQualifiers().equals(qualifiers.length() == 0 ? "" : "-" + qualifiers)){
+                return typeBlock;
+            }
+        }
+        return null;
+    }
+
+    private static final int COUNT = 200;
+    private static final int LARGE_COUNT = 40000;
+    // moves is_sparse of sparse types to last key, puts is_sparse=false first on dense types
+    private static int reorderIsSparse(Object json){
+        int result = 0;
+        if(json instanceof JSONArray){
+            JSONArray jsonArray = (JSONArray) json;
+            for(int i = 0; i < jsonArray.length(); i++){
+                result += reorderIsSparse(jsonArray.get(i));
+            }
+            return result;
+        }
+        if(!(json instanceof JSONObject)){
+            return 0;
+        }
+        JSONObject jsonObject = (JSONObject) json;
+        List<String> keys = new ArrayList<>(jsonObject.keySet());
+        if(keys.contains(TypeBlock.NAME_entries) && keys.contains(TypeBlock.NAME_config)){
+            Object sparse = jsonObject.remove(TypeBlock.NAME_is_sparse);
+            if(sparse != null){
+                jsonObject.put(TypeBlock.NAME_is_sparse, sparse);
+            }else {
+                Map<String, Object> values = new LinkedHashMap<>();
+                for(String key : keys){
+                    values.put(key, jsonObject.remove(key));
+                }
+                jsonObject.put(TypeBlock.NAME_is_sparse, false);
+                for(Map.Entry<String, Object> entry : values.entrySet()){
+                    jsonObject.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return 1;
+        }
+        for(String key : keys){
+            result += reorderIsSparse(jsonObject.get(key));
+        }
+        return result;
+    }
+}
@@ -3,6 +3,9 @@ package com.reandroid.arsc.chunk.xml;
 import com.reandroid.apk.AndroidFrameworks;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.model.ResourceLibrary;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.json.JSONObject;
+import com.reandroid.json.JSONWriter;
 import com.reandroid.xml.XMLFactory;
 import org.junit.Assert;
 import org.junit.Test;
@@ -113,6 +116,43 @@ public class ResXmlDocumentTest {
         Assert.assertEquals("Attribute count", 0, root.getAttributeCount());
     }
     @Test
+    public void testIndexedLookup(){
+        ResXmlDocument document = new ResXmlDocument();
+        ResXmlElement root = document.getOrCreateElement("manifest");
+        for(int i = 0; i < 40; i++){
+            root.getOrCreateAttribute(null, null, "attr_" + i, 0)
+                    .setValueAsString("value_" + i);
+            root.getOrCreateAndroidAttribute("id_" + i, 0x01010000 + i)
+                    .setTypeAndData(ValueType.DEC, i);
+            root.createChildElement((i % 2) == 0 ? "activity" : "service");
+        }
+        Assert.assertEquals("value_25", root.searchAttributeByName("attr_25").getValueAsString());
+        Assert.assertEquals(25, root.searchAttributeByResourceId(0x01010019).getData());
+        Assert.assertEquals(20, root.listElements("activity").size());
+        Assert.assertEquals(20, root.listElements("service").size());
+
+        ResXmlAttribute attribute = root.searchAttributeByName("attr_10");
+        attribute.setName("renamed", 0);
+        Assert.assertNull(root.searchAttributeByName("attr_10"));
+        Assert.assertSame(attribute, root.searchAttributeByName("renamed"));
+        root.removeAttribute(root.searchAttributeByResourceId(0x01010019));
+        Assert.assertNull(root.searchAttributeByResourceId(0x01010019));
+        document.refresh();
+        Assert.assertEquals(30, root.searchAttributeByResourceId(0x0101001e).getData());
+
+        ResXmlElement child = root.listElements("activity").get(3);
+        child.setName("receiver");
+        Assert.assertEquals(19, root.listElements("activity").size());
+        Assert.assertSame(child, root.getElementByTagName("receiver"));
+        ResXmlElement last = root.createChildElement("provider");
+        Assert.assertSame(last, root.getElementByTagName("provider"));
+        last.setName("activity");
+        Assert.assertNull(root.getElementByTagName("provider"));
+        Assert.assertSame(last, root.listElements("activity").get(19));
+        root.removeElement(root.getElementByTagName("service"));
+        Assert.assertEquals(19, root.listElements("service").size());
+    }
+    @Test
     public void testEncodeDecodeXml() throws XmlPullParserException, IOException {
         ResXmlDocument document = new ResXmlDocument();
         document.setPackageBlock(createDummy().pickOne());
@@ -140,6 +180,20 @@ public class ResXmlDocumentTest {
         decoded = decoded.replaceAll("\\s+", "");
         Assert.assertEquals(org, decoded);
     }
+    @Test
+    public void testWriteJson() throws XmlPullParserException, IOException {
+        ResXmlDocument document = new ResXmlDocument();
+        document.setPackageBlock(createDummy().pickOne());
+        document.parse(XMLFactory.newPullParser(XML_STRING));
+
+        StringWriter writer = new StringWriter();
+        JSONWriter jsonWriter = new JSONWriter(writer);
+        document.writeJson(jsonWriter);
+        jsonWriter.flush();
+
+        JSONObject streamed = new JSONObject(writer.toString());
+        Assert.assertEquals(document.toJson().toString(), streamed.toString());
+    }
     private static TableBlock createDummy() throws IOException {
         TableBlock tableBlock = new TableBlock();
         tableBlock.newPackage(0x7f, "com.example.package");
@@ -0,0 +1,104 @@
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.apk.AndroidFrameworks;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.model.ResourceLibrary;
+import com.reandroid.xml.XMLFactory;
+import com.reandroid.xml.XmlParserToSerializer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+
+public class ResXmlStreamParserTest {
+    @Test
+    public void testSameAsPullParser() throws XmlPullParserException, IOException {
+        PackageBlock packageBlock = createDummy().pickOne();
+        byte[] bytes = buildDocument(packageBlock);
+        String expected = serialize(new ResXmlPullParser(packageBlock), bytes);
+        Assert.assertEquals(expected, serialize(new ResXmlStreamParser(packageBlock), bytes));
+        ResXmlStreamParser parser = new ResXmlStreamParser(packageBlock);
+        Assert.assertEquals(expected, serialize(parser, bytes));
+        Assert.assertEquals(expected, serialize(parser, bytes));
+    }
+    @Test
+    public void testAttributeLookup() throws XmlPullParserException, IOException {
+        PackageBlock packageBlock = createDummy().pickOne();
+        byte[] bytes = buildDocument(packageBlock);
+        ResXmlStreamParser parser = new ResXmlStreamParser();
+        parser.setInput(new ByteArrayInputStream(bytes), null);
+        Assert.assertEquals(XmlPullParser.START_DOCUMENT, parser.next());
+        Assert.assertEquals(XmlPullParser.START_TAG, parser.next());
+        Assert.assertEquals("manifest", parser.getName());
+        Assert.assertEquals(0, parser.getDepth());
+        Assert.assertEquals("com.example.package", parser.getAttributeValue(null, "package"));
+        Assert.assertEquals(1, parser.getAttributeIntValue(ResourceLibrary.URI_ANDROID, "versionCode", -1));
+        Assert.assertEquals(-1, parser.getAttributeIntValue(ResourceLibrary.URI_ANDROID, "missing", -1));
+        Assert.assertEquals(ResourceLibrary.URI_ANDROID, parser.getNamespace("android"));
+
+        Assert.assertEquals(XmlPullParser.START_TAG, parser.nextTag());
+        Assert.assertEquals("uses-sdk", parser.getName());
+        Assert.assertEquals(1, parser.getDepth());
+        Assert.assertEquals(21, parser.getAttributeIntValue(ResourceLibrary.URI_ANDROID, "minSdkVersion", -1));
+        Assert.assertFalse(parser.isEmptyElementTag());
+
+        int event = parser.next();
+        String text = null;
+        while (event != XmlPullParser.END_DOCUMENT){
+            if(event == XmlPullParser.START_TAG && "empty".equals(parser.getName())){
+                Assert.assertTrue(parser.isEmptyElementTag());
+            }
+            if(event == XmlPullParser.TEXT){
+                text = parser.getText();
+                Assert.assertEquals(3, parser.getDepth());
+            }
+            event = parser.next();
+        }
+        Assert.assertEquals("Some text", text);
+        Assert.assertEquals(XmlPullParser.END_DOCUMENT, parser.next());
+        parser.close();
+        Assert.assertEquals(-1, parser.next());
+    }
+    private static String serialize(XmlPullParser parser, byte[] bytes) throws XmlPullParserException, IOException {
+        parser.setInput(new ByteArrayInputStream(bytes), null);
+        StringWriter writer = new StringWriter();
+        XmlParserToSerializer parserToSerializer = new XmlParserToSerializer(parser,
+                XMLFactory.newSerializer(writer));
+        parserToSerializer.write();
+        return writer.toString();
+    }
+    private static byte[] buildDocument(PackageBlock packageBlock) throws XmlPullParserException, IOException {
+        ResXmlDocument document = new ResXmlDocument();
+        document.setPackageBlock(packageBlock);
+        document.parse(XMLFactory.newPullParser(XML_STRING));
+        document.refresh();
+        return document.getBytes();
+    }
+    private static TableBlock createDummy() throws IOException {
+        TableBlock tableBlock = new TableBlock();
+        tableBlock.newPackage(0x7f, "com.example.package");
+        tableBlock.refresh();
+        tableBlock.addFramework(AndroidFrameworks.getLatest().getTableBlock());
+        return tableBlock;
+    }
+    private static final String XML_STRING = "<?xml version='1.0' encoding='utf-8' ?>\n" +
+            "<manifest android:configChanges=\"keyboardHidden|orientation|screenSize\"\n" +
+            "          android:versionCode=\"1\"\n"+
+            "          android:versionName=\"1.0\"\n" +
+            "          package=\"com.example.package\"\n" +
+            "          style=\"@android:style/Widget\"" +
+            "          xmlns:app=\"http://schemas.android.com/apk/res-auto\""+
+            "          xmlns:android=\"http://schemas.android.com/apk/res/android\">\n" +
+            "  <uses-sdk android:minSdkVersion=\"21\"\n" +
+            "            android:targetSdkVersion=\"32\" />\n" +
+            "  <application android:label=\"Label &amp; name\">\n" +
+            "    <meta-data>Some text</meta-data>\n" +
+            "    <empty/>\n" +
+            "  </application>\n" +
+            "</manifest>";
+}
@@ -0,0 +1,159 @@
+package com.reandroid.arsc.item;
+
+import com.reandroid.arsc.array.OffsetArray;
+import com.reandroid.arsc.array.ShortOffsetArray;
+import com.reandroid.arsc.array.SparseOffsetsArray;
+import com.reandroid.arsc.io.BlockReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class IntegerArrayTest {
+    @Test
+    public void testBounds() {
+        IntegerArray integerArray = new IntegerArray();
+        integerArray.setSize(10);
+        integerArray.setSize(4);
+        integerArray.put(3, 7);
+        Assert.assertEquals(7, integerArray.getAt(3));
+        try {
+            // within capacity but beyond size
+            integerArray.put(4, 1);
+            Assert.fail("Expecting IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+        Assert.assertEquals(16, integerArray.countBytes());
+        Assert.assertNull(integerArray.get(4));
+        Assert.assertNull(integerArray.get(-1));
+    }
+    @Test
+    public void testAddValues() {
+        IntegerArray integerArray = new IntegerArray();
+        integerArray.add(new int[]{1, 2, 3});
+        integerArray.add(new int[0]);
+        integerArray.add((int[]) null);
+        // appending to non empty array
+        integerArray.add(new int[]{4, 5});
+        integerArray.add(6);
+        Assert.assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6}, integerArray.toArray());
+        Assert.assertEquals(24, integerArray.countBytes());
+        Assert.assertTrue(integerArray.contains(5));
+        Assert.assertFalse(integerArray.contains(7));
+        Assert.assertEquals(Integer.valueOf(4), integerArray.toList().get(3));
+    }
+    @Test
+    public void testSetShrinkGrow() {
+        IntegerArray integerArray = new IntegerArray();
+        integerArray.set(new int[]{9, 8, 7, 6, 5});
+        Assert.assertArrayEquals(new int[]{9, 8, 7, 6, 5}, integerArray.toArray());
+        integerArray.set(new int[]{1, 2});
+        Assert.assertArrayEquals(new int[]{1, 2}, integerArray.toArray());
+        // released slots read as zero when grown again
+        integerArray.setSize(5);
+        Assert.assertArrayEquals(new int[]{1, 2, 0, 0, 0}, integerArray.toArray());
+        integerArray.ensureArraySize(3);
+        Assert.assertEquals(5, integerArray.size());
+        integerArray.ensureArraySize(100);
+        Assert.assertEquals(100, integerArray.size());
+        Assert.assertEquals(2, integerArray.getAt(1));
+        Assert.assertEquals(0, integerArray.getAt(99));
+        integerArray.fill(-1);
+        Assert.assertEquals(-1, integerArray.getAt(50));
+        integerArray.set(null);
+        Assert.assertEquals(0, integerArray.size());
+        integerArray.add(3);
+        integerArray.clear();
+        Assert.assertEquals(0, integerArray.countBytes());
+        Assert.assertArrayEquals(new byte[0], integerArray.getBytes());
+    }
+    @Test
+    public void testBytesRoundTrip() throws IOException {
+        int[] values = new int[]{0, 1, -1, 0x12345678, Integer.MIN_VALUE, 0x7fffffff};
+        IntegerArray integerArray = new IntegerArray();
+        integerArray.set(values);
+        byte[] bytes = integerArray.getBytes();
+        Assert.assertEquals(values.length * 4, bytes.length);
+        // little-endian
+        Assert.assertArrayEquals(new byte[]{0x78, 0x56, 0x34, 0x12},
+                new byte[]{bytes[12], bytes[13], bytes[14], bytes[15]});
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Assert.assertEquals(bytes.length, integerArray.writeBytes(outputStream));
+        Assert.assertArrayEquals(bytes, outputStream.toByteArray());
+
+        IntegerArray fromReader = new IntegerArray();
+        fromReader.setSize(values.length);
+        fromReader.readBytes(new BlockReader(bytes));
+        Assert.assertArrayEquals(values, fromReader.toArray());
+
+        IntegerArray fromStream = new IntegerArray();
+        fromStream.setSize(values.length);
+        Assert.assertEquals(bytes.length, fromStream.readBytes(new ByteArrayInputStream(bytes)));
+        Assert.assertArrayEquals(values, fromStream.toArray());
+    }
+    @Test
+    public void testShortOffsetArray() throws IOException {
+        ShortOffsetArray offsetArray = new ShortOffsetArray();
+        offsetArray.setSize(3);
+        offsetArray.setOffset(0, 0);
+        offsetArray.setOffset(1, OffsetArray.NO_ENTRY);
+        offsetArray.setOffset(2, ShortOffsetArray.MAX_OFFSET);
+        Assert.assertEquals(0, offsetArray.getOffset(0));
+        Assert.assertEquals(OffsetArray.NO_ENTRY, offsetArray.getOffset(1));
+        Assert.assertEquals(ShortOffsetArray.MAX_OFFSET, offsetArray.getOffset(2));
+        // uint16 values padded to 4 bytes
+        Assert.assertEquals(8, offsetArray.countBytes());
+        byte[] bytes = offsetArray.getBytes();
+        Assert.assertArrayEquals(new byte[]{0, 0, (byte) 0xff, (byte) 0xff,
+                (byte) 0xfe, (byte) 0xff, 0, 0}, bytes);
+        try {
+            offsetArray.setOffset(0, 6);
+            Assert.fail("Expecting IllegalArgumentException");
+        } catch (IllegalArgumentException ignored) {
+        }
+        Assert.assertFalse(ShortOffsetArray.canEncode(ShortOffsetArray.MAX_OFFSET + 4));
+
+        ShortOffsetArray fromReader = new ShortOffsetArray();
+        fromReader.setSize(3);
+        fromReader.readBytes(new BlockReader(bytes));
+        Assert.assertArrayEquals(offsetArray.toArray(), fromReader.toArray());
+        ShortOffsetArray fromStream = new ShortOffsetArray();
+        fromStream.setSize(3);
+        Assert.assertEquals(8, fromStream.readBytes(new ByteArrayInputStream(bytes)));
+        Assert.assertEquals(OffsetArray.NO_ENTRY, fromStream.getOffset(1));
+        Assert.assertEquals(ShortOffsetArray.MAX_OFFSET, fromStream.getOffset(2));
+    }
+    @Test
+    public void testSparseOffsetsArray() throws IOException {
+        SparseOffsetsArray offsetsArray = new SparseOffsetsArray();
+        offsetsArray.setSize(3);
+        offsetsArray.setIdx(0, 2);
+        offsetsArray.setOffset(0, SparseOffsetsArray.MAX_OFFSET);
+        offsetsArray.setIdx(1, 0x10);
+        offsetsArray.setOffset(1, 0x40);
+        offsetsArray.setIdx(2, 0xffff);
+        offsetsArray.setOffset(2, 0x80);
+        // id on low 16 bits, offset/4 on high 16 bits
+        Assert.assertEquals(0x00100010, offsetsArray.getAt(1));
+        Assert.assertEquals(0x10, offsetsArray.getIdx(1));
+        Assert.assertEquals(0x40, offsetsArray.getOffset(1));
+        Assert.assertEquals(SparseOffsetsArray.MAX_OFFSET, offsetsArray.getOffset(0));
+        Assert.assertEquals(0x80, offsetsArray.getOffset(2));
+        Assert.assertEquals(12, offsetsArray.countBytes());
+
+        byte[] bytes = offsetsArray.getBytes();
+        SparseOffsetsArray fromReader = new SparseOffsetsArray();
+        fromReader.setSize(3);
+        fromReader.readBytes(new BlockReader(bytes));
+        Assert.assertArrayEquals(offsetsArray.toArray(), fromReader.toArray());
+        Assert.assertEquals(1, fromReader.indexOf(0x10));
+        Assert.assertEquals(0xffff, fromReader.getHighestId());
+
+        fromReader.setIdx(1, OffsetArray.NO_ENTRY);
+        Assert.assertEquals(OffsetArray.NO_ENTRY, fromReader.getIdx(1));
+        Assert.assertEquals(OffsetArray.NO_ENTRY, fromReader.getOffset(1));
+        Assert.assertEquals(OffsetArray.NO_ENTRY, fromReader.indexOf(0x10));
+    }
+}
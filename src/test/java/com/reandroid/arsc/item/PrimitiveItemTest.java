@@ -0,0 +1,50 @@
+package com.reandroid.arsc.item;
+
+import com.reandroid.arsc.io.BlockReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class PrimitiveItemTest {
+    @Test
+    public void testReadWrite() throws IOException {
+        byte[] bytes = new byte[]{
+                (byte) 0x78, (byte) 0x56, (byte) 0x34, (byte) 0x12,
+                (byte) 0xfe, (byte) 0xff,
+                (byte) 0x80,
+                1, 2, 3, 4, 5, 6, 7, (byte) 0x88};
+        BlockReader reader = new BlockReader(bytes);
+        IntegerItem integerItem = new IntegerItem();
+        ShortItem shortItem = new ShortItem();
+        ByteItem byteItem = new ByteItem();
+        LongItem longItem = new LongItem();
+        integerItem.readBytes(reader);
+        shortItem.readBytes(reader);
+        byteItem.readBytes(reader);
+        longItem.readBytes(reader);
+
+        Assert.assertEquals(0x12345678, integerItem.get());
+        Assert.assertEquals((short) -2, shortItem.get());
+        Assert.assertEquals((byte) 0x80, byteItem.get());
+        Assert.assertEquals(0x8807060504030201L, longItem.get());
+        Assert.assertEquals(4, integerItem.countBytes());
+        Assert.assertEquals(8, longItem.countBytes());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        integerItem.writeBytes(outputStream);
+        shortItem.writeBytes(outputStream);
+        byteItem.writeBytes(outputStream);
+        longItem.writeBytes(outputStream);
+        Assert.assertArrayEquals(bytes, outputStream.toByteArray());
+
+        IntegerItem fromStream = new IntegerItem();
+        fromStream.readBytes(new ByteArrayInputStream(bytes));
+        Assert.assertEquals(0x12345678, fromStream.get());
+
+        shortItem.set((short) 0x0102);
+        Assert.assertArrayEquals(new byte[]{2, 1}, shortItem.getBytes());
+    }
+}
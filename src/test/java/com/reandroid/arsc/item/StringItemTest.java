@@ -0,0 +1,140 @@
+package com.reandroid.arsc.item;
+
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.pool.TableStringPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+public class StringItemTest {
+    @Test
+    public void testDecodeUtf8() throws IOException {
+        byte[] bytes = buildTable(true);
+        assertStrings(TableBlock.load(new ByteArrayInputStream(bytes)));
+    }
+    @Test
+    public void testDecodeUtf16() throws IOException {
+        byte[] bytes = buildTable(false);
+        assertStrings(TableBlock.load(new ByteArrayInputStream(bytes)));
+    }
+    @Test
+    public void testLazyStrings() throws IOException {
+        byte[] bytes = buildTable(true);
+        TableBlock tableBlock = new TableBlock();
+        tableBlock.setLazyLoadStrings(true);
+        tableBlock.readBytes(new ByteArrayInputStream(bytes));
+        TableStringPool stringPool = tableBlock.getTableStringPool();
+        Assert.assertTrue(stringPool.get(0).isLazy());
+        Assert.assertArrayEquals(bytes, tableBlock.getBytes());
+        assertStrings(tableBlock);
+        String first = STRINGS[0] + 0;
+        Assert.assertEquals(first, stringPool.getOrCreate(first).get());
+        Assert.assertEquals(EXPECTED.size(), stringPool.countStrings());
+        stringPool.get(0).set("modified");
+        Assert.assertFalse(stringPool.get(0).isLazy());
+        Assert.assertEquals("modified", stringPool.get(0).get());
+    }
+    @Test
+    public void testReferences(){
+        StringItem stringItem = new StringItem(true);
+        Assert.assertFalse(stringItem.hasReference());
+        List<IntegerItem> referenceList = new ArrayList<>();
+        for(int i = 0; i < 40; i++){
+            IntegerItem reference = new IntegerItem(i);
+            referenceList.add(reference);
+            stringItem.addReference(reference);
+            stringItem.addReference(reference);
+            Assert.assertEquals(i + 1, stringItem.getReferencedList().size());
+        }
+        Assert.assertEquals(new HashSet<>(referenceList),
+                new HashSet<>(stringItem.getReferencedList()));
+        for(int i = 39; i >= 0; i--){
+            Assert.assertTrue(stringItem.removeReference(referenceList.get(i)));
+            Assert.assertFalse(stringItem.removeReference(referenceList.get(i)));
+            Assert.assertEquals(i, stringItem.getReferencedList().size());
+        }
+        Assert.assertFalse(stringItem.hasReference());
+        stringItem.addReference(referenceList.get(0));
+        stringItem.addReference(referenceList.get(1));
+        stringItem.addReference(referenceList.get(2));
+        Assert.assertTrue(stringItem.removeReference(referenceList.get(0)));
+        Assert.assertEquals(2, stringItem.getReferencedList().size());
+        Assert.assertTrue(stringItem.getReferencedList().contains(referenceList.get(2)));
+        stringItem.removeAllReference();
+        Assert.assertFalse(stringItem.hasReference());
+    }
+    @Test
+    public void testConcurrentDecode() throws Exception {
+        final byte[] utf8 = buildTable(true);
+        final byte[] utf16 = buildTable(false);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try{
+            final CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<Void>> futureList = new ArrayList<>();
+            for(int i = 0; i < threads * 4; i++){
+                final byte[] bytes = (i % 2) == 0 ? utf8 : utf16;
+                futureList.add(executor.submit(() -> {
+                    startLatch.await();
+                    for(int j = 0; j < 20; j++){
+                        assertStrings(TableBlock.load(new ByteArrayInputStream(bytes)));
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for(Future<Void> future : futureList){
+                future.get(5, TimeUnit.MINUTES);
+            }
+        }finally {
+            executor.shutdownNow();
+        }
+    }
+    private static void assertStrings(TableBlock tableBlock){
+        TableStringPool stringPool = tableBlock.getTableStringPool();
+        int count = stringPool.countStrings();
+        Assert.assertEquals(EXPECTED.size(), count);
+        Set<String> decoded = new HashSet<>();
+        for(int i = 0; i < count; i++){
+            decoded.add(stringPool.get(i).get());
+        }
+        Assert.assertEquals(EXPECTED, decoded);
+    }
+    private static byte[] buildTable(boolean utf8){
+        TableBlock tableBlock = new TableBlock();
+        TableStringPool stringPool = tableBlock.getTableStringPool();
+        stringPool.setUtf8(utf8);
+        for(int i = 0; i < REPEAT; i++){
+            for(String str : STRINGS){
+                stringPool.getOrCreate(str + i);
+            }
+        }
+        tableBlock.refresh();
+        return tableBlock.getBytes();
+    }
+
+    private static final int REPEAT = 200;
+    private static final String[] STRINGS = new String[]{
+            "res/layout/activity_main.xml",
+            "\u00dcn\u00efc\u00f6d\u00e9 str\u00eeng ",
+            "\u65e5\u672c\u8a9e\u306e\u6587\u5b57\u5217",
+            "\uc548\ub155\ud558\uc138\uc694 ",
+            "emoji \ud83d\ude00\ud83d\udc4d ",
+            "\u0645\u0631\u062d\u0628\u0627 mixed text "
+    };
+    private static final Set<String> EXPECTED = new HashSet<>();
+    static {
+        for(int i = 0; i < REPEAT; i++){
+            for(String str : STRINGS){
+                EXPECTED.add(str + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.reandroid.arsc.model;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.StagedAlias;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.StagedAliasEntry;
+import com.reandroid.common.ReferenceResolver;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class ResourceIdIndexTest {
+    @Test
+    public void testLookupAndInvalidation() throws IOException {
+        TableBlock framework = createFramework();
+        TableBlock tableBlock = TableBlock.load(new ByteArrayInputStream(createApp().getBytes()));
+        tableBlock.addFramework(framework);
+        tableBlock.setResourceIndexEnabled(true);
+        PackageBlock packageBlock = tableBlock.pickOne();
+        int idOnlyDe = getId(tableBlock, "string", "only_de");
+        int idLast = getId(tableBlock, "string", "name_19");
+        int missing = idLast + 1;
+        int[] ids = new int[]{idOnlyDe, idLast, missing, 0x01010000, 0x01010001, 0x01020000,
+                0x7f7f0000, 0x02010000, 0};
+        assertSameAsScan(tableBlock, ids);
+        // loaded tree is not pending, types are indexed
+        Assert.assertFalse(packageBlock.getSpecTypePair("string").isRefreshPending());
+        Assert.assertEquals(2, resolveAll(tableBlock, idLast).size());
+        Assert.assertEquals(1, resolveAll(tableBlock, idOnlyDe).size());
+
+        // new entry while pending refresh
+        Entry entry = packageBlock.getOrCreate("", "string", "name_20");
+        entry.setValueAsString("value_20");
+        Assert.assertEquals(missing, entry.getResourceId());
+        assertSameAsScan(tableBlock, ids);
+        tableBlock.refresh();
+        assertSameAsScan(tableBlock, ids);
+        Assert.assertEquals(1, resolveAll(tableBlock, missing).size());
+        // removed from all configurations
+        for(Entry e : listEntries(tableBlock, idLast)){
+            e.setNull(true);
+        }
+        tableBlock.refresh();
+        Assert.assertEquals(0, resolveAll(tableBlock, idLast).size());
+        assertSameAsScan(tableBlock, ids);
+
+        // staged alias added after index built
+        int staged = 0x7f7f0000;
+        Assert.assertNull(tableBlock.getResource(staged));
+        StagedAlias stagedAlias = new StagedAlias();
+        packageBlock.getStagedAliasList().add(stagedAlias);
+        StagedAliasEntry aliasEntry = stagedAlias.getStagedAliasEntryArray().createNext();
+        aliasEntry.setStagedResId(staged);
+        aliasEntry.setFinalizedResId(idOnlyDe);
+        Assert.assertEquals(idOnlyDe, tableBlock.getResource(staged).getResourceId());
+        aliasEntry.setFinalizedResId(missing);
+        Assert.assertEquals(missing, tableBlock.getResource(staged).getResourceId());
+        assertSameAsScan(tableBlock, ids);
+
+        // framework changes
+        Assert.assertNull(tableBlock.getResource(0x01020000));
+        framework.pickOne().getOrCreate("", "bool", "bool_0").setValueAsBoolean(true);
+        Assert.assertNotNull(tableBlock.getResource(0x01020000));
+        tableBlock.removeFramework(framework);
+        Assert.assertNull(tableBlock.getResource(0x01010000));
+        assertSameAsScan(tableBlock, ids);
+        tableBlock.addFramework(framework);
+        Assert.assertNotNull(tableBlock.getResource(0x01010000));
+
+        // package id change
+        packageBlock.setId(0x7e);
+        Assert.assertNull(tableBlock.getResource(idLast - 1));
+        Assert.assertNotNull(tableBlock.getResource((idLast - 1) & 0x00ffffff | 0x7e000000));
+        assertSameAsScan(tableBlock, ids);
+    }
+    @Test
+    public void testEmptyAndLazyTable() throws IOException {
+        TableBlock empty = new TableBlock();
+        empty.setResourceIndexEnabled(true);
+        Assert.assertNull(empty.getResource(0x7f010000));
+        Assert.assertFalse(empty.getEntries(0x7f010000).hasNext());
+        empty.newPackage(0x7f, "com.example").getOrCreate("", "string", "name")
+                .setValueAsString("value");
+        Assert.assertNotNull(empty.getResource(0x7f010000));
+
+        byte[] bytes = createApp().getBytes();
+        TableBlock lazy = new TableBlock();
+        lazy.setLazyLoadTypes(true);
+        lazy.readBytes(new ByteArrayInputStream(bytes));
+        lazy.setResourceIndexEnabled(true);
+        TableBlock eager = TableBlock.load(new ByteArrayInputStream(bytes));
+        int idLast = getId(eager, "string", "name_19");
+        for(int id = idLast - 25; id <= idLast + 1; id++){
+            ResourceEntry expected = eager.getResource(id);
+            ResourceEntry resourceEntry = lazy.getResource(id);
+            if(expected == null){
+                Assert.assertNull(resourceEntry);
+            }else {
+                Assert.assertEquals(expected.getResourceId(), resourceEntry.getResourceId());
+                Assert.assertEquals(expected.getConfigsCount(), resourceEntry.getConfigsCount());
+            }
+        }
+        // lazy parsing of entries does not leave blocks pending refresh
+        SpecTypePair specTypePair = lazy.pickOne().getSpecTypePair("string");
+        Assert.assertFalse(specTypePair.isRefreshPending());
+        Assert.assertFalse(lazy.isRefreshPending());
+        Assert.assertArrayEquals(bytes, lazy.getBytes());
+    }
+
+    private static void assertSameAsScan(TableBlock tableBlock, int[] ids){
+        for(int id : ids){
+            ResourceEntry expected = scan(tableBlock, id);
+            ResourceEntry resourceEntry = tableBlock.getResource(id);
+            if(expected == null){
+                Assert.assertNull(resourceEntry);
+                Assert.assertEquals(0, resolveAll(tableBlock, id).size());
+                continue;
+            }
+            Assert.assertNotNull(resourceEntry);
+            Assert.assertSame(expected.getPackageBlock(), resourceEntry.getPackageBlock());
+            Assert.assertEquals(expected.getResourceId(), resourceEntry.getResourceId());
+            List<Entry> entries = new ArrayList<>();
+            Iterator<Entry> iterator = expected.iterator(true);
+            while (iterator.hasNext()){
+                entries.add(iterator.next());
+            }
+            Assert.assertEquals(entries, listEntries(tableBlock, id));
+        }
+    }
+    // Same search as TableBlock without index
+    private static ResourceEntry scan(TableBlock tableBlock, int resourceId){
+        if(resourceId == 0){
+            return null;
+        }
+        ResourceEntry resourceEntry = scanDirect(tableBlock, resourceId);
+        if(resourceEntry != null){
+            return resourceEntry;
+        }
+        int staged = tableBlock.resolveStagedAlias(resourceId, 0);
+        if(staged == 0 || staged == resourceId){
+            return null;
+        }
+        return scanDirect(tableBlock, staged);
+    }
+    private static ResourceEntry scanDirect(TableBlock tableBlock, int resourceId){
+        Iterator<PackageBlock> iterator = tableBlock.getAllPackages();
+        while (iterator.hasNext()){
+            PackageBlock packageBlock = iterator.next();
+            if(packageBlock.getId() != ((resourceId >> 24) & 0xff)){
+                continue;
+            }
+            ResourceEntry resourceEntry = packageBlock.getResource(resourceId);
+            if(resourceEntry != null){
+                return resourceEntry;
+            }
+        }
+        return null;
+    }
+    private static List<Entry> listEntries(TableBlock tableBlock, int resourceId){
+        List<Entry> results = new ArrayList<>();
+        tableBlock.getResourceIdIndex().collectEntries(resourceId, true, results);
+        return results;
+    }
+    private static List<Entry> resolveAll(TableBlock tableBlock, int resourceId){
+        return new ReferenceResolver(tableBlock).resolveAll(resourceId);
+    }
+    private static int getId(TableBlock tableBlock, String type, String name){
+        return tableBlock.pickOne().getResource(type, name).getResourceId();
+    }
+    private static TableBlock createApp(){
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example.package");
+        packageBlock.getOrCreate("-de", "string", "only_de").setValueAsString("de");
+        for(int i = 0; i < 20; i++){
+            packageBlock.getOrCreate("", "string", "name_" + i).setValueAsString("value_" + i);
+            if(i % 2 == 1){
+                packageBlock.getOrCreate("-de", "string", "name_" + i)
+                        .setValueAsString("de_" + i);
+            }
+        }
+        tableBlock.refresh();
+        return tableBlock;
+    }
+    private static TableBlock createFramework(){
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x01, "android");
+        packageBlock.getOrCreate("", "attr", "attr_0").setValueAsBoolean(true);
+        packageBlock.getOrCreate("", "attr", "attr_1").setValueAsBoolean(false);
+        tableBlock.refresh();
+        return tableBlock;
+    }
+}